@@ -0,0 +1,80 @@
+package com.dkamakin.s3.stream;
+
+import com.dkamakin.s3.stream.impl.ConcatenatedInputStream;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import software.amazon.awssdk.services.s3.S3Client;
+
+public interface IConcatenatedInputStreamBuilder {
+
+    /**
+     * Required. Specify a client to communicate with s3
+     *
+     * @param s3Client client to use
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder client(S3Client s3Client);
+
+    /**
+     * Required. Specify a bucket to read objects from
+     *
+     * @param bucketName bucket
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder bucket(String bucketName);
+
+    /**
+     * Read every object which key starts with the prefix, in the lexicographical order of keys as listed by S3. Keys
+     * are listed lazily page by page. Either a prefix or {@link IConcatenatedInputStreamBuilder#keys(List)} is required
+     *
+     * @param prefix key prefix, e.g. {@code logs/2024-01-01/}
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder prefix(String prefix);
+
+    /**
+     * Read the objects in the given order. Either keys or {@link IConcatenatedInputStreamBuilder#prefix(String)} is
+     * required
+     *
+     * @param keys keys of the objects
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder keys(List<String> keys);
+
+    /**
+     * Optional. Size of the first block of the next object which is prefetched while the current one is being read,
+     * also the size of blocks in which the rest of an object is read. 1 MB by default
+     *
+     * @param blockSize block size
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder blockSize(Bytes blockSize);
+
+    /**
+     * Optional. Specify an executor to prefetch the next object on. If not specified, a single daemon thread is created
+     * and shut down when the stream is closed. A provided executor is never shut down by the stream
+     *
+     * @param executor executor to use
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder executor(ExecutorService executor);
+
+    /**
+     * Optional. Resume a read interrupted by a network failure, {@link RetryPolicy#standard()} by default
+     *
+     * @param retryPolicy maximum attempts and backoff
+     * @return builder instance
+     */
+    IConcatenatedInputStreamBuilder retryPolicy(RetryPolicy retryPolicy);
+
+    /**
+     * Builds a stream with specified values. No request is sent until the first read
+     *
+     * @return built stream
+     * @throws IllegalArgumentException required arguments weren't specified
+     */
+    ConcatenatedInputStream build();
+
+}
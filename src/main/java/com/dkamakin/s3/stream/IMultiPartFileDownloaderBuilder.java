@@ -0,0 +1,80 @@
+package com.dkamakin.s3.stream;
+
+import com.dkamakin.s3.stream.impl.MultiPartFileDownloader;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import java.util.concurrent.ExecutorService;
+import software.amazon.awssdk.services.s3.S3Client;
+
+public interface IMultiPartFileDownloaderBuilder {
+
+    /**
+     * Required. Specify a client to communicate with s3
+     *
+     * @param s3Client client to use
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder client(S3Client s3Client);
+
+    /**
+     * Required. Specify a bucket to search {@link IMultiPartFileDownloaderBuilder#key(String)} in
+     *
+     * @param bucketName bucket
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder bucket(String bucketName);
+
+    /**
+     * Required. Specify a key in {@link IMultiPartFileDownloaderBuilder#bucket(String)} to download
+     *
+     * @param key file name
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder key(String key);
+
+    /**
+     * Optional. Size of a range fetched by a single GET request, 8 MB by default. Every concurrent request holds a
+     * buffer of this size
+     *
+     * @param partSize range size
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder partSize(Bytes partSize);
+
+    /**
+     * Optional. Maximum amount of concurrent requests, 8 by default
+     *
+     * @param parallelism amount of concurrent requests
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder parallelism(int parallelism);
+
+    /**
+     * Optional. Specify an executor to run requests on. If not specified, a new fixed thread pool is created for each
+     * download and shut down when it's finished. A provided executor is never shut down by the downloader
+     *
+     * @param executor executor to use
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder executor(ExecutorService executor);
+
+    /**
+     * Optional. A read interrupted by a network failure is resumed by a new ranged request starting from the first
+     * byte that hasn't been delivered yet. The request is pinned to the ETag of the original response, so the object
+     * can't change in the middle of the download. By default, {@link RetryPolicy#standard()} is used, pass
+     * {@link RetryPolicy#none()} to fail on the first error
+     *
+     * @param retryPolicy maximum attempts and backoff
+     * @return builder instance
+     */
+    IMultiPartFileDownloaderBuilder retryPolicy(RetryPolicy retryPolicy);
+
+    /**
+     * Builds a downloader with specified values
+     *
+     * @return built downloader
+     * @throws IllegalArgumentException required arguments weren't specified
+     */
+    MultiPartFileDownloader build();
+
+}
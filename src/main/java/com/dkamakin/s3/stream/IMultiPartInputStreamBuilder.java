@@ -1,6 +1,16 @@
 package com.dkamakin.s3.stream;
 
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.handler.impl.ReadPolicy;
+import com.dkamakin.s3.stream.handler.impl.RequestHedger;
 import com.dkamakin.s3.stream.impl.MultiPartInputStream;
+import com.dkamakin.s3.stream.impl.RecordSpliterator;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 import software.amazon.awssdk.services.s3.S3Client;
 
 public interface IMultiPartInputStreamBuilder {
@@ -29,6 +39,182 @@ public interface IMultiPartInputStreamBuilder {
      */
     IMultiPartInputStreamBuilder key(String key);
 
+    /**
+     * Optional. By default, each read sends a separate ranged GET request. In the streaming mode a single response is
+     * kept open across sequential reads and a new one is requested only after a seek, an error or when maxSpan bytes
+     * of the previous one were consumed
+     *
+     * @param maxSpan maximum amount of bytes requested by a single GET
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder streaming(Bytes maxSpan);
+
+    /**
+     * Optional. By default, every span of the streaming mode has the size of maxSpan. With an adaptive span the first
+     * request asks for initialSpan bytes to get the first byte fast, the following ones grow up to maxSpan while the
+     * observed throughput keeps up and shrink after errors or stalls. Requires
+     * {@link IMultiPartInputStreamBuilder#streaming(Bytes)}
+     *
+     * @param initialSpan size of the first request, e.g. 256 KB
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder adaptiveSpan(Bytes initialSpan);
+
+    /**
+     * Optional. Enables the streaming mode with the given access pattern. In the sequential mode long ranges (up to
+     * {@link IMultiPartInputStreamBuilder#streaming(Bytes)}, 64 MB by default) are kept open, in the random mode
+     * exactly the requested window is fetched, the adaptive mode starts sequential and switches to random after a
+     * backward seek or a large forward jump, it never switches back to sequential for the rest of the stream. Can't be
+     * combined with {@link IMultiPartInputStreamBuilder#parallelism(int)}
+     *
+     * @param readPolicy access pattern
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder readPolicy(ReadPolicy readPolicy);
+
+    /**
+     * Optional. By default, the length of the array provided to {@link MultiPartInputStream#read(byte[], int, int)}
+     * decides the size of a requested range. Specifying chunkSize makes the stream download fixed-size blocks into an
+     * internal buffer and serve reads from memory, which also allows to read single bytes
+     *
+     * @param chunkSize size of a downloaded block, e.g. 8 MB
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder chunkSize(Bytes chunkSize);
+
+    /**
+     * Optional. Enables a parallel prefetch: up to parallelism chunks are downloaded concurrently ahead of the reader
+     * and handed out in order. If {@link IMultiPartInputStreamBuilder#chunkSize(Bytes)} is not specified, 8 MB chunks
+     * are used. Can't be combined with {@link IMultiPartInputStreamBuilder#streaming(Bytes)}
+     *
+     * @param parallelism maximum amount of concurrent requests
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder parallelism(int parallelism);
+
+    /**
+     * Optional. Limits the memory used by chunks downloaded ahead of the reader within the parallel prefetch, see
+     * {@link IMultiPartInputStreamBuilder#parallelism(int)}
+     *
+     * @param maxBufferedMemory memory limit, must fit at least one chunk
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder maxBufferedMemory(Bytes maxBufferedMemory);
+
+    /**
+     * Optional. Maximum amount of concurrent requests of {@link MultiPartInputStream#readVectored(java.util.List)}, 8
+     * by default. It sizes the thread pool created on the first vectored read and is ignored if
+     * {@link IMultiPartInputStreamBuilder#executor(ExecutorService)} is specified. Unlike
+     * {@link IMultiPartInputStreamBuilder#parallelism(int)}, it doesn't enable a prefetch
+     *
+     * @param vectoredParallelism maximum amount of concurrent requests
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder vectoredParallelism(int vectoredParallelism);
+
+    /**
+     * Optional. Specify an executor to run the parallel prefetch and vectored reads on, see
+     * {@link IMultiPartInputStreamBuilder#parallelism(int)} and
+     * {@link IMultiPartInputStreamBuilder#vectoredParallelism(int)}. If not specified, a new fixed thread pool is
+     * created when needed and shut down when the stream is closed. A provided executor is never shut down by the stream
+     *
+     * @param executor executor to use
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder executor(ExecutorService executor);
+
+    /**
+     * Optional. By default, the length of the file is captured from the first response. Resolving the length sends a
+     * HEAD request when the stream is built, so EOS is known before the first read and a small file can be downloaded
+     * using a single GET request without a range
+     *
+     * @param resolveLength whether the length should be requested when the stream is built
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder resolveLength(boolean resolveLength);
+
+    /**
+     * Optional. Specify a block cache shared between streams, e.g.
+     * {@link com.dkamakin.s3.stream.cache.impl.MemoryBlockCache} or
+     * {@link com.dkamakin.s3.stream.cache.impl.DiskBlockCache} which survives restarts. Reads are served from cached
+     * blocks of the same version of the object, missing blocks are downloaded as a whole and put into the cache
+     *
+     * @param blockCache cache to use
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder blockCache(IBlockCache blockCache);
+
+    /**
+     * Optional. By default, downloaded blocks are stored in heap arrays. Specifying a shared
+     * {@link com.dkamakin.s3.stream.util.impl.SlabBufferAllocator} keeps buffered, prefetched and cached blocks in
+     * preallocated direct memory, which reduces GC pressure when many streams are open.
+     * {@link com.dkamakin.s3.stream.util.impl.PooledBufferAllocator} reuses heap buffers under a global memory limit
+     * and can be shared with output streams
+     *
+     * @param allocator allocator of block buffers
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder allocator(IBufferAllocator allocator);
+
+    /**
+     * Optional. Ranges of {@link MultiPartInputStream#readVectored(java.util.List)} separated by no more than maxGap
+     * bytes are fetched by a single request, 16 KB by default. Separate requests run on the
+     * {@link IMultiPartInputStreamBuilder#executor(ExecutorService)} if specified
+     *
+     * @param maxGap maximum distance between coalesced ranges
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder rangeCoalescingGap(Bytes maxGap);
+
+    /**
+     * Optional. Fetches the last footerSize bytes of the file by a single suffix request when the stream is built and
+     * keeps them in memory, so reading the footer of a Parquet, ORC or zip file doesn't cost another request. The same
+     * response resolves the length and the ETag of the file, so there is no need in
+     * {@link IMultiPartInputStreamBuilder#resolveLength(boolean)}
+     *
+     * @param footerSize amount of trailing bytes to pin, e.g. 64 KB
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder footerPrefetch(Bytes footerSize);
+
+    /**
+     * Optional. A read interrupted by a network failure is resumed by a new ranged request starting from the first
+     * byte that hasn't been delivered yet. The request is pinned to the ETag of the original response, so the object
+     * can't change in the middle of the download. By default, {@link RetryPolicy#standard()} is used, pass
+     * {@link RetryPolicy#none()} to fail on the first error. Every request after the first one is pinned to the ETag
+     * with any policy, including {@link RetryPolicy#none()}, so reading an object which is overwritten during the read
+     * fails with a 412 {@link software.amazon.awssdk.services.s3.model.S3Exception} instead of returning bytes of the
+     * new version
+     *
+     * @param retryPolicy maximum attempts and backoff
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder retryPolicy(RetryPolicy retryPolicy);
+
+    /**
+     * Optional. Sends a duplicate GET request when the first one hasn't responded within the given percentile of the
+     * recently observed first-byte latencies, the response which arrives first is used and the other one is cancelled.
+     * Duplicates are limited by the budget, e.g. 0.05 adds at most 5% of requests. Nothing is hedged until 16
+     * latencies are observed and the history is kept by the stream, so a short stream never hedges, see
+     * {@link IMultiPartInputStreamBuilder#hedgeRequests(RequestHedger)}. Can't be combined with
+     * {@link IMultiPartInputStreamBuilder#streaming(Bytes)}
+     *
+     * @param percentile latency percentile after which a request is hedged, e.g. 0.95
+     * @param budget     maximum ratio of duplicate requests, e.g. 0.05
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder hedgeRequests(double percentile, double budget);
+
+    /**
+     * Optional. The same as {@link IMultiPartInputStreamBuilder#hedgeRequests(double, double)}, but the given hedger
+     * may be shared by every stream, so the latency history and the budget are global and short streams are hedged
+     * as well. Takes precedence over the percentile and the budget. The hedger is never closed by the stream
+     *
+     * @param hedger shared hedger
+     * @return builder instance
+     */
+    IMultiPartInputStreamBuilder hedgeRequests(RequestHedger hedger);
+
     /**
      * Builds an input stream with specified values
      *
@@ -37,4 +223,20 @@ public interface IMultiPartInputStreamBuilder {
      */
     MultiPartInputStream build();
 
+    /**
+     * Builds a stream of records separated by the delimiter, which can be processed in parallel: the object is split
+     * into byte ranges of at least splitSize bytes, each of them is read by independent ranged GET requests of
+     * {@link IMultiPartInputStreamBuilder#chunkSize(Bytes)} bytes. A record is a reused view valid only until the next
+     * one, see {@link RecordSpliterator#stream}. The retry policy, the block cache and request hedging are applied to
+     * every request, the options of vectored reads are ignored. Can't be combined with
+     * {@link IMultiPartInputStreamBuilder#streaming(Bytes)}, {@link IMultiPartInputStreamBuilder#footerPrefetch(Bytes)}
+     * and {@link IMultiPartInputStreamBuilder#parallelism(int)}, the splits are already read in parallel
+     *
+     * @param delimiter byte which terminates a record, e.g. {@code '\n'}
+     * @param splitSize minimum amount of bytes processed by a single thread, e.g. 64 MB
+     * @return sequential stream of records, which has to be closed
+     * @throws IllegalArgumentException required arguments weren't specified
+     */
+    Stream<ByteBuffer> records(byte delimiter, Bytes splitSize);
+
 }
@@ -1,7 +1,10 @@
 package com.dkamakin.s3.stream;
 
 import com.dkamakin.s3.stream.impl.MultiPartOutputStream;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
 import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.PooledBufferAllocator;
+import java.util.concurrent.ExecutorService;
 import software.amazon.awssdk.services.s3.S3Client;
 
 public interface IMultiPartOutputStreamBuilder {
@@ -39,6 +42,54 @@ public interface IMultiPartOutputStreamBuilder {
      */
     IMultiPartOutputStreamBuilder minPartSize(Bytes minPartSize);
 
+    /**
+     * Optional. S3 allows at most 10000 parts, so with a fixed part size of 5 MB an object can't exceed about 50 GB. If
+     * specified, the part size starts at {@link IMultiPartOutputStreamBuilder#minPartSize(Bytes)} and is doubled every
+     * 500 parts up to maxPartSize, so a small output still uses small buffers. Starting at 5 MB, a max part size of
+     * 1 GB is enough to reach the 5 TB object limit. A part is buffered in memory, so it can't exceed 2047 MB
+     *
+     * @param maxPartSize the largest part size, must not be less than minPartSize
+     * @return builder instance
+     */
+    IMultiPartOutputStreamBuilder maxPartSize(Bytes maxPartSize);
+
+    /**
+     * Optional. By default, a part is uploaded by the writing thread, so a write which fills a part is blocked until
+     * the part is transferred. If specified, filled parts are uploaded in the background while the producer keeps
+     * writing, at most maxInFlightParts at once. Each of them holds a buffer of
+     * {@link IMultiPartOutputStreamBuilder#minPartSize(Bytes)} bytes until it's uploaded. Whole parts of a large
+     * {@link MultiPartOutputStream#write(byte[], int, int)} are uploaded straight from the caller's array without
+     * copying, so such a write still waits for them: they are sent in parallel, but the producer is blocked until the
+     * last one is transferred. Write in chunks smaller than a part to keep the producer running. A failed part is
+     * reported by the following write or by {@link MultiPartOutputStream#close()}, which aborts the upload
+     *
+     * @param maxInFlightParts maximum amount of parts uploaded at once, e.g. 8
+     * @return builder instance
+     */
+    IMultiPartOutputStreamBuilder maxInFlightParts(int maxInFlightParts);
+
+    /**
+     * Optional. Specify an executor to upload parts on, requires
+     * {@link IMultiPartOutputStreamBuilder#maxInFlightParts(int)}. If not specified, a fixed thread pool of
+     * maxInFlightParts daemon threads is created and shut down when the stream is closed. A provided executor is never
+     * shut down by the stream
+     *
+     * @param executor executor to use
+     * @return builder instance
+     */
+    IMultiPartOutputStreamBuilder executor(ExecutorService executor);
+
+    /**
+     * Optional. Specify an allocator of part buffers. By default, a new array of
+     * {@link IMultiPartOutputStreamBuilder#minPartSize(Bytes)} bytes is allocated for every part. A pooling allocator,
+     * e.g. {@link PooledBufferAllocator}, gets a buffer back as soon as its part is uploaded, so the same buffers are
+     * reused for the whole upload. The allocator must return heap buffers, a direct buffer is replaced by a new array
+     *
+     * @param allocator allocator of part buffers, may be shared with input streams
+     * @return builder instance
+     */
+    IMultiPartOutputStreamBuilder allocator(IBufferAllocator allocator);
+
     /**
      * Builds an output stream with specified values
      *
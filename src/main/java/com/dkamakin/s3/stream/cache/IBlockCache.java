@@ -0,0 +1,41 @@
+package com.dkamakin.s3.stream.cache;
+
+import com.dkamakin.s3.stream.cache.impl.BlockCacheStats;
+import com.dkamakin.s3.stream.cache.impl.BlockKey;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+
+public interface IBlockCache {
+
+    /**
+     * Get a size of cached blocks. Every block except the last one of an object has exactly this size
+     *
+     * @return block size
+     */
+    Bytes blockSize();
+
+    /**
+     * Get a cached block. The returned block is retained, the caller must release it when it's not used anymore
+     *
+     * @param key block key
+     * @return cached block or null if absent
+     */
+    Block get(BlockKey key);
+
+    /**
+     * Put a downloaded block into the cache, possibly evicting other blocks. The cache retains the block if it keeps
+     * it and releases the block on eviction, the caller still has to release its own reference
+     *
+     * @param key   block key
+     * @param block downloaded block
+     */
+    void put(BlockKey key, Block block);
+
+    /**
+     * Get hit, miss and eviction counters
+     *
+     * @return statistics snapshot
+     */
+    BlockCacheStats stats();
+
+}
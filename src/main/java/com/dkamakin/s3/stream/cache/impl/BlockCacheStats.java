@@ -0,0 +1,57 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import com.google.common.base.MoreObjects;
+import java.util.Objects;
+
+public class BlockCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public BlockCacheStats(long hitCount, long missCount, long evictionCount) {
+        this.hitCount      = hitCount;
+        this.missCount     = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        BlockCacheStats that = (BlockCacheStats) o;
+        return hitCount == that.hitCount && missCount == that.missCount && evictionCount == that.evictionCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, evictionCount);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("hitCount", hitCount)
+                          .add("missCount", missCount)
+                          .add("evictionCount", evictionCount)
+                          .toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import com.google.common.base.MoreObjects;
+import java.util.Objects;
+
+/**
+ * Identifies a block of a particular version of an object. The ETag is a part of the key, so a block of a changed
+ * object is never served
+ */
+public class BlockKey {
+
+    private final String bucketName;
+    private final String key;
+    private final String eTag;
+    private final long   index;
+
+    public BlockKey(String bucketName, String key, String eTag, long index) {
+        this.bucketName = bucketName;
+        this.key        = key;
+        this.eTag       = eTag;
+        this.index      = index;
+    }
+
+    public String bucketName() {
+        return bucketName;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String eTag() {
+        return eTag;
+    }
+
+    public long index() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        BlockKey that = (BlockKey) o;
+        return index == that.index &&
+               bucketName.equals(that.bucketName) &&
+               key.equals(that.key) &&
+               Objects.equals(eTag, that.eTag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucketName, key, eTag, index);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("bucketName", bucketName)
+                          .add("key", key)
+                          .add("eTag", eTag)
+                          .add("index", index)
+                          .toString();
+    }
+}
@@ -0,0 +1,397 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent block cache storing every block in a separate file of the given directory. A file starts with a small
+ * header describing the block (bucket, key, ETag, index), so the index is rebuilt from headers only when the cache is
+ * created, and the cache survives restarts. Hits are served from memory-mapped files without copying into the heap. A
+ * file is mapped on the first hit and the mapping is shared by the following hits, it's unmapped once the block is
+ * evicted and every returned block is released, so live mappings never outnumber the cached blocks. Blocks of objects
+ * without an ETag are not cached, the header can't describe them. Files written with another block size are skipped,
+ * so the directory may be shared by caches of different block sizes. The total size of the cached blocks is limited
+ * by {@code capacity}, the least recently used blocks are deleted first
+ */
+@ThreadSafe
+public class DiskBlockCache implements IBlockCache {
+
+    static class Token {
+
+        static final int    MAGIC          = 0x53334243;
+        static final String EXTENSION      = ".block";
+        static final String TEMP_EXTENSION = ".tmp";
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskBlockCache.class);
+
+    private final Path                 directory;
+    private final Bytes                capacity;
+    private final Bytes                blockSize;
+    private final Map<BlockKey, Entry> entries;
+    private final AtomicLong           hitCount;
+    private final AtomicLong           missCount;
+    private final AtomicLong           evictionCount;
+    private       long                 size;
+
+    public DiskBlockCache(Path directory, Bytes capacity, Bytes blockSize) {
+        Validator.nonNull(directory, "directory");
+        Validator.nonNull(capacity, "capacity");
+        Validator.nonNull(blockSize, "blockSize");
+        Validator.ifValue(capacity).lessThan(blockSize).thenThrow(
+            () -> new IllegalArgumentException("Capacity must fit at least one block"));
+
+        this.directory     = directory;
+        this.capacity      = capacity;
+        this.blockSize     = blockSize;
+        this.entries       = new LinkedHashMap<>(16, 0.75f, true);
+        this.hitCount      = new AtomicLong();
+        this.missCount     = new AtomicLong();
+        this.evictionCount = new AtomicLong();
+
+        load();
+    }
+
+    @Override
+    public Bytes blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public Block get(BlockKey key) {
+        Entry entry;
+
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        try {
+            Block block = entry.retain();
+
+            if (block == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+
+            hitCount.incrementAndGet();
+
+            return block;
+        } catch (IOException e) {
+            LOG.warn("Failed to read cached block {}", entry, e);
+
+            remove(key, entry);
+            missCount.incrementAndGet();
+
+            return null;
+        }
+    }
+
+    @Override
+    public void put(BlockKey key, Block block) {
+        if (key.eTag() == null) {
+            LOG.debug("Skipping block {} of an object without ETag", key);
+            return;
+        }
+
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return;
+            }
+        }
+
+        Path file = directory.resolve(fileName(key));
+        int  offset;
+
+        try {
+            offset = write(file, key, block);
+        } catch (IOException e) {
+            LOG.warn("Failed to cache block {} of {}", key, block, e);
+            return;
+        }
+
+        synchronized (this) {
+            add(key, new Entry(file, offset, block.length(), block.position()));
+            evict();
+        }
+    }
+
+    @Override
+    public BlockCacheStats stats() {
+        return new BlockCacheStats(hitCount.get(), missCount.get(), evictionCount.get());
+    }
+
+    private void load() {
+        List<Path> files = new ArrayList<>();
+
+        try {
+            Files.createDirectories(directory);
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                stream.forEach(files::add);
+            }
+
+            files.sort(Comparator.comparing(this::lastModified));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (Path file : files) {
+            load(file);
+        }
+
+        synchronized (this) {
+            evict();
+        }
+
+        LOG.info("Loaded {} blocks ({} bytes) from {}", entries.size(), size, directory);
+    }
+
+    private void load(Path file) {
+        String name = file.getFileName().toString();
+
+        if (!name.endsWith(Token.EXTENSION)) {
+            if (name.endsWith(Token.TEMP_EXTENSION)) {
+                delete(file);
+            }
+
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            if (input.readInt() != Token.MAGIC) {
+                LOG.info("Deleting incompatible block {}", file);
+                delete(file);
+                return;
+            }
+
+            if (input.readInt() != blockSize.toBytes()) {
+                LOG.debug("Skipping block {} of another block size", file);
+                return;
+            }
+
+            BlockKey key    = new BlockKey(input.readUTF(), input.readUTF(), input.readUTF(), input.readLong());
+            int      length = input.readInt();
+            int      offset = header(key, length).length;
+
+            if (Files.size(file) != offset + (long) length) {
+                LOG.info("Deleting incomplete block {}", file);
+                delete(file);
+                return;
+            }
+
+            synchronized (this) {
+                add(key, new Entry(file, offset, length, key.index() * blockSize.toBytes()));
+            }
+        } catch (IOException e) {
+            LOG.warn("Deleting unreadable block {}", file, e);
+            delete(file);
+        }
+    }
+
+    /**
+     * Writes the block into a temporary file and atomically moves it, so a partially written block is never loaded
+     *
+     * @return header length
+     */
+    private int write(Path file, BlockKey key, Block block) throws IOException {
+        byte[] header = header(key, block.length());
+        Path   temp   = Files.createTempFile(directory, file.getFileName().toString(), Token.TEMP_EXTENSION);
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer[] buffers = {ByteBuffer.wrap(header), block.view(block.position())};
+
+                while (buffers[1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            delete(temp);
+        }
+
+        return header.length;
+    }
+
+    private byte[] header(BlockKey key, int length) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (DataOutputStream stream = new DataOutputStream(output)) {
+            stream.writeInt(Token.MAGIC);
+            stream.writeInt(blockSize.toBytes());
+            stream.writeUTF(key.bucketName());
+            stream.writeUTF(key.key());
+            stream.writeUTF(key.eTag());
+            stream.writeLong(key.index());
+            stream.writeInt(length);
+        }
+
+        return output.toByteArray();
+    }
+
+    private void add(BlockKey key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+
+        if (previous != null) {
+            size -= previous.length;
+            previous.release();
+        }
+
+        size += entry.length;
+    }
+
+    /**
+     * Removes the entry only if it's still cached under the key, it may have been replaced by a concurrent put
+     */
+    private synchronized void remove(BlockKey key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            size -= entry.length;
+            entry.release();
+            delete(entry.file);
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        while (size > capacity.toLongBytes() && iterator.hasNext()) {
+            Entry entry = iterator.next();
+
+            iterator.remove();
+            size -= entry.length;
+            evictionCount.incrementAndGet();
+            entry.release();
+            delete(entry.file);
+        }
+    }
+
+    private String fileName(BlockKey key) {
+        return Hashing.sha256()
+                      .newHasher()
+                      .putString(key.bucketName(), StandardCharsets.UTF_8)
+                      .putString(key.key(), StandardCharsets.UTF_8)
+                      .putString(key.eTag(), StandardCharsets.UTF_8)
+                      .putLong(key.index())
+                      .hash() + Token.EXTENSION;
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("directory", directory)
+                          .add("capacity", capacity)
+                          .add("blockSize", blockSize)
+                          .toString();
+    }
+
+    private static class Entry {
+
+        private final Path    file;
+        private final int     offset;
+        private final int     length;
+        private final long    position;
+        private       Block   block;
+        private       boolean isReleased;
+
+        Entry(Path file, int offset, int length, long position) {
+            this.file     = file;
+            this.offset   = offset;
+            this.length   = length;
+            this.position = position;
+        }
+
+        /**
+         * Maps the file on the first call, the mapping stays valid after the channel is closed. The entry holds a
+         * reference to the block until it's released, so the mapping outlives a single hit
+         *
+         * @return block with an acquired reference or null if the entry is already released
+         */
+        synchronized Block retain() throws IOException {
+            if (isReleased) {
+                return null;
+            }
+
+            if (block == null) {
+                ByteBuffer mapped;
+
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    mapped = channel.map(MapMode.READ_ONLY, offset, length);
+                }
+
+                block = new Block(position, mapped, () -> MappedBuffers.unmap(mapped));
+            }
+
+            return block.retain() ? block : null;
+        }
+
+        /**
+         * Drops the reference of the entry, the file is unmapped once every returned block is released as well
+         */
+        synchronized void release() {
+            isReleased = true;
+
+            if (block != null) {
+                block.release();
+                block = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                              .add("file", file)
+                              .add("length", length)
+                              .toString();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Releases memory mappings right away instead of waiting for the garbage collector. Java doesn't provide a public API
+ * for it, so {@code sun.misc.Unsafe#invokeCleaner} is used on Java 9+ and the cleaner of the buffer on Java 8. If
+ * neither is available, the mapping is left to the garbage collector
+ */
+final class MappedBuffers {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedBuffers.class);
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * The buffer and every view of it must not be accessed after this call
+     *
+     * @param buffer mapped buffer
+     */
+    static void unmap(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            return;
+        }
+
+        try {
+            if (!invokeCleaner(buffer)) {
+                clean(buffer);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Failed to unmap the buffer, it's left to the garbage collector", e);
+        }
+    }
+
+    private static boolean invokeCleaner(ByteBuffer buffer) throws ReflectiveOperationException {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Method   method;
+
+        try {
+            method = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+
+        Field field = unsafeClass.getDeclaredField("theUnsafe");
+
+        field.setAccessible(true);
+        method.invoke(field.get(null), buffer);
+
+        return true;
+    }
+
+    private static void clean(ByteBuffer buffer) throws ReflectiveOperationException {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+
+        cleanerMethod.setAccessible(true);
+
+        Object cleaner = cleanerMethod.invoke(buffer);
+
+        if (cleaner != null) {
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+    }
+
+}
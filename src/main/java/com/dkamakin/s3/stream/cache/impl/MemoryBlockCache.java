@@ -0,0 +1,90 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * On-heap block cache limited by the total size of cached blocks. The least recently used blocks are evicted first.
+ * The cache isn't split into segments, so the whole capacity is available to every block. Blocks of objects without
+ * an ETag are not cached, the same as in {@link DiskBlockCache}. A single instance is meant to be shared by every
+ * stream reading the same objects, see
+ * {@link com.dkamakin.s3.stream.IMultiPartInputStreamBuilder#blockCache(IBlockCache)}
+ */
+@ThreadSafe
+public class MemoryBlockCache implements IBlockCache {
+
+    private final Bytes                  capacity;
+    private final Bytes                  blockSize;
+    private final Cache<BlockKey, Block> cache;
+    private final AtomicLong             hitCount;
+    private final AtomicLong             missCount;
+
+    public MemoryBlockCache(Bytes capacity, Bytes blockSize) {
+        Validator.nonNull(capacity, "capacity");
+        Validator.nonNull(blockSize, "blockSize");
+        Validator.ifValue(capacity).lessThan(blockSize).thenThrow(
+            () -> new IllegalArgumentException("Capacity must fit at least one block"));
+
+        this.capacity  = capacity;
+        this.blockSize = blockSize;
+        this.cache     = CacheBuilder.newBuilder()
+                                     .concurrencyLevel(1)
+                                     .maximumWeight(capacity.toLongBytes())
+                                     .weigher((BlockKey key, Block block) -> block.length())
+                                     .removalListener(
+                                         (RemovalNotification<BlockKey, Block> notification) -> notification.getValue()
+                                                                                                            .release())
+                                     .recordStats()
+                                     .build();
+        this.hitCount  = new AtomicLong();
+        this.missCount = new AtomicLong();
+    }
+
+    @Override
+    public Bytes blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public Block get(BlockKey key) {
+        Block block = cache.getIfPresent(key);
+
+        if (block == null || !block.retain()) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+
+        return block;
+    }
+
+    @Override
+    public void put(BlockKey key, Block block) {
+        if (key.eTag() != null && block.retain()) {
+            cache.put(key, block);
+        }
+    }
+
+    @Override
+    public BlockCacheStats stats() {
+        return new BlockCacheStats(hitCount.get(), missCount.get(), cache.stats().evictionCount());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("capacity", capacity)
+                          .add("blockSize", blockSize)
+                          .add("size", cache.size())
+                          .toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Combines a fast cache, e.g. {@link MemoryBlockCache}, with a larger one, e.g. {@link DiskBlockCache}. A block found
+ * in the second tier only is promoted to the first one, a downloaded block is put into both tiers
+ */
+public class TieredBlockCache implements IBlockCache {
+
+    private final IBlockCache first;
+    private final IBlockCache second;
+
+    public TieredBlockCache(IBlockCache first, IBlockCache second) {
+        Validator.nonNull(first, "first");
+        Validator.nonNull(second, "second");
+        Validator.check(second, cache -> cache.blockSize().equals(first.blockSize()),
+                        () -> new IllegalArgumentException("Tiers must have the same block size"));
+
+        this.first  = first;
+        this.second = second;
+    }
+
+    @Override
+    public Bytes blockSize() {
+        return first.blockSize();
+    }
+
+    @Override
+    public Block get(BlockKey key) {
+        Block block = first.get(key);
+
+        if (block == null) {
+            block = second.get(key);
+
+            if (block != null) {
+                first.put(key, block);
+            }
+        }
+
+        return block;
+    }
+
+    @Override
+    public void put(BlockKey key, Block block) {
+        first.put(key, block);
+        second.put(key, block);
+    }
+
+    /**
+     * A hit in any tier is counted as a hit, only a miss of the last tier is counted as a miss
+     */
+    @Override
+    public BlockCacheStats stats() {
+        BlockCacheStats firstStats  = first.stats();
+        BlockCacheStats secondStats = second.stats();
+
+        return new BlockCacheStats(firstStats.hitCount() + secondStats.hitCount(), secondStats.missCount(),
+                                   firstStats.evictionCount() + secondStats.evictionCount());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("first", first)
+                          .add("second", second)
+                          .toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.dkamakin.s3.stream.exception;
+
+public class BufferPoolExhaustedException extends RuntimeException {
+
+    private static final long serialVersionUID = 6119823047536613120L;
+
+    public BufferPoolExhaustedException(String message) {
+        super(message);
+    }
+}
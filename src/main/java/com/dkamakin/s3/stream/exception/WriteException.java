@@ -0,0 +1,10 @@
+package com.dkamakin.s3.stream.exception;
+
+public class WriteException extends RuntimeException {
+
+    private static final long serialVersionUID = -2203917553816398164L;
+
+    public WriteException(Throwable cause) {
+        super("Failed to write data", cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.dkamakin.s3.stream.handler;
+
+import com.dkamakin.s3.stream.util.ICloseable;
+import com.dkamakin.s3.stream.util.impl.Block;
+
+public interface IBlockProvider extends ICloseable {
+
+    /**
+     * Get a block containing the requested offset
+     *
+     * @param position offset within the object
+     * @return block or null if the offset is beyond the end of the object
+     */
+    Block block(long position);
+
+}
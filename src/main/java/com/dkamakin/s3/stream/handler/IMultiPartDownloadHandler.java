@@ -1,9 +1,43 @@
 package com.dkamakin.s3.stream.handler;
 
+import com.dkamakin.s3.stream.util.ICloseable;
 import com.dkamakin.s3.stream.util.impl.ByteRange;
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
 
-public interface IMultiPartDownloadHandler extends IFileDescriptorHolder {
+public interface IMultiPartDownloadHandler extends ICloseable, IFileDescriptorHolder {
 
     int getPart(ByteRange range, byte[] target, int off, int len);
 
+    /**
+     * Reads up to {@code target.remaining()} bytes starting from {@code range.from()} into the buffer, the position of
+     * the buffer is moved by the amount of read bytes. The same as
+     * {@link IMultiPartDownloadHandler#getPart(ByteRange, byte[], int, int)}, but also works for direct buffers
+     *
+     * @return amount of read bytes or EOS
+     */
+    int getPart(ByteRange range, ByteBuffer target);
+
+    /**
+     * Get the total length of the object. May require a request to S3 if the length is not known yet
+     *
+     * @return object length
+     */
+    long length();
+
+    /**
+     * Get the total length of the object if it is already known, never sends a request
+     *
+     * @return object length or empty
+     */
+    OptionalLong knownLength();
+
+    /**
+     * Get the ETag of the object. May require a request to S3 if the ETag is not known yet. Once known, the following
+     * requests are pinned to it, so the object can't change while it's being read
+     *
+     * @return entity tag
+     */
+    String eTag();
+
 }
@@ -7,4 +7,28 @@ public interface IMultiPartUploadHandler extends ICloseable, IFileDescriptorHold
 
     void upload(RequestBody body);
 
+    /**
+     * The same as {@link IMultiPartUploadHandler#upload(RequestBody)}, but the callback is invoked once the part is
+     * acknowledged by S3 or failed, so the buffer backing the body can be reused
+     *
+     * @param body       part content
+     * @param onComplete invoked exactly once, possibly by another thread
+     */
+    void upload(RequestBody body, Runnable onComplete);
+
+    /**
+     * Uploads the whole object with a single request instead of a multipart upload. Saves the requests to create and
+     * complete the multipart upload when the data fits in a single part
+     *
+     * @param body object content
+     * @throws IllegalStateException a part has already been uploaded
+     */
+    void put(RequestBody body);
+
+    /**
+     * Aborts the multipart upload instead of completing it and releases the resources of the handler, called instead
+     * of {@link IMultiPartUploadHandler#close()} when the output failed. Nothing is sent if no part was uploaded
+     */
+    void abort();
+
 }
@@ -0,0 +1,19 @@
+package com.dkamakin.s3.stream.handler;
+
+import com.dkamakin.s3.stream.util.ICloseable;
+import com.dkamakin.s3.stream.util.impl.FileRange;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface IVectoredReader extends ICloseable {
+
+    /**
+     * Starts reading of the given ranges
+     *
+     * @param ranges ranges to read, in any order, may overlap
+     * @return futures completed with the bytes of the corresponding range, in the order of the given ranges
+     */
+    List<CompletableFuture<ByteBuffer>> read(List<FileRange> ranges);
+
+}
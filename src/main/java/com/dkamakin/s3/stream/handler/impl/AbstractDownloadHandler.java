@@ -0,0 +1,238 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.ContentRange;
+import com.dkamakin.s3.stream.util.impl.ResumableInputStream;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import com.dkamakin.s3.stream.util.impl.S3HttpCodes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+public abstract class AbstractDownloadHandler implements IMultiPartDownloadHandler {
+
+    static class Token {
+
+        static final String CONTENT_RANGE_HEADER = "Content-Range";
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractDownloadHandler.class);
+
+    protected final S3FileDescriptor                             fileDescriptor;
+    protected final Function<InputStream, RetryableStreamReader> wrapper;
+    protected final RetryPolicy                                  retryPolicy;
+    private volatile Long                                        length;
+    private volatile String                                      eTag;
+
+    protected AbstractDownloadHandler(S3FileDescriptor fileDescriptor,
+                                      Function<InputStream, RetryableStreamReader> wrapper,
+                                      RetryPolicy retryPolicy) {
+        Validator.nonNull(fileDescriptor, "fileDescriptor");
+        Validator.nonNull(wrapper, "wrapper");
+        Validator.nonNull(retryPolicy, "retryPolicy");
+
+        this.fileDescriptor = fileDescriptor;
+        this.wrapper        = wrapper;
+        this.retryPolicy    = retryPolicy;
+    }
+
+    @Override
+    public S3FileDescriptor fileDescriptor() {
+        return fileDescriptor;
+    }
+
+    @Override
+    public long length() {
+        if (length == null) {
+            headObject();
+        }
+
+        Long current = length;
+
+        Validator.check(current, Objects::nonNull,
+                        () -> new IllegalStateException("S3 didn't return the length of " + fileDescriptor));
+
+        return current;
+    }
+
+    @Override
+    public OptionalLong knownLength() {
+        Long current = length;
+
+        return current == null ? OptionalLong.empty() : OptionalLong.of(current);
+    }
+
+    @Override
+    public String eTag() {
+        if (eTag == null) {
+            headObject();
+        }
+
+        return eTag;
+    }
+
+    protected HeadObjectResponse headObject() {
+        LOG.info("Requesting metadata of {}", this);
+
+        HeadObjectResponse response = fileDescriptor.s3Client()
+                                                    .headObject(HeadObjectRequest.builder()
+                                                                                 .bucket(fileDescriptor.bucketName())
+                                                                                 .key(fileDescriptor.key())
+                                                                                 .build());
+
+        if (response.contentLength() != null) {
+            setLength(response.contentLength());
+        }
+
+        eTag = response.eTag();
+
+        return response;
+    }
+
+    /**
+     * Sends a GET request. The total length of the object is captured from the response, so the following requests can
+     * be avoided once the end of the object is reached. If the range is known to cover the whole object, it's requested
+     * without the range header. Once the ETag is known, the request is sent with the {@code If-Match} condition
+     * regardless of the retry policy, so an object overwritten in the middle of the read fails with 412 instead of
+     * mixing two versions
+     */
+    protected ResponseInputStream<GetObjectResponse> getObject(ByteRange range) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder()
+                                                           .bucket(fileDescriptor.bucketName())
+                                                           .key(fileDescriptor.key())
+                                                           .ifMatch(eTag);
+
+        if (isWholeObject(range)) {
+            LOG.info("Downloading the whole object from {}", this);
+        } else {
+            LOG.info("Downloading from {}, range: {}", this, range);
+
+            request.range(range.toString());
+        }
+
+        ResponseInputStream<GetObjectResponse> response = send(request.build());
+
+        capture(response.response());
+
+        return response;
+    }
+
+    protected ResponseInputStream<GetObjectResponse> send(GetObjectRequest request) {
+        return fileDescriptor.s3Client().getObject(request);
+    }
+
+    /**
+     * Sends a GET request, see {@link AbstractDownloadHandler#getObject(ByteRange)}. If retries are enabled, the
+     * response is resumed from the first undelivered byte after a failure, the following requests are pinned to the
+     * ETag captured from the first response
+     */
+    protected InputStream open(ByteRange range) {
+        ResponseInputStream<GetObjectResponse> response = getObject(range);
+
+        if (!retryPolicy.isEnabled()) {
+            return response;
+        }
+
+        return new ResumableInputStream(response, delivered -> getObject(remaining(range, delivered)), retryPolicy);
+    }
+
+    /**
+     * Checks whether the position is known to be beyond the end of the object, so there is no need to send a request
+     */
+    protected boolean isBeyondEnd(long position) {
+        Long current = length;
+
+        return current != null && position >= current;
+    }
+
+    protected int handle(S3Exception exception) {
+        if (exception.statusCode() == S3HttpCodes.RANGE_NOT_SATISFIABLE.code()) {
+            LOG.info("Got 416 from S3, treat like an EOS");
+
+            captureFromHeaders(exception);
+
+            return Constant.EOS;
+        } else {
+            LOG.error(exception.getMessage(), exception);
+
+            throw exception;
+        }
+    }
+
+    /**
+     * The length is always known after the first response, so a suffix is resumed as a regular range
+     */
+    private ByteRange remaining(ByteRange range, long delivered) {
+        if (range.isSuffix()) {
+            long start = Math.max(0, length() + range.from());
+
+            return new ByteRange(start + delivered, length() - 1);
+        }
+
+        return new ByteRange(range.from() + delivered, range.to());
+    }
+
+    private boolean isWholeObject(ByteRange range) {
+        Long current = length;
+
+        return current != null && range.from() == 0 && range.to() >= current - 1;
+    }
+
+    private void capture(GetObjectResponse response) {
+        if (response.eTag() != null) {
+            eTag = response.eTag();
+        }
+
+        if (response.contentRange() != null) {
+            ContentRange.totalLength(response.contentRange()).ifPresent(this::setLength);
+        } else if (response.contentLength() != null) {
+            setLength(response.contentLength());
+        }
+    }
+
+    private void captureFromHeaders(S3Exception exception) {
+        Optional.ofNullable(exception.awsErrorDetails())
+                .map(AwsErrorDetails::sdkHttpResponse)
+                .flatMap(response -> response.firstMatchingHeader(Token.CONTENT_RANGE_HEADER))
+                .map(ContentRange::totalLength)
+                .ifPresent(total -> total.ifPresent(this::setLength));
+    }
+
+    private void setLength(long length) {
+        this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AbstractDownloadHandler that = (AbstractDownloadHandler) o;
+        return fileDescriptor.equals(that.fileDescriptor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileDescriptor);
+    }
+}
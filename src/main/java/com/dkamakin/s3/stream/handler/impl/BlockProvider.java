@@ -0,0 +1,78 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.handler.IBlockProvider;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Downloads blocks of a fixed size aligned by the block size. A single buffer got from the allocator is reused for
+ * every block and returned to the allocator on close, so a returned block is valid only until the next
+ * {@link BlockProvider#block(long)} call
+ */
+@NotThreadSafe
+public class BlockProvider implements IBlockProvider {
+
+    private final IMultiPartDownloadHandler downloadHandler;
+    private final IBufferAllocator          allocator;
+    private final Bytes                     blockSize;
+    private       ByteBuffer                buffer;
+
+    public BlockProvider(IMultiPartDownloadHandler downloadHandler, IBufferAllocator allocator, Bytes blockSize) {
+        Validator.nonNull(downloadHandler, "downloadHandler");
+        Validator.nonNull(allocator, "allocator");
+        Validator.nonNull(blockSize, "blockSize");
+
+        this.downloadHandler = downloadHandler;
+        this.allocator       = allocator;
+        this.blockSize       = blockSize;
+    }
+
+    @Override
+    public Block block(long position) {
+        int        size   = blockSize.toBytes();
+        long       start  = position - position % size;
+        ByteBuffer target = buffer();
+        int        read   = Blocks.readFully(downloadHandler, new ByteRange(start, start + size - 1), target);
+
+        if (start + read <= position) {
+            return null;
+        }
+
+        ((Buffer) target).flip();
+
+        return new Block(start, target);
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            allocator.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = allocator.allocate(blockSize.toBytes());
+        }
+
+        ((Buffer) buffer).clear().limit(blockSize.toBytes());
+
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("blockSize", blockSize)
+                          .toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Downloads blocks into buffers got from an {@link IBufferAllocator}
+ */
+final class Blocks {
+
+    private Blocks() {
+    }
+
+    /**
+     * Downloads an aligned block into a new buffer, the block is shorter than the size only at the end of the object.
+     * The buffer is returned to the allocator if nothing was read, if the download fails or once the returned block is
+     * released
+     *
+     * @return block or null if the start is beyond the end of the object
+     */
+    static Block download(IMultiPartDownloadHandler downloadHandler, IBufferAllocator allocator, long start, int size) {
+        ByteBuffer buffer = allocator.allocate(size);
+        int        read;
+
+        try {
+            read = readFully(downloadHandler, new ByteRange(start, start + size - 1), buffer);
+        } catch (RuntimeException e) {
+            allocator.release(buffer);
+            throw e;
+        }
+
+        if (read <= 0) {
+            allocator.release(buffer);
+            return null;
+        }
+
+        ((Buffer) buffer).flip();
+
+        return new Block(start, buffer, () -> allocator.release(buffer));
+    }
+
+    /**
+     * Reads until the buffer is full or the end of the object is reached, a handler may return fewer bytes than
+     * requested, e.g. at the end of a ranged request
+     *
+     * @return amount of read bytes or EOS if nothing was read
+     */
+    static int readFully(IMultiPartDownloadHandler downloadHandler, ByteRange range, ByteBuffer buffer) {
+        int total = 0;
+
+        while (buffer.hasRemaining()) {
+            int read = read(downloadHandler, new ByteRange(range.from() + total, range.to()), buffer);
+
+            if (read <= 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total > 0 || !buffer.hasRemaining() ? total : Constant.EOS;
+    }
+
+    /**
+     * Heap buffers are filled through the array-based method, so a handler reads into the backing array directly
+     */
+    static int read(IMultiPartDownloadHandler downloadHandler, ByteRange range, ByteBuffer buffer) {
+        if (!buffer.hasArray()) {
+            return downloadHandler.getPart(range, buffer);
+        }
+
+        int read = downloadHandler.getPart(range, buffer.array(), buffer.arrayOffset() + buffer.position(),
+                                           buffer.remaining());
+
+        if (read > 0) {
+            ((Buffer) buffer).position(buffer.position() + read);
+        }
+
+        return read;
+    }
+}
@@ -0,0 +1,179 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.cache.impl.BlockKey;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves parts from a shared {@link IBlockCache}. A requested range is split into blocks aligned by the block size of
+ * the cache, a missing block is downloaded by the delegate as a whole and put into the cache. Blocks are keyed by the
+ * ETag of the object, so blocks of a previous version of the object are never served. Missing blocks are downloaded
+ * into buffers of the given allocator. A suffix range is not aligned to blocks, so it's passed to the delegate as is
+ */
+public class CachingDownloadHandler implements IMultiPartDownloadHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingDownloadHandler.class);
+
+    private final IMultiPartDownloadHandler delegate;
+    private final IBlockCache               cache;
+    private final IBufferAllocator          allocator;
+
+    public CachingDownloadHandler(IMultiPartDownloadHandler delegate, IBlockCache cache, IBufferAllocator allocator) {
+        Validator.nonNull(delegate, "delegate");
+        Validator.nonNull(cache, "cache");
+        Validator.nonNull(allocator, "allocator");
+
+        this.delegate  = delegate;
+        this.cache     = cache;
+        this.allocator = allocator;
+    }
+
+    @Override
+    public int getPart(ByteRange range, byte[] target, int off, int len) {
+        if (range.isSuffix()) {
+            return delegate.getPart(range, target, off, len);
+        }
+
+        long position = range.from();
+        int  copied   = 0;
+
+        while (copied < len) {
+            Block block = block(position + copied);
+
+            if (block == null) {
+                break;
+            }
+
+            try {
+                copied += block.copyTo(position + copied, target, off + copied, len - copied);
+            } finally {
+                block.release();
+            }
+        }
+
+        return copied > 0 || len == 0 ? copied : Constant.EOS;
+    }
+
+    @Override
+    public int getPart(ByteRange range, ByteBuffer target) {
+        if (range.isSuffix()) {
+            return delegate.getPart(range, target);
+        }
+
+        long position = range.from();
+        int  copied   = 0;
+
+        while (target.hasRemaining()) {
+            Block block = block(position + copied);
+
+            if (block == null) {
+                break;
+            }
+
+            try {
+                copied += block.copyTo(position + copied, target);
+            } finally {
+                block.release();
+            }
+        }
+
+        return copied > 0 || !target.hasRemaining() ? copied : Constant.EOS;
+    }
+
+    @Override
+    public S3FileDescriptor fileDescriptor() {
+        return delegate.fileDescriptor();
+    }
+
+    @Override
+    public long length() {
+        return delegate.length();
+    }
+
+    @Override
+    public OptionalLong knownLength() {
+        return delegate.knownLength();
+    }
+
+    @Override
+    public String eTag() {
+        return delegate.eTag();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * @return retained block containing the position, the caller must release it
+     */
+    private Block block(long position) {
+        if (isBeyondEnd(position)) {
+            return null;
+        }
+
+        int      size  = cache.blockSize().toBytes();
+        long     index = position / size;
+        BlockKey key   = key(index);
+        Block    block = cache.get(key);
+
+        if (block == null) {
+            LOG.debug("Block {} of {} is not cached", index, this);
+
+            block = Blocks.download(delegate, allocator, index * size, size);
+
+            if (block != null && isComplete(block, size)) {
+                cache.put(key, block);
+            }
+        }
+
+        if (block != null && !block.contains(position)) {
+            block.release();
+            return null;
+        }
+
+        return block;
+    }
+
+    /**
+     * A block shorter than the block size is cached only if it's known to be the last one, otherwise a short read of
+     * the delegate would be served to every stream as the end of the object
+     */
+    private boolean isComplete(Block block, int size) {
+        OptionalLong length = delegate.knownLength();
+
+        return block.length() == size
+               || length.isPresent() && block.position() + block.length() == length.getAsLong();
+    }
+
+    private BlockKey key(long index) {
+        S3FileDescriptor fileDescriptor = delegate.fileDescriptor();
+
+        return new BlockKey(fileDescriptor.bucketName(), fileDescriptor.key(), delegate.eTag(), index);
+    }
+
+    private boolean isBeyondEnd(long position) {
+        OptionalLong length = delegate.knownLength();
+
+        return length.isPresent() && position >= length.getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("delegate", delegate)
+                          .add("cache", cache)
+                          .toString();
+    }
+}
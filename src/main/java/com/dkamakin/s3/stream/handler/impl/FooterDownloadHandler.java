@@ -0,0 +1,203 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pins the last bytes of the object in memory. Columnar formats (Parquet, ORC, zip) read the footer first and then seek
+ * back, so the footer is fetched by a single suffix request on open. The same response resolves the length and the ETag
+ * of the object, so no separate metadata request is needed. Parts within the footer are served from memory, a part that
+ * starts before the footer is read by the delegate only up to the start of the footer
+ */
+public class FooterDownloadHandler implements IMultiPartDownloadHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FooterDownloadHandler.class);
+
+    private final IMultiPartDownloadHandler delegate;
+    private final Bytes                     footerSize;
+    private volatile byte[]                 footer;
+    private volatile long                   footerStart;
+
+    public FooterDownloadHandler(IMultiPartDownloadHandler delegate, Bytes footerSize) {
+        Validator.nonNull(delegate, "delegate");
+        Validator.nonNull(footerSize, "footerSize");
+
+        this.delegate   = delegate;
+        this.footerSize = footerSize;
+    }
+
+    /**
+     * Fetches the footer. If the object is smaller than the footer size, the whole object is pinned
+     */
+    public void prefetch() {
+        int    size   = footerSize.toBytes();
+        byte[] buffer = new byte[size];
+        int    read   = Math.max(delegate.getPart(ByteRange.suffix(size), buffer, 0, size), 0);
+
+        OptionalLong length = delegate.knownLength();
+
+        if (!length.isPresent()) {
+            LOG.warn("Length of {} is unknown after the footer request, the footer is not pinned", this);
+            return;
+        }
+
+        footerStart = length.getAsLong() - read;
+        footer      = read == size ? buffer : Arrays.copyOf(buffer, read);
+
+        LOG.debug("Pinned {} bytes of the footer of {}", read, this);
+    }
+
+    /**
+     * Creates a handler serving the footer already pinned by this one, the rest of the object is read by another
+     * delegate, e.g. by a thread-safe one for concurrent reads
+     *
+     * @param other delegate of the new handler
+     * @return handler sharing the pinned footer
+     */
+    public FooterDownloadHandler withDelegate(IMultiPartDownloadHandler other) {
+        FooterDownloadHandler handler = new FooterDownloadHandler(other, footerSize);
+
+        handler.footerStart = footerStart;
+        handler.footer      = footer;
+
+        return handler;
+    }
+
+    @Override
+    public int getPart(ByteRange range, byte[] target, int off, int len) {
+        byte[] pinned = footer;
+
+        if (!overlaps(pinned, range, len)) {
+            return delegate.getPart(range, target, off, len);
+        }
+
+        int head = head(range);
+        int read = head == 0 ? 0 : delegate.getPart(headRange(range), target, off, head);
+
+        if (read < head) {
+            return read;
+        }
+
+        long from  = range.from() + head;
+        int  count = count(pinned, from, len - head);
+
+        if (count > 0) {
+            System.arraycopy(pinned, (int) (from - footerStart), target, off + head, count);
+        }
+
+        return total(head, count, len);
+    }
+
+    @Override
+    public int getPart(ByteRange range, ByteBuffer target) {
+        byte[] pinned = footer;
+        int    len    = target.remaining();
+
+        if (!overlaps(pinned, range, len)) {
+            return delegate.getPart(range, target);
+        }
+
+        int head = head(range);
+        int read = head == 0 ? 0 : readHead(range, target, head);
+
+        if (read < head) {
+            return read;
+        }
+
+        long from  = range.from() + head;
+        int  count = count(pinned, from, len - head);
+
+        if (count > 0) {
+            target.put(pinned, (int) (from - footerStart), count);
+        }
+
+        return total(head, count, len);
+    }
+
+    @Override
+    public S3FileDescriptor fileDescriptor() {
+        return delegate.fileDescriptor();
+    }
+
+    @Override
+    public long length() {
+        return delegate.length();
+    }
+
+    @Override
+    public OptionalLong knownLength() {
+        return delegate.knownLength();
+    }
+
+    @Override
+    public String eTag() {
+        return delegate.eTag();
+    }
+
+    @Override
+    public void close() {
+        footer = null;
+
+        delegate.close();
+    }
+
+    /**
+     * Checks whether the requested window ends within the pinned footer
+     */
+    private boolean overlaps(byte[] pinned, ByteRange range, int len) {
+        return pinned != null && !range.isSuffix() && range.from() + len > footerStart;
+    }
+
+    /**
+     * @return amount of bytes before the footer which are still read by the delegate
+     */
+    private int head(ByteRange range) {
+        return (int) Math.max(0, footerStart - range.from());
+    }
+
+    private ByteRange headRange(ByteRange range) {
+        return new ByteRange(range.from(), footerStart - 1);
+    }
+
+    private int readHead(ByteRange range, ByteBuffer target, int head) {
+        ByteBuffer window = target.duplicate();
+
+        ((Buffer) window).limit(window.position() + head);
+
+        int read = delegate.getPart(headRange(range), window);
+
+        ((Buffer) target).position(window.position());
+
+        return read;
+    }
+
+    private int count(byte[] pinned, long from, int len) {
+        long available = footerStart + pinned.length - from;
+
+        return (int) Math.max(0, Math.min(len, available));
+    }
+
+    private int total(int head, int count, int len) {
+        int total = head + count;
+
+        return total > 0 || len == 0 ? total : Constant.EOS;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("delegate", delegate)
+                          .add("footerSize", footerSize)
+                          .toString();
+    }
+}
@@ -1,41 +1,59 @@
 package com.dkamakin.s3.stream.handler.impl;
 
 import com.dkamakin.s3.stream.exception.ReadException;
-import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
 import com.dkamakin.s3.stream.util.impl.ByteRange;
 import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
 import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
-import com.dkamakin.s3.stream.util.impl.S3HttpCodes;
-import com.dkamakin.s3.stream.util.impl.Validator;
 import com.google.common.base.MoreObjects;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Objects;
+import java.nio.ByteBuffer;
 import java.util.function.Function;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
-public class MultiPartDownloadHandler implements IMultiPartDownloadHandler {
+/**
+ * Sends a separate ranged GET request for each {@link MultiPartDownloadHandler#getPart(ByteRange, byte[], int, int)}
+ * call and closes the response right after the requested bytes are read. Requests may be hedged by a
+ * {@link RequestHedger} to cut the tail latency
+ */
+public class MultiPartDownloadHandler extends AbstractDownloadHandler {
 
-    private static final Logger LOG = LoggerFactory.getLogger(MultiPartDownloadHandler.class);
-
-    private final S3FileDescriptor                             fileDescriptor;
-    private final Function<InputStream, RetryableStreamReader> wrapper;
+    private final RequestHedger hedger;
 
     public MultiPartDownloadHandler(S3FileDescriptor fileDescriptor,
                                     Function<InputStream, RetryableStreamReader> wrapper) {
-        Validator.nonNull(fileDescriptor, "fileDescriptor");
-        Validator.nonNull(wrapper, "wrapper");
+        this(fileDescriptor, wrapper, RetryPolicy.none());
+    }
 
-        this.fileDescriptor = fileDescriptor;
-        this.wrapper        = wrapper;
+    public MultiPartDownloadHandler(S3FileDescriptor fileDescriptor,
+                                    Function<InputStream, RetryableStreamReader> wrapper,
+                                    RetryPolicy retryPolicy) {
+        this(fileDescriptor, wrapper, retryPolicy, null);
+    }
+
+    /**
+     * @param hedger optional, may be shared between handlers, so it's never closed by the handler
+     */
+    public MultiPartDownloadHandler(S3FileDescriptor fileDescriptor,
+                                    Function<InputStream, RetryableStreamReader> wrapper,
+                                    RetryPolicy retryPolicy,
+                                    RequestHedger hedger) {
+        super(fileDescriptor, wrapper, retryPolicy);
+
+        this.hedger = hedger;
     }
 
     @Override
     public int getPart(ByteRange range, byte[] target, int off, int len) {
-        try (InputStream stream = getObject(range.toString())) {
+        if (isBeyondEnd(range.from())) {
+            return Constant.EOS;
+        }
+
+        try (InputStream stream = open(range)) {
             return wrapper.apply(stream).read(target, off, len);
         } catch (IOException e) {
             throw new ReadException(e);
@@ -45,55 +63,39 @@ public class MultiPartDownloadHandler implements IMultiPartDownloadHandler {
     }
 
     @Override
-    public S3FileDescriptor fileDescriptor() {
-        return fileDescriptor;
-    }
-
-    private InputStream getObject(String range) {
-        LOG.info("Downloading from {}, range: {}", this, range);
-
-        return fileDescriptor.s3Client().getObject(GetObjectRequest.builder()
-                                                                   .bucket(fileDescriptor.bucketName())
-                                                                   .key(fileDescriptor.key())
-                                                                   .range(range)
-                                                                   .build());
-    }
-
-    private int handle(S3Exception exception) {
-        if (exception.statusCode() == S3HttpCodes.RANGE_NOT_SATISFIABLE.code()) {
-            LOG.info("Got 416 from S3, treat like an EOS");
-
+    public int getPart(ByteRange range, ByteBuffer target) {
+        if (isBeyondEnd(range.from())) {
             return Constant.EOS;
-        } else {
-            LOG.error(exception.getMessage(), exception);
-
-            throw exception;
         }
-    }
 
-    @Override
-    public String toString() {
-        return MoreObjects.toStringHelper(this)
-                          .add("fileDescriptor", fileDescriptor)
-                          .toString();
+        try (InputStream stream = open(range)) {
+            return wrapper.apply(stream).read(target);
+        } catch (IOException e) {
+            throw new ReadException(e);
+        } catch (S3Exception e) {
+            return handle(e);
+        }
     }
 
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
+    protected ResponseInputStream<GetObjectResponse> send(GetObjectRequest request) {
+        if (hedger == null) {
+            return super.send(request);
         }
 
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
+        return hedger.send(() -> super.send(request));
+    }
 
-        MultiPartDownloadHandler that = (MultiPartDownloadHandler) o;
-        return fileDescriptor.equals(that.fileDescriptor);
+    @Override
+    public void close() {
+        // --Nothing to do, every response is closed right after reading, the hedger may be shared
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(fileDescriptor);
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("fileDescriptor", fileDescriptor)
+                          .add("hedger", hedger)
+                          .toString();
     }
 }
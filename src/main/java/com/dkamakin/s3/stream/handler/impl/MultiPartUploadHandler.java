@@ -1,12 +1,19 @@
 package com.dkamakin.s3.stream.handler.impl;
 
 import com.dkamakin.s3.stream.exception.PartNumberExceedLimitException;
+import com.dkamakin.s3.stream.exception.WriteException;
 import com.dkamakin.s3.stream.handler.IMultiPartUploadHandler;
 import com.dkamakin.s3.stream.util.impl.Validator;
 import com.google.common.base.MoreObjects;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.sync.RequestBody;
@@ -15,9 +22,18 @@ import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
+/**
+ * Uploads parts of a multipart upload one by one. If an executor is specified, a part is uploaded in the background and
+ * {@link MultiPartUploadHandler#upload(RequestBody)} returns as soon as the upload is submitted, so the producer keeps
+ * filling the next part. At most maxInFlightParts parts are uploaded at once, the producer is blocked when the limit is
+ * reached. Parts may finish in any order, they are collected by part number before the upload is completed. The
+ * multipart upload is created by the first part, so an object which fits in a single part can be uploaded with
+ * {@link MultiPartUploadHandler#put(RequestBody)} instead, and nothing is sent to S3 if no data is provided at all
+ */
 public class MultiPartUploadHandler implements IMultiPartUploadHandler {
 
     static class Constant {
@@ -27,45 +43,128 @@ public class MultiPartUploadHandler implements IMultiPartUploadHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(MultiPartUploadHandler.class);
 
-    private final List<CompletedPart> partETags;
-    private final String              uploadId;
-    private final S3FileDescriptor    fileDescriptor;
-    private       int                 partNumber;
+    private final List<CompletableFuture<CompletedPart>> parts;
+    private final S3FileDescriptor                       fileDescriptor;
+    private final ExecutorService                        executor;
+    private final boolean                                isExecutorOwned;
+    private final Semaphore                              inFlightParts;
+    private       String                                 uploadId;
+    private       int                                    partNumber;
+    private volatile Throwable                           failure;
 
     public MultiPartUploadHandler(S3FileDescriptor fileDescriptor) {
+        this(fileDescriptor, null, false, 1);
+    }
+
+    /**
+     * @param executor         executor to upload parts on, parts are uploaded by the calling thread if null
+     * @param isExecutorOwned  whether the executor should be shut down on {@link MultiPartUploadHandler#close()}
+     * @param maxInFlightParts maximum amount of parts uploaded at once
+     */
+    public MultiPartUploadHandler(S3FileDescriptor fileDescriptor,
+                                  ExecutorService executor,
+                                  boolean isExecutorOwned,
+                                  int maxInFlightParts) {
         Validator.nonNull(fileDescriptor, "fileDescriptor");
+        Validator.check(maxInFlightParts, value -> value > 0,
+                        () -> new IllegalArgumentException("Max in-flight parts must be positive"));
 
-        this.partETags      = new ArrayList<>();
-        this.fileDescriptor = fileDescriptor;
-        this.uploadId       = createMultipartUpload().uploadId();
-        this.partNumber     = 1;
+        this.parts           = new ArrayList<>();
+        this.fileDescriptor  = fileDescriptor;
+        this.executor        = executor;
+        this.isExecutorOwned = isExecutorOwned;
+        this.inFlightParts   = new Semaphore(maxInFlightParts);
+        this.partNumber      = 1;
 
         LOG.info("Upload handler initialized: {}", this);
     }
 
+    /**
+     * Waits for the parts which are still being uploaded, then completes the upload. The upload is aborted if any part
+     * failed. Nothing is sent if no part was uploaded
+     *
+     * @throws WriteException a part failed to upload
+     */
     @Override
     public void close() {
         LOG.info("Close: {}", this);
 
-        if (partETags.isEmpty()) {
-            abort();
-        } else {
-            sendCompleteRequest();
+        try {
+            if (uploadId == null) {
+                LOG.debug("No parts uploaded, multipart upload wasn't created");
+                return;
+            }
+
+            List<CompletedPart> partETags = awaitParts();
+
+            if (partETags.isEmpty()) {
+                sendAbortRequest();
+            } else {
+                sendCompleteRequest(partETags);
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Waits for the parts which are still being uploaded, so none of them is stored after the abort, then aborts the
+     * upload
+     */
+    @Override
+    public void abort() {
+        LOG.info("Abort: {}", this);
+
+        try {
+            if (uploadId != null) {
+                awaitQuietly();
+                sendAbortRequest();
+            }
+        } finally {
+            shutdown();
         }
     }
 
     @Override
     public void upload(RequestBody body) {
-        validateState();
+        upload(body, () -> {
+        });
+    }
+
+    /**
+     * Uploads the part, or submits it to the executor if the handler is asynchronous. In the latter case the body must
+     * not be changed until the callback is invoked. The first part creates the multipart upload
+     *
+     * @throws WriteException a previously uploaded part failed or the thread was interrupted while waiting for a free
+     *                        slot
+     */
+    @Override
+    public void upload(RequestBody body, Runnable onComplete) {
+        try {
+            validateState();
+            throwIfFailed();
+            start();
+        } catch (RuntimeException e) {
+            onComplete.run();
+            throw e;
+        }
 
-        LOG.debug("Uploading part {}", partNumber);
+        int number = partNumber++;
 
-        partETags.add(CompletedPart.builder()
-                                   .partNumber(partNumber)
-                                   .eTag(uploadPart(body).eTag())
-                                   .build());
+        LOG.debug("Uploading part {}", number);
 
-        partNumber++;
+        if (executor == null) {
+            try {
+                parts.add(CompletableFuture.completedFuture(uploadPart(number, body)));
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                onComplete.run();
+            }
+        } else {
+            parts.add(submit(number, body, onComplete));
+        }
     }
 
     @Override
@@ -73,7 +172,27 @@ public class MultiPartUploadHandler implements IMultiPartUploadHandler {
         return fileDescriptor;
     }
 
-    public void abort() {
+    /**
+     * Uploads the whole object with a single request, allowed only until the first part is uploaded
+     *
+     * @throws IllegalStateException the multipart upload has already been created
+     */
+    @Override
+    public void put(RequestBody body) {
+        Validator.check(uploadId, Objects::isNull,
+                        () -> new IllegalStateException("Multipart upload has already been created: " + uploadId));
+
+        LOG.info("Uploading object with a single request: {}", fileDescriptor);
+
+        fileDescriptor.s3Client()
+                      .putObject(PutObjectRequest.builder()
+                                                 .bucket(fileDescriptor.bucketName())
+                                                 .key(fileDescriptor.key())
+                                                 .build(),
+                                 body);
+    }
+
+    private void sendAbortRequest() {
         LOG.info("Aborting multipart upload");
 
         fileDescriptor.s3Client()
@@ -84,7 +203,96 @@ public class MultiPartUploadHandler implements IMultiPartUploadHandler {
                                                                        .build());
     }
 
-    private void sendCompleteRequest() {
+    private void start() {
+        if (uploadId == null) {
+            uploadId = createMultipartUpload().uploadId();
+
+            LOG.info("Multipart upload created: {}", this);
+        }
+    }
+
+    private CompletableFuture<CompletedPart> submit(int number, RequestBody body, Runnable onComplete) {
+        try {
+            acquire();
+        } catch (RuntimeException e) {
+            onComplete.run();
+            throw e;
+        }
+
+        try {
+            CompletableFuture<CompletedPart> part = CompletableFuture.supplyAsync(() -> uploadPart(number, body),
+                                                                                  executor);
+
+            part.whenComplete((result, error) -> {
+                if (error != null) {
+                    failure = error;
+                }
+
+                inFlightParts.release();
+                onComplete.run();
+            });
+
+            return part;
+        } catch (RuntimeException e) {
+            inFlightParts.release();
+            onComplete.run();
+            throw e;
+        }
+    }
+
+    private void acquire() {
+        try {
+            inFlightParts.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteException(new InterruptedIOException("Interrupted while waiting for a part upload"));
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new WriteException(unwrap(failure));
+        }
+    }
+
+    /**
+     * Waits for every part, even if one of them has already failed, so no part is uploaded after the upload is aborted
+     */
+    private List<CompletedPart> awaitParts() {
+        awaitQuietly();
+
+        if (failure != null) {
+            sendAbortRequest();
+            throw new WriteException(unwrap(failure));
+        }
+
+        try {
+            return parts.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            sendAbortRequest();
+            throw new WriteException(unwrap(e));
+        }
+    }
+
+    private void awaitQuietly() {
+        CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+                         .handle((result, error) -> result)
+                         .join();
+    }
+
+    private void shutdown() {
+        if (isExecutorOwned) {
+            executor.shutdown();
+        }
+    }
+
+    private Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void sendCompleteRequest(List<CompletedPart> partETags) {
         fileDescriptor.s3Client()
                       .completeMultipartUpload(CompleteMultipartUploadRequest
                                                    .builder()
@@ -95,15 +303,22 @@ public class MultiPartUploadHandler implements IMultiPartUploadHandler {
                                                    .build());
     }
 
-    private UploadPartResponse uploadPart(RequestBody body) {
-        return fileDescriptor.s3Client()
-                             .uploadPart(UploadPartRequest.builder()
-                                                          .bucket(fileDescriptor.bucketName())
-                                                          .key(fileDescriptor.key())
-                                                          .uploadId(uploadId)
-                                                          .partNumber(partNumber)
-                                                          .build(),
-                                         body);
+    private CompletedPart uploadPart(int number, RequestBody body) {
+        UploadPartResponse response = fileDescriptor.s3Client()
+                                                    .uploadPart(UploadPartRequest.builder()
+                                                                                 .bucket(fileDescriptor.bucketName())
+                                                                                 .key(fileDescriptor.key())
+                                                                                 .uploadId(uploadId)
+                                                                                 .partNumber(number)
+                                                                                 .build(),
+                                                                body);
+
+        LOG.debug("Uploaded part {}", number);
+
+        return CompletedPart.builder()
+                            .partNumber(number)
+                            .eTag(response.eTag())
+                            .build();
     }
 
     private CreateMultipartUploadResponse createMultipartUpload() {
@@ -120,29 +335,10 @@ public class MultiPartUploadHandler implements IMultiPartUploadHandler {
         }
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-
-        MultiPartUploadHandler that = (MultiPartUploadHandler) o;
-        return Objects.equals(uploadId, that.uploadId);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(uploadId);
-    }
-
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
-                          .add("partETags", partETags)
+                          .add("parts", parts.size())
                           .add("uploadId", uploadId)
                           .add("fileDescriptor", fileDescriptor)
                           .add("partNumber", partNumber)
@@ -0,0 +1,233 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IBlockProvider;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps up to {@code depth} ranged GET requests in flight ahead of the reader and hands the downloaded blocks out in
+ * order. A request for a block that was not prefetched (e.g. after a seek) cancels the outstanding requests and
+ * restarts the prefetch from the requested block. The download handler is called from the executor threads, so it
+ * must be thread-safe. Blocks are downloaded into buffers of the given allocator, a block which was downloaded but not
+ * handed out is released when it's cancelled
+ */
+@NotThreadSafe
+public class PrefetchBlockProvider implements IBlockProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrefetchBlockProvider.class);
+
+    private final IMultiPartDownloadHandler downloadHandler;
+    private final IBufferAllocator          allocator;
+    private final ExecutorService           executor;
+    private final boolean                   isExecutorOwned;
+    private final Bytes                     blockSize;
+    private final int                       depth;
+    private final Deque<Fetch>              queue;
+    private       long                      headIndex;
+    private       long                      nextIndex;
+    private       long                      length;
+
+    /**
+     * @param depth           maximum amount of blocks downloaded or buffered ahead of the reader
+     * @param isExecutorOwned whether the executor should be shut down on {@link PrefetchBlockProvider#close()}
+     */
+    public PrefetchBlockProvider(IMultiPartDownloadHandler downloadHandler,
+                                 IBufferAllocator allocator,
+                                 ExecutorService executor,
+                                 boolean isExecutorOwned,
+                                 Bytes blockSize,
+                                 int depth) {
+        Validator.nonNull(downloadHandler, "downloadHandler");
+        Validator.nonNull(allocator, "allocator");
+        Validator.nonNull(executor, "executor");
+        Validator.nonNull(blockSize, "blockSize");
+        Validator.check(depth, value -> value > 0, () -> new IllegalArgumentException("Depth must be positive"));
+
+        this.downloadHandler = downloadHandler;
+        this.allocator       = allocator;
+        this.executor        = executor;
+        this.isExecutorOwned = isExecutorOwned;
+        this.blockSize       = blockSize;
+        this.depth           = depth;
+        this.queue           = new ArrayDeque<>(depth);
+        this.length          = Long.MAX_VALUE;
+    }
+
+    @Override
+    public Block block(long position) {
+        if (position >= length) {
+            return null;
+        }
+
+        long index = position / blockSize.toBytes();
+
+        if (index < headIndex || index >= nextIndex) {
+            restart(index);
+        } else {
+            skip(index - headIndex);
+        }
+
+        schedule();
+
+        Block block = await(queue.pollFirst());
+
+        headIndex++;
+
+        if (block == null) {
+            setLength(index * blockSize.toBytes());
+        } else if (block.length() < blockSize.toBytes()) {
+            setLength(block.end());
+        } else {
+            schedule();
+        }
+
+        if (block != null && position >= length) {
+            block.release();
+            return null;
+        }
+
+        return block;
+    }
+
+    /**
+     * Cancels outstanding requests
+     */
+    @Override
+    public void close() {
+        cancel();
+
+        if (isExecutorOwned) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void schedule() {
+        downloadHandler.knownLength().ifPresent(known -> length = Math.min(length, known));
+
+        while (queue.size() < depth && nextIndex * blockSize.toBytes() < length) {
+            Fetch fetch = new Fetch(nextIndex++);
+
+            fetch.future = executor.submit(fetch);
+            queue.addLast(fetch);
+        }
+    }
+
+    private Block await(Fetch fetch) {
+        try {
+            return fetch.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReadException(e);
+        } catch (ExecutionException e) {
+            restart(headIndex);
+
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new ReadException(e.getCause());
+        }
+    }
+
+    private void skip(long count) {
+        for (long i = 0; i < count; i++) {
+            queue.pollFirst().cancel();
+            headIndex++;
+        }
+    }
+
+    private void restart(long index) {
+        LOG.debug("Restarting prefetch from block {}", index);
+
+        cancel();
+
+        headIndex = index;
+        nextIndex = index;
+    }
+
+    /**
+     * The end of the object became known from a short or a missing block, there is no need to prefetch beyond it
+     */
+    private void setLength(long end) {
+        length = Math.min(length, end);
+
+        cancel();
+    }
+
+    private void cancel() {
+        queue.forEach(Fetch::cancel);
+        queue.clear();
+
+        nextIndex = headIndex;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("blockSize", blockSize)
+                          .add("depth", depth)
+                          .add("headIndex", headIndex)
+                          .add("nextIndex", nextIndex)
+                          .toString();
+    }
+
+    /**
+     * Releases the downloaded block if it was cancelled, no matter whether the download completes before or after the
+     * cancellation
+     */
+    private class Fetch implements Callable<Block> {
+
+        private final long          index;
+        private       Future<Block> future;
+        private       Block         block;
+        private       boolean       isCancelled;
+
+        Fetch(long index) {
+            this.index = index;
+        }
+
+        @Override
+        public Block call() {
+            int   size       = blockSize.toBytes();
+            Block downloaded = Blocks.download(downloadHandler, allocator, index * size, size);
+
+            synchronized (this) {
+                if (isCancelled && downloaded != null) {
+                    downloaded.release();
+                    return null;
+                }
+
+                block = downloaded;
+            }
+
+            return downloaded;
+        }
+
+        void cancel() {
+            future.cancel(true);
+
+            synchronized (this) {
+                isCancelled = true;
+
+                if (block != null) {
+                    block.release();
+                    block = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+/**
+ * Defines how much data is requested by a single GET, similar to the fadvise setting of Hadoop S3A
+ */
+public enum ReadPolicy {
+
+    /**
+     * Long ranges are requested and kept open across sequential reads, suits reading whole files
+     */
+    SEQUENTIAL,
+
+    /**
+     * Exactly the requested window is fetched by every read, suits point lookups, e.g. in columnar files
+     */
+    RANDOM,
+
+    /**
+     * Starts as {@link ReadPolicy#SEQUENTIAL} and switches to {@link ReadPolicy#RANDOM} after a backward seek or a
+     * large forward jump, the switch is final for the rest of the stream
+     */
+    ADAPTIVE
+
+}
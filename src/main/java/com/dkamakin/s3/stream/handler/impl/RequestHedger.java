@@ -0,0 +1,339 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.util.ICloseable;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+/**
+ * Sends a duplicate request when the first one has not returned its first byte within a deadline, the response which
+ * arrives first is used and the other request is cancelled or its response is aborted. The deadline is the given
+ * percentile of the recent first-byte latencies, so only the tail is hedged. A cancelled request is sampled by the
+ * time it waited, a lower bound of its latency, so the slow tail isn't lost from the history. Until enough latencies
+ * are observed, nothing is hedged and requests are sent by the calling thread. The rate of duplicate requests is
+ * capped by the budget, e.g. 0.05 allows at most one duplicate per 20 requests. Hedged requests are sent from a
+ * separate pool, so waiting for them can't starve an executor the caller runs on. The latency history and the budget
+ * are kept per instance, so a single instance is meant to be shared by every stream reading from the same bucket.
+ * Instances created by the public constructor share a single pool of daemon threads and don't need to be closed
+ */
+@ThreadSafe
+public class RequestHedger implements ICloseable {
+
+    static class Constant {
+
+        static final int    WINDOW_SIZE = 256;
+        static final int    MIN_SAMPLES = 16;
+        static final double MAX_TOKENS  = 10;
+    }
+
+    private static class SharedExecutor {
+
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("s3-hedge-%d")
+                                      .setDaemon(true)
+                                      .build());
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final ExecutorService executor;
+    private final boolean         isExecutorOwned;
+    private final Ticker          ticker;
+    private final double          percentile;
+    private final double          budget;
+    private final long[]          latencies;
+    private       int             samples;
+    private       double          tokens;
+
+    /**
+     * @param percentile first-byte latency percentile used as the deadline, e.g. 0.95
+     * @param budget     maximum ratio of duplicate requests to all requests, e.g. 0.05
+     */
+    public RequestHedger(double percentile, double budget) {
+        this(SharedExecutor.INSTANCE, false, Ticker.systemTicker(), percentile, budget);
+    }
+
+    /**
+     * @param executor owned executor, shut down on {@link RequestHedger#close()}
+     */
+    RequestHedger(ExecutorService executor, Ticker ticker, double percentile, double budget) {
+        this(executor, true, ticker, percentile, budget);
+    }
+
+    private RequestHedger(ExecutorService executor,
+                          boolean isExecutorOwned,
+                          Ticker ticker,
+                          double percentile,
+                          double budget) {
+        Validator.nonNull(executor, "executor");
+        Validator.nonNull(ticker, "ticker");
+        Validator.check(percentile, value -> value > 0 && value < 1,
+                        () -> new IllegalArgumentException("Percentile must be between 0 and 1"));
+        Validator.check(budget, value -> value > 0 && value <= 1,
+                        () -> new IllegalArgumentException("Budget must be between 0 and 1"));
+
+        this.executor        = executor;
+        this.isExecutorOwned = isExecutorOwned;
+        this.ticker          = ticker;
+        this.percentile      = percentile;
+        this.budget          = budget;
+        this.latencies       = new long[Constant.WINDOW_SIZE];
+    }
+
+    /**
+     * Sends the request, hedging it if the deadline passes and the budget allows
+     *
+     * @param request sends a single GET request, called at most twice
+     * @return the response that arrived first
+     */
+    public ResponseInputStream<GetObjectResponse> send(Supplier<ResponseInputStream<GetObjectResponse>> request) {
+        long deadline = deadline();
+
+        if (deadline < 0) {
+            long                                   started  = ticker.read();
+            ResponseInputStream<GetObjectResponse> response = request.get();
+
+            record(ticker.read() - started);
+
+            return response;
+        }
+
+        Race race = new Race(request);
+
+        try {
+            race.submit();
+
+            if (!race.await(deadline) && tryHedge()) {
+                LOG.debug("No response within {} us, sending a duplicate request",
+                          TimeUnit.NANOSECONDS.toMicros(deadline));
+
+                race.submit();
+            }
+
+            return race.await();
+        } finally {
+            race.finish();
+        }
+    }
+
+    /**
+     * Shuts down an owned executor, the shared pool is kept
+     */
+    @Override
+    public void close() {
+        if (isExecutorOwned) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return deadline in nanoseconds or a negative value if there are not enough samples
+     */
+    private synchronized long deadline() {
+        tokens = Math.min(Constant.MAX_TOKENS, tokens + budget);
+
+        if (samples < Constant.MIN_SAMPLES) {
+            return -1;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, Math.min(samples, latencies.length));
+
+        Arrays.sort(sorted);
+
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+    }
+
+    private synchronized boolean tryHedge() {
+        if (tokens < 1) {
+            LOG.debug("Hedging budget is exhausted");
+            return false;
+        }
+
+        tokens--;
+
+        return true;
+    }
+
+    synchronized void record(long latency) {
+        latencies[samples % latencies.length] = latency;
+        samples++;
+    }
+
+    synchronized int samples() {
+        return samples;
+    }
+
+    private static void abort(ResponseInputStream<GetObjectResponse> response) {
+        LOG.debug("Aborting a late response");
+
+        response.abort();
+
+        try {
+            response.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close a late response", e);
+        }
+    }
+
+    /**
+     * Requests for the same range. The first response wins, a late one is aborted right away, so it never leaks. The
+     * race fails only when every submitted request has failed
+     */
+    private class Race {
+
+        private final Supplier<ResponseInputStream<GetObjectResponse>>          request;
+        private final CompletableFuture<ResponseInputStream<GetObjectResponse>> winner;
+        private final AtomicInteger                                             pending;
+        private final List<Attempt>                                             attempts;
+
+        Race(Supplier<ResponseInputStream<GetObjectResponse>> request) {
+            this.request  = request;
+            this.winner   = new CompletableFuture<>();
+            this.pending  = new AtomicInteger();
+            this.attempts = new CopyOnWriteArrayList<>();
+        }
+
+        void submit() {
+            Attempt attempt = new Attempt(ticker.read());
+
+            pending.incrementAndGet();
+            attempts.add(attempt);
+
+            try {
+                attempt.future = executor.submit(() -> run(attempt));
+            } catch (RejectedExecutionException e) {
+                attempt.isFinished.set(true);
+                fail(e);
+            }
+        }
+
+        /**
+         * Cancels the requests which are still running, the time they waited is recorded as a lower bound of their
+         * latency
+         */
+        void finish() {
+            for (Attempt attempt : attempts) {
+                if (attempt.isFinished.compareAndSet(false, true)) {
+                    record(ticker.read() - attempt.started);
+                }
+
+                if (attempt.future != null) {
+                    attempt.future.cancel(true);
+                }
+            }
+        }
+
+        private void run(Attempt attempt) {
+            try {
+                ResponseInputStream<GetObjectResponse> response = request.get();
+
+                if (attempt.isFinished.compareAndSet(false, true)) {
+                    record(ticker.read() - attempt.started);
+                }
+
+                if (!winner.complete(response)) {
+                    abort(response);
+                }
+            } catch (Throwable e) {
+                attempt.isFinished.set(true);
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable e) {
+            if (pending.decrementAndGet() == 0) {
+                winner.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * @return whether the race is over within the timeout
+         */
+        boolean await(long timeoutNanos) {
+            try {
+                winner.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                return true;
+            } catch (InterruptedException e) {
+                throw interrupted();
+            }
+        }
+
+        ResponseInputStream<GetObjectResponse> await() {
+            try {
+                return winner.get();
+            } catch (InterruptedException e) {
+                throw interrupted();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+
+                throw new ReadException(e.getCause());
+            }
+        }
+
+        private ReadException interrupted() {
+            Thread.currentThread().interrupt();
+
+            winner.thenAccept(RequestHedger::abort);
+
+            return new ReadException(new InterruptedIOException("Interrupted while waiting for a response"));
+        }
+    }
+
+    /**
+     * A single request of a race
+     */
+    private static class Attempt {
+
+        private final    long          started;
+        private final    AtomicBoolean isFinished;
+        private volatile Future<?>     future;
+
+        Attempt(long started) {
+            this.started    = started;
+            this.isFinished = new AtomicBoolean();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("percentile", percentile)
+                          .add("budget", budget)
+                          .add("samples", samples)
+                          .add("tokens", tokens)
+                          .toString();
+    }
+}
@@ -0,0 +1,286 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.util.impl.AdaptiveSpan;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import com.dkamakin.s3.stream.util.impl.S3HttpCodes;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.http.Abortable;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Keeps a single GET response open across {@link StreamingDownloadHandler#getPart(ByteRange, byte[], int, int)} calls
+ * as long as they are sequential. A new ranged request of at most {@code maxSpan} bytes is sent only when the requested
+ * position differs from the position of the open response (e.g. after a seek), when the open response is exhausted or
+ * after an error. An unfinished response is aborted instead of being drained. A read which crosses the end of a span
+ * continues with the next one, so fewer bytes than requested are returned only at the end of the object. The size of
+ * every next span may be adapted to the observed throughput, see {@link AdaptiveSpan}. In the random mode of the
+ * {@link ReadPolicy} exactly the requested window is fetched and the response is released right after it's read
+ */
+@NotThreadSafe
+public class StreamingDownloadHandler extends AbstractDownloadHandler {
+
+    static class Threshold {
+
+        static final long MAX_FORWARD_JUMP = Bytes.fromMb(1).toLongBytes();
+    }
+
+    @FunctionalInterface
+    private interface ReadAction {
+
+        /**
+         * @param done   amount of bytes already read into the target by the previous calls
+         * @param length amount of bytes left to read
+         */
+        int read(RetryableStreamReader reader, int done, int length) throws IOException;
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingDownloadHandler.class);
+
+    private final AdaptiveSpan          span;
+    private final ReadPolicy            policy;
+    private       boolean               isRandom;
+    private       boolean               hasRead;
+    private       InputStream           response;
+    private       RetryableStreamReader reader;
+    private       long                  position;
+    private       long                  spanStart;
+    private       long                  spanEnd;
+    private       long                  readTime;
+
+    public StreamingDownloadHandler(S3FileDescriptor fileDescriptor,
+                                    Function<InputStream, RetryableStreamReader> wrapper,
+                                    Bytes maxSpan) {
+        this(fileDescriptor, wrapper, new AdaptiveSpan(maxSpan, maxSpan), ReadPolicy.SEQUENTIAL);
+    }
+
+    public StreamingDownloadHandler(S3FileDescriptor fileDescriptor,
+                                    Function<InputStream, RetryableStreamReader> wrapper,
+                                    AdaptiveSpan span,
+                                    ReadPolicy policy) {
+        this(fileDescriptor, wrapper, span, policy, RetryPolicy.none());
+    }
+
+    public StreamingDownloadHandler(S3FileDescriptor fileDescriptor,
+                                    Function<InputStream, RetryableStreamReader> wrapper,
+                                    AdaptiveSpan span,
+                                    ReadPolicy policy,
+                                    RetryPolicy retryPolicy) {
+        super(fileDescriptor, wrapper, retryPolicy);
+
+        Validator.nonNull(span, "span");
+        Validator.nonNull(policy, "policy");
+
+        this.span     = span;
+        this.policy   = policy;
+        this.isRandom = policy == ReadPolicy.RANDOM;
+    }
+
+    @Override
+    public int getPart(ByteRange range, byte[] target, int off, int len) {
+        return getPart(range, len, (reader, done, length) -> reader.read(target, off + done, length));
+    }
+
+    @Override
+    public int getPart(ByteRange range, ByteBuffer target) {
+        return getPart(range, target.remaining(), (reader, done, length) -> reader.read(target));
+    }
+
+    private int getPart(ByteRange range, int len, ReadAction action) {
+        if (range.isSuffix()) {
+            return getSuffix(range, len, action);
+        }
+
+        try {
+            return read(range.from(), len, action);
+        } catch (IOException e) {
+            fail();
+            throw new ReadException(e);
+        } catch (S3Exception e) {
+            if (e.statusCode() == S3HttpCodes.RANGE_NOT_SATISFIABLE.code()) {
+                abort();
+            } else {
+                fail();
+            }
+
+            return handle(e);
+        }
+    }
+
+    /**
+     * A suffix is fetched by a separate request, so the open response stays untouched
+     */
+    private int getSuffix(ByteRange range, int len, ReadAction action) {
+        try (InputStream stream = open(range)) {
+            return action.read(wrapper.apply(stream), 0, len);
+        } catch (IOException e) {
+            throw new ReadException(e);
+        } catch (S3Exception e) {
+            return handle(e);
+        }
+    }
+
+    /**
+     * Aborts the open response if present
+     */
+    @Override
+    public void close() {
+        abort();
+    }
+
+    /**
+     * Reads from the open span and from the following ones until the requested amount is read or the object ends
+     */
+    private int read(long from, int len, ReadAction action) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        int total = 0;
+
+        while (total < len) {
+            long current = from + total;
+
+            if (!isOpenAt(current)) {
+                detect(current);
+                abort();
+
+                if (isBeyondEnd(current) || !tryOpen(current, len - total, total)) {
+                    break;
+                }
+            }
+
+            int read = readOpened(total, len - total, action);
+
+            total += read;
+
+            if (total < len && position < spanEnd) {
+                LOG.debug("Object ended at {} before the end of the span", position);
+                break;
+            }
+        }
+
+        return total > 0 ? total : Constant.EOS;
+    }
+
+    /**
+     * Opens a new span. A span which starts exactly at the end of the object of unknown length is rejected by S3, the
+     * bytes read before are returned then
+     *
+     * @return false if the object ended
+     */
+    private boolean tryOpen(long from, int len, int done) {
+        try {
+            open(from, len);
+            return true;
+        } catch (S3Exception e) {
+            if (done > 0 && e.statusCode() == S3HttpCodes.RANGE_NOT_SATISFIABLE.code()) {
+                LOG.debug("Object ended at {}", from);
+                return false;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Switches the adaptive policy to the random mode on a backward seek or a large forward jump
+     */
+    private void detect(long from) {
+        if (policy != ReadPolicy.ADAPTIVE || isRandom || !hasRead) {
+            return;
+        }
+
+        if (from < position || from - position > Threshold.MAX_FORWARD_JUMP) {
+            LOG.info("Non-sequential access from {} to {} detected, switching to random reads of {}", position, from,
+                     this);
+
+            isRandom = true;
+        }
+    }
+
+    private int readOpened(int done, int len, ReadAction action) throws IOException {
+        long started = span.start();
+        int  read    = action.read(reader, done, len);
+
+        readTime += span.elapsed(started);
+        position += read;
+        hasRead   = true;
+
+        if (isRandom && position == spanEnd) {
+            release();
+        } else if (read < len) {
+            if (position == spanEnd) {
+                span.completed(position - spanStart, readTime);
+            }
+
+            release();
+        }
+
+        return read;
+    }
+
+    private boolean isOpenAt(long from) {
+        return response != null && position == from;
+    }
+
+    private void open(long from, int len) {
+        long size    = isRandom ? len : span.next();
+        long started = span.start();
+
+        response  = open(new ByteRange(from, from + size - 1));
+        readTime  = span.elapsed(started);
+        reader    = wrapper.apply(response);
+        position  = from;
+        spanStart = from;
+        spanEnd   = from + size;
+    }
+
+    private void fail() {
+        span.failed();
+        abort();
+    }
+
+    private void release() {
+        try {
+            response.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close response", e);
+        } finally {
+            response = null;
+            reader   = null;
+        }
+    }
+
+    private void abort() {
+        if (response != null) {
+            LOG.debug("Aborting response at {}", position);
+
+            ((Abortable) response).abort();
+            release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("fileDescriptor", fileDescriptor)
+                          .add("span", span)
+                          .add("policy", policy)
+                          .add("isRandom", isRandom)
+                          .add("position", position)
+                          .toString();
+    }
+}
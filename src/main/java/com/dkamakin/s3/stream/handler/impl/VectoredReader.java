@@ -0,0 +1,201 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.IVectoredReader;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.FileRange;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads many ranges at once. Ranges separated by no more than {@code maxGap} bytes are coalesced into a single GET
+ * request of at most {@code maxMergedSize} bytes, the merged result is split back into the requested ranges. Separate
+ * groups are fetched in parallel on the executor, so the download handler must be thread-safe
+ */
+public class VectoredReader implements IVectoredReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VectoredReader.class);
+
+    private final IMultiPartDownloadHandler downloadHandler;
+    private final Bytes                     maxGap;
+    private final Bytes                     maxMergedSize;
+    private final int                       parallelism;
+    private       ExecutorService           executor;
+    private       boolean                   isExecutorOwned;
+
+    /**
+     * @param executor    executor to fetch groups on, nullable. If absent, a fixed thread pool of {@code parallelism}
+     *                    threads is created on the first read and shut down on close
+     * @param parallelism size of the created thread pool
+     */
+    public VectoredReader(IMultiPartDownloadHandler downloadHandler,
+                          ExecutorService executor,
+                          int parallelism,
+                          Bytes maxGap,
+                          Bytes maxMergedSize) {
+        Validator.nonNull(downloadHandler, "downloadHandler");
+        Validator.nonNull(maxGap, "maxGap");
+        Validator.nonNull(maxMergedSize, "maxMergedSize");
+        Validator.check(parallelism, value -> value > 0,
+                        () -> new IllegalArgumentException("Parallelism must be positive"));
+
+        this.downloadHandler = downloadHandler;
+        this.executor        = executor;
+        this.parallelism     = parallelism;
+        this.maxGap          = maxGap;
+        this.maxMergedSize   = maxMergedSize;
+    }
+
+    @Override
+    public List<CompletableFuture<ByteBuffer>> read(List<FileRange> ranges) {
+        List<CompletableFuture<ByteBuffer>> futures = ranges.stream()
+                                                            .map(range -> new CompletableFuture<ByteBuffer>())
+                                                            .collect(Collectors.toList());
+
+        List<Group> groups = coalesce(ranges, futures);
+
+        LOG.debug("Reading {} ranges using {} requests from {}", ranges.size(), groups.size(), downloadHandler);
+
+        for (Group group : groups) {
+            try {
+                executor().execute(group::fetch);
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Failed to submit a group of {}, the reader may be closed", this, e);
+                group.fail(e);
+            }
+        }
+
+        return futures;
+    }
+
+    /**
+     * Shuts down the executor if it was created by the reader
+     */
+    @Override
+    public void close() {
+        if (isExecutorOwned) {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Group> coalesce(List<FileRange> ranges, List<CompletableFuture<ByteBuffer>> futures) {
+        List<Integer> order = IntStream.range(0, ranges.size())
+                                       .boxed()
+                                       .sorted(Comparator.comparingLong(index -> ranges.get(index).offset()))
+                                       .collect(Collectors.toList());
+
+        List<Group> groups  = new ArrayList<>();
+        Group       current = null;
+
+        for (int index : order) {
+            FileRange range = ranges.get(index);
+
+            if (current == null || !current.accepts(range)) {
+                current = new Group(range.offset());
+                groups.add(current);
+            }
+
+            current.add(range, futures.get(index));
+        }
+
+        return groups;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor        = Executors.newFixedThreadPool(parallelism,
+                                                           new ThreadFactoryBuilder().setNameFormat("s3-vectored-%d")
+                                                                                     .setDaemon(true)
+                                                                                     .build());
+            isExecutorOwned = true;
+        }
+
+        return executor;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxGap", maxGap)
+                          .add("maxMergedSize", maxMergedSize)
+                          .add("parallelism", parallelism)
+                          .toString();
+    }
+
+    /**
+     * Ranges fetched by a single request
+     */
+    private class Group {
+
+        private final long                                start;
+        private final List<FileRange>                     ranges;
+        private final List<CompletableFuture<ByteBuffer>> futures;
+        private       long                                end;
+
+        Group(long start) {
+            this.start   = start;
+            this.end     = start;
+            this.ranges  = new ArrayList<>();
+            this.futures = new ArrayList<>();
+        }
+
+        boolean accepts(FileRange range) {
+            return range.offset() - end <= maxGap.toBytes() &&
+                   Math.max(end, range.end()) - start <= maxMergedSize.toBytes();
+        }
+
+        void add(FileRange range, CompletableFuture<ByteBuffer> future) {
+            ranges.add(range);
+            futures.add(future);
+
+            end = Math.max(end, range.end());
+        }
+
+        /**
+         * A single request may return fewer bytes than requested, so it's repeated until the group is read or the
+         * object ends
+         */
+        void fetch() {
+            try {
+                byte[] data = new byte[(int) (end - start)];
+                int    read = data.length == 0 ? 0 : Blocks.readFully(downloadHandler, new ByteRange(start, end - 1),
+                                                                      ByteBuffer.wrap(data));
+
+                for (int i = 0; i < ranges.size(); i++) {
+                    complete(ranges.get(i), futures.get(i), data, Math.max(read, 0));
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        void fail(Throwable e) {
+            futures.forEach(future -> future.completeExceptionally(e));
+        }
+
+        private void complete(FileRange range, CompletableFuture<ByteBuffer> future, byte[] data, int read) {
+            if (range.end() > start + read) {
+                future.completeExceptionally(new ReadException(new EOFException("Range is beyond the end: " + range)));
+                return;
+            }
+
+            future.complete(ByteBuffer.wrap(data, (int) (range.offset() - start), range.length()).slice());
+        }
+    }
+}
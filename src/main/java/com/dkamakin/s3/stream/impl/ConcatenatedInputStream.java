@@ -0,0 +1,277 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.dkamakin.s3.stream.IConcatenatedInputStreamBuilder;
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.impl.BlockProvider;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.HeapBufferAllocator;
+import com.google.common.base.MoreObjects;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a sequence of objects one after another as a single stream. While an object is being read, the first block of
+ * the next one is already requested in the background, so switching to the next object costs no round trip as long as
+ * the reader is slower than the request. The rest of an object larger than a block is read by a buffered
+ * {@link MultiPartInputStream} pinned to the ETag captured from the first block. A new instance can be built using
+ * {@link ConcatenatedInputStream#builder()}
+ */
+@NotThreadSafe
+public class ConcatenatedInputStream extends InputStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcatenatedInputStream.class);
+
+    private final Iterator<String>                            keys;
+    private final Function<String, IMultiPartDownloadHandler> handlers;
+    private final Bytes                                       blockSize;
+    private final ExecutorService                             executor;
+    private final boolean                                     isExecutorOwned;
+    private       Segment                                     current;
+    private       Segment                                     next;
+    private       boolean                                     isStarted;
+
+    /**
+     * @param keys            keys of the objects in the reading order
+     * @param handlers        creates a download handler for a key
+     * @param isExecutorOwned whether the executor should be shut down on {@link ConcatenatedInputStream#close()}
+     */
+    protected ConcatenatedInputStream(Iterator<String> keys,
+                                      Function<String, IMultiPartDownloadHandler> handlers,
+                                      Bytes blockSize,
+                                      ExecutorService executor,
+                                      boolean isExecutorOwned) {
+        this.keys            = keys;
+        this.handlers        = handlers;
+        this.blockSize       = blockSize;
+        this.executor        = executor;
+        this.isExecutorOwned = isExecutorOwned;
+    }
+
+    @Override
+    public int read() {
+        byte[] data = new byte[1];
+
+        return read(data, 0, 1) == Constant.EOS ? Constant.EOS : data[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] data, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        while (advance()) {
+            int read = current.read(data, offset, length);
+
+            if (read > 0) {
+                return read;
+            }
+
+            LOG.debug("Finished reading {}", current);
+
+            current.close();
+            current = null;
+        }
+
+        return Constant.EOS;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.available();
+    }
+
+    /**
+     * Cancels the prefetch of the next object and releases resources held by the current one
+     */
+    @Override
+    public void close() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+
+        if (next != null) {
+            next.close();
+            next = null;
+        }
+
+        if (isExecutorOwned) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creating a new concatenated input stream builder instance
+     *
+     * @return builder
+     */
+    public static IConcatenatedInputStreamBuilder builder() {
+        return new ConcatenatedInputStreamBuilder();
+    }
+
+    /**
+     * Makes the prefetched object current and starts the prefetch of the one after it
+     *
+     * @return whether there is an object to read
+     */
+    private boolean advance() {
+        if (current != null) {
+            return true;
+        }
+
+        if (!isStarted) {
+            isStarted = true;
+            next      = prefetch();
+        }
+
+        current = next;
+        next    = prefetch();
+
+        return current != null;
+    }
+
+    private Segment prefetch() {
+        if (!keys.hasNext()) {
+            return null;
+        }
+
+        String                    key     = keys.next();
+        IMultiPartDownloadHandler handler = handlers.apply(key);
+
+        LOG.debug("Prefetching the first block of {}", key);
+
+        return new Segment(handler, executor.submit(() -> head(handler)));
+    }
+
+    private byte[] head(IMultiPartDownloadHandler handler) {
+        int    size = blockSize.toBytes();
+        byte[] data = new byte[size];
+        int    read = 0;
+
+        while (read < size) {
+            int current = handler.getPart(new ByteRange(read, size - 1), data, read, size - read);
+
+            if (current <= 0) {
+                break;
+            }
+
+            read += current;
+        }
+
+        return read == size ? data : Arrays.copyOf(data, read);
+    }
+
+    /**
+     * A single object, the first block is prefetched, the rest is read on demand
+     */
+    private class Segment {
+
+        private final IMultiPartDownloadHandler downloadHandler;
+        private final Future<byte[]>            future;
+        private       byte[]                    head;
+        private       int                       headOffset;
+        private       MultiPartInputStream      rest;
+
+        Segment(IMultiPartDownloadHandler downloadHandler, Future<byte[]> future) {
+            this.downloadHandler = downloadHandler;
+            this.future          = future;
+        }
+
+        int read(byte[] data, int offset, int length) {
+            byte[] block = head();
+
+            if (headOffset < block.length) {
+                int count = Math.min(length, block.length - headOffset);
+
+                System.arraycopy(block, headOffset, data, offset, count);
+                headOffset += count;
+
+                return count;
+            }
+
+            if (block.length < blockSize.toBytes()) {
+                return Constant.EOS;
+            }
+
+            return rest().read(data, offset, length);
+        }
+
+        int available() {
+            return head == null ? 0 : head.length - headOffset;
+        }
+
+        void close() {
+            future.cancel(true);
+
+            if (rest != null) {
+                rest.close();
+            } else {
+                downloadHandler.close();
+            }
+        }
+
+        private byte[] head() {
+            if (head == null) {
+                head = await();
+            }
+
+            return head;
+        }
+
+        private MultiPartInputStream rest() {
+            if (rest == null) {
+                rest = new MultiPartInputStream(downloadHandler, new BlockProvider(downloadHandler,
+                                                                                   new HeapBufferAllocator(),
+                                                                                   blockSize));
+
+                rest.seek(head.length);
+            }
+
+            return rest;
+        }
+
+        private byte[] await() {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadException(new InterruptedIOException("Interrupted while waiting for " + this));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw new ReadException(e.getCause());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                              .add("fileDescriptor", downloadHandler.fileDescriptor())
+                              .add("headOffset", headOffset)
+                              .toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("current", current)
+                          .add("blockSize", blockSize)
+                          .toString();
+    }
+}
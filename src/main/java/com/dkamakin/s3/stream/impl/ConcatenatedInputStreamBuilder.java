@@ -0,0 +1,123 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.dkamakin.s3.stream.IConcatenatedInputStreamBuilder;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.impl.MultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.impl.S3FileDescriptor;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+public class ConcatenatedInputStreamBuilder implements IConcatenatedInputStreamBuilder {
+
+    public static class Constant {
+
+        public static final Bytes DEFAULT_BLOCK_SIZE = Bytes.fromMb(1);
+    }
+
+    private S3Client        s3Client;
+    private String          bucketName;
+    private String          prefix;
+    private List<String>    keys;
+    private Bytes           blockSize   = Constant.DEFAULT_BLOCK_SIZE;
+    private ExecutorService executor;
+    private RetryPolicy     retryPolicy = RetryPolicy.standard();
+
+    @Override
+    public IConcatenatedInputStreamBuilder client(S3Client s3Client) {
+        this.s3Client = s3Client;
+        return this;
+    }
+
+    @Override
+    public IConcatenatedInputStreamBuilder bucket(String bucketName) {
+        this.bucketName = bucketName;
+        return this;
+    }
+
+    @Override
+    public IConcatenatedInputStreamBuilder prefix(String prefix) {
+        this.prefix = prefix;
+        return this;
+    }
+
+    @Override
+    public IConcatenatedInputStreamBuilder keys(List<String> keys) {
+        this.keys = keys;
+        return this;
+    }
+
+    @Override
+    public IConcatenatedInputStreamBuilder blockSize(Bytes blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    @Override
+    public IConcatenatedInputStreamBuilder executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @Override
+    public IConcatenatedInputStreamBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    @Override
+    public ConcatenatedInputStream build() {
+        Validator.nonNull(s3Client, "s3Client");
+        Validator.isNotEmpty(bucketName, "bucketName");
+        Validator.nonNull(blockSize, "blockSize");
+        Validator.nonNull(retryPolicy, "retryPolicy");
+        Validator.ifValue(blockSize).lessThan(Bytes.fromBytes(1)).thenThrow(
+            () -> new IllegalArgumentException("Block size must be positive"));
+        Validator.check(keys, value -> (value == null) != (prefix == null),
+                        () -> new IllegalArgumentException("Either a prefix or keys must be specified"));
+
+        if (executor == null) {
+            return new ConcatenatedInputStream(keys(), this::handler, blockSize, createExecutor(), true);
+        }
+
+        return new ConcatenatedInputStream(keys(), this::handler, blockSize, executor, false);
+    }
+
+    private Iterator<String> keys() {
+        if (keys != null) {
+            return new ArrayList<>(keys).iterator();
+        }
+
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                                                           .bucket(bucketName)
+                                                           .prefix(prefix)
+                                                           .build();
+
+        return s3Client.listObjectsV2Paginator(request)
+                       .contents()
+                       .stream()
+                       .map(S3Object::key)
+                       .iterator();
+    }
+
+    private IMultiPartDownloadHandler handler(String key) {
+        return new MultiPartDownloadHandler(new S3FileDescriptor(bucketName, key, s3Client),
+                                            RetryableStreamReader::new, retryPolicy);
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("s3-concat-%d")
+                                                                           .setDaemon(true)
+                                                                           .build());
+    }
+}
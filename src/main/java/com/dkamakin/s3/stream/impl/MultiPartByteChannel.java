@@ -0,0 +1,115 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.google.common.base.MoreObjects;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Read-only {@link SeekableByteChannel} view of a {@link MultiPartInputStream}. The channel shares the offset with the
+ * stream, see {@link MultiPartInputStream#seek(long)}
+ */
+@NotThreadSafe
+public class MultiPartByteChannel implements SeekableByteChannel {
+
+    private final MultiPartInputStream stream;
+    private       boolean              isOpen;
+
+    public MultiPartByteChannel(MultiPartInputStream stream) {
+        this.stream = stream;
+        this.isOpen = true;
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws ClosedChannelException {
+        validateState();
+
+        if (!target.hasRemaining()) {
+            return 0;
+        }
+
+        return stream.read(target);
+    }
+
+    @Override
+    public int write(ByteBuffer source) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws ClosedChannelException {
+        validateState();
+
+        return stream.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws ClosedChannelException {
+        validateState();
+
+        stream.seek(newPosition);
+
+        return this;
+    }
+
+    @Override
+    public long size() throws ClosedChannelException {
+        validateState();
+
+        return stream.length();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            stream.close();
+        }
+    }
+
+    private void validateState() throws ClosedChannelException {
+        if (!isOpen) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        MultiPartByteChannel that = (MultiPartByteChannel) o;
+        return stream.equals(that.stream);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stream);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("stream", stream)
+                          .add("isOpen", isOpen)
+                          .toString();
+    }
+}
@@ -0,0 +1,182 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.dkamakin.s3.stream.IMultiPartFileDownloaderBuilder;
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads a whole object into a local file. The object is split into ranges of {@code partSize} which are fetched
+ * concurrently, and every range is written at its own offset using positional {@link FileChannel} writes, so no
+ * reordering is needed. The length and the ETag of the object are requested before the download, every range is
+ * pinned to the ETag, so a file is never assembled from different versions of the object. A new instance can be built
+ * using {@link MultiPartFileDownloader#builder()}
+ */
+public class MultiPartFileDownloader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MultiPartFileDownloader.class);
+
+    private final IMultiPartDownloadHandler downloadHandler;
+    private final Bytes                     partSize;
+    private final int                       parallelism;
+    private final ExecutorService           executor;
+
+    /**
+     * @param executor executor to run requests on, nullable
+     */
+    protected MultiPartFileDownloader(IMultiPartDownloadHandler downloadHandler,
+                                      Bytes partSize,
+                                      int parallelism,
+                                      ExecutorService executor) {
+        this.downloadHandler = downloadHandler;
+        this.partSize        = partSize;
+        this.parallelism     = parallelism;
+        this.executor        = executor;
+    }
+
+    /**
+     * Downloads the object into the file, an existing file is overwritten. If the download fails, the file is left
+     * incomplete
+     *
+     * @param target file to write to
+     * @return amount of downloaded bytes
+     * @throws IOException failed to write the file
+     */
+    public long downloadTo(Path target) throws IOException {
+        long length = downloadHandler.length();
+        long count  = (length + partSize.toBytes() - 1) / partSize.toBytes();
+
+        LOG.info("Downloading {} bytes in {} parts from {} to {}", length, count, downloadHandler, target);
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            allocate(channel, length);
+
+            AtomicLong      next     = new AtomicLong();
+            ExecutorService workers  = executor == null ? createExecutor() : executor;
+            List<Future<?>> futures  = new ArrayList<>();
+            int             requests = (int) Math.min(parallelism, count);
+
+            try {
+                for (int i = 0; i < requests; i++) {
+                    futures.add(workers.submit(worker(channel, next, count, length)));
+                }
+
+                await(futures);
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+
+                if (executor == null) {
+                    workers.shutdownNow();
+                }
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Extends the file to its final size upfront, so positional writes never have to grow it
+     */
+    private void allocate(FileChannel channel, long length) throws IOException {
+        if (length > 0) {
+            channel.write(ByteBuffer.allocate(1), length - 1);
+        }
+    }
+
+    /**
+     * Each worker reuses a single buffer and takes the next range until there are no ranges left
+     */
+    private Callable<Void> worker(FileChannel channel, AtomicLong next, long count, long length) {
+        return () -> {
+            ByteBuffer buffer = ByteBuffer.allocate(partSize.toBytes());
+
+            for (long index = next.getAndIncrement(); index < count; index = next.getAndIncrement()) {
+                long from = index * partSize.toBytes();
+                int  size = (int) Math.min(partSize.toBytes(), length - from);
+
+                ((Buffer) buffer).clear();
+
+                int read = downloadHandler.getPart(new ByteRange(from, from + size - 1), buffer.array(), 0, size);
+
+                if (read != size) {
+                    throw new ReadException(new EOFException(String.format("Expected %s bytes at %s, got %s", size,
+                                                                           from, read)));
+                }
+
+                ((Buffer) buffer).limit(size);
+
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, from + buffer.position());
+                }
+            }
+
+            return null;
+        };
+    }
+
+    private void await(List<Future<?>> futures) throws IOException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw new ReadException(e.getCause());
+            }
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder().setNameFormat("s3-download-%d")
+                                                                                  .setDaemon(true)
+                                                                                  .build());
+    }
+
+    /**
+     * Creating a new downloader builder instance
+     *
+     * @return builder
+     */
+    public static IMultiPartFileDownloaderBuilder builder() {
+        return new MultiPartFileDownloaderBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("downloadHandler", downloadHandler)
+                          .add("partSize", partSize)
+                          .add("parallelism", parallelism)
+                          .toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.dkamakin.s3.stream.IMultiPartFileDownloaderBuilder;
+import com.dkamakin.s3.stream.handler.impl.MultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import java.util.concurrent.ExecutorService;
+
+public class MultiPartFileDownloaderBuilder extends FileDescriptorBuilder<IMultiPartFileDownloaderBuilder>
+    implements IMultiPartFileDownloaderBuilder {
+
+    public static class Constant {
+
+        public static final Bytes DEFAULT_PART_SIZE   = Bytes.fromMb(8);
+        public static final int   DEFAULT_PARALLELISM = 8;
+    }
+
+    private Bytes           partSize    = Constant.DEFAULT_PART_SIZE;
+    private int             parallelism = Constant.DEFAULT_PARALLELISM;
+    private ExecutorService executor;
+    private RetryPolicy     retryPolicy = RetryPolicy.standard();
+
+    @Override
+    protected IMultiPartFileDownloaderBuilder getThis() {
+        return this;
+    }
+
+    @Override
+    public IMultiPartFileDownloaderBuilder partSize(Bytes partSize) {
+        this.partSize = partSize;
+        return this;
+    }
+
+    @Override
+    public IMultiPartFileDownloaderBuilder parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    @Override
+    public IMultiPartFileDownloaderBuilder executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @Override
+    public IMultiPartFileDownloaderBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    @Override
+    public MultiPartFileDownloader build() {
+        Validator.nonNull(partSize, "partSize");
+        Validator.ifValue(partSize).lessThan(Bytes.fromBytes(1)).thenThrow(
+            () -> new IllegalArgumentException("Part size must be positive"));
+        Validator.check(parallelism, value -> value > 0,
+                        () -> new IllegalArgumentException("Parallelism must be positive"));
+
+        Validator.nonNull(retryPolicy, "retryPolicy");
+
+        return new MultiPartFileDownloader(new MultiPartDownloadHandler(buildDescriptor(), RetryableStreamReader::new,
+                                                                        retryPolicy),
+                                           partSize, parallelism, executor);
+    }
+}
@@ -1,14 +1,36 @@
 package com.dkamakin.s3.stream.impl;
 
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.DEFAULT_MAX_GAP;
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.DEFAULT_VECTORED_PARALLELISM;
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.MAX_MERGED_SIZE;
+
+import com.dkamakin.s3.stream.IConcatenatedInputStreamBuilder;
+import com.dkamakin.s3.stream.IMultiPartFileDownloaderBuilder;
 import com.dkamakin.s3.stream.IMultiPartInputStreamBuilder;
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IBlockProvider;
 import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.IVectoredReader;
 import com.dkamakin.s3.stream.handler.impl.S3FileDescriptor;
+import com.dkamakin.s3.stream.handler.impl.VectoredReader;
 import com.dkamakin.s3.stream.util.ObjIntFunction;
+import com.dkamakin.s3.stream.util.impl.Block;
 import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
 import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.FileRange;
+import com.dkamakin.s3.stream.util.impl.Validator;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
 import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,8 +39,12 @@ import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 /**
  * Allows you to download files from S3 without the need to know file size, caching or storing the entire object in the
  * file system. The stream downloads each part using {@link GetObjectRequest#range()} option. This class remembers the
- * amount of read bytes and moves the pointer {@link ByteRange}. EOS considered as a 416 HTTP code got from S3. A new
- * instance can be built using {@link MultiPartInputStream#builder()}. See also {@link IMultiPartInputStreamBuilder}
+ * amount of read bytes and moves the pointer {@link ByteRange}. The total length of the file is captured from the
+ * {@code Content-Range} header of the first response, after that EOS is detected without additional requests. Until
+ * the length is known, EOS considered as a 416 HTTP code got from S3. By default, the length of the caller's array
+ * decides the size of a requested range. If {@link IMultiPartInputStreamBuilder#chunkSize(Bytes)} is specified,
+ * fixed-size blocks are downloaded into an internal buffer and small reads are served from memory. A new instance can
+ * be built using {@link MultiPartInputStream#builder()}. See also {@link IMultiPartInputStreamBuilder}
  */
 @NotThreadSafe
 public class MultiPartInputStream extends InputStream {
@@ -26,22 +52,57 @@ public class MultiPartInputStream extends InputStream {
     private static final Logger LOG = LoggerFactory.getLogger(MultiPartInputStream.class);
 
     private final IMultiPartDownloadHandler downloadHandler;
+    private final IBlockProvider            blockProvider;
+    private final Supplier<IVectoredReader> vectoredReaders;
+    private       IVectoredReader           vectoredReader;
+    private       Block                     block;
+    private       long                      position;
     private       long                      readLength;
     private       boolean                   isEOS;
 
     protected MultiPartInputStream(IMultiPartDownloadHandler downloadHandler) {
+        this(downloadHandler, null);
+    }
+
+    protected MultiPartInputStream(IMultiPartDownloadHandler downloadHandler, IBlockProvider blockProvider) {
+        this(downloadHandler, blockProvider,
+             () -> new VectoredReader(downloadHandler, null, DEFAULT_VECTORED_PARALLELISM, DEFAULT_MAX_GAP,
+                                      MAX_MERGED_SIZE));
+    }
+
+    /**
+     * @param vectoredReaders creates a reader on the first {@link MultiPartInputStream#readVectored(List)} call, so a
+     *                        stream which doesn't read vectored never holds its handler or thread pool
+     */
+    protected MultiPartInputStream(IMultiPartDownloadHandler downloadHandler,
+                                   IBlockProvider blockProvider,
+                                   Supplier<IVectoredReader> vectoredReaders) {
         this.downloadHandler = downloadHandler;
+        this.blockProvider   = blockProvider;
+        this.vectoredReaders = vectoredReaders;
     }
 
     /**
-     * Reading a single byte from S3 is considered bad practice because it can be used as a byte-by-byte read in a loop,
-     * which would significantly affect performance.
+     * Reads a single byte from the internal buffer. Reading a single byte directly from S3 is considered bad practice
+     * because it can be used as a byte-by-byte read in a loop, which would significantly affect performance.
      *
-     * @throws UnsupportedOperationException the function is not needed
+     * @return the next byte of data, or -1 if the end of the stream is reached.
+     * @throws UnsupportedOperationException the stream is not buffered, see
+     *                                       {@link IMultiPartInputStreamBuilder#chunkSize(Bytes)}
      */
     @Override
     public int read() {
-        throw new UnsupportedOperationException("Attempt to read a single byte from S3");
+        if (!isBuffered()) {
+            throw new UnsupportedOperationException("Attempt to read a single byte from S3");
+        }
+
+        if (isEOS || isEndReached() || !isBlockAvailable()) {
+            return Constant.EOS;
+        }
+
+        readLength++;
+
+        return block.get(position++);
     }
 
     /**
@@ -69,23 +130,134 @@ public class MultiPartInputStream extends InputStream {
      */
     @Override
     public int read(byte[] data, int offset, int length) {
-        if (isEOS) {
+        Preconditions.checkPositionIndexes(offset, offset + length, data.length);
+
+        if (isEOS || isEndReached()) {
             return Constant.EOS;
         }
 
+        if (isBuffered()) {
+            return readBuffered(data, offset, length);
+        }
+
         return validate(handler -> handler.getPart(getRange(length), data, offset, length));
     }
 
     /**
-     * Does nothing
+     * Reads up to {@code target.remaining()} bytes into the buffer and moves its position by the amount of read bytes.
+     * A heap buffer is filled through its backing array. A direct buffer is filled by the download handler or copied
+     * from a buffered block, so the data is not copied through an intermediate array of the stream
+     *
+     * @param target the buffer into which the data is read.
+     * @return the total number of bytes read into the buffer, or -1 if there is no more data because the end of the
+     * stream has been reached.
+     */
+    public int read(ByteBuffer target) {
+        if (target.hasArray()) {
+            int read = read(target.array(), target.arrayOffset() + target.position(), target.remaining());
+
+            if (read > 0) {
+                ((Buffer) target).position(target.position() + read);
+            }
+
+            return read;
+        }
+
+        if (isEOS || isEndReached()) {
+            return Constant.EOS;
+        }
+
+        if (isBuffered()) {
+            return readBuffered(target);
+        }
+
+        return validate(handler -> handler.getPart(getRange(target.remaining()), target));
+    }
+
+    /**
+     * Reads many ranges at once without moving the offset of the stream. Close ranges are coalesced into a single
+     * request and the requests run in parallel, see {@link IMultiPartInputStreamBuilder#rangeCoalescingGap(Bytes)}. A
+     * range beyond the end of the file completes exceptionally with {@link ReadException}
+     *
+     * @param ranges ranges to read, in any order
+     * @return futures completed with the bytes of the corresponding range, in the order of the given ranges
+     */
+    public List<CompletableFuture<ByteBuffer>> readVectored(List<FileRange> ranges) {
+        if (vectoredReader == null) {
+            vectoredReader = vectoredReaders.get();
+        }
+
+        return vectoredReader.read(ranges);
+    }
+
+    /**
+     * Returns an estimate of the number of bytes that can be read. If the length of the file is known, it's the amount
+     * of bytes left until the end of the file, otherwise it's the amount of buffered bytes
+     *
+     * @return an estimate of the number of bytes that can be read
+     */
+    @Override
+    public int available() {
+        OptionalLong length = downloadHandler.knownLength();
+
+        if (length.isPresent()) {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, length.getAsLong() - position));
+        }
+
+        if (block != null && block.contains(position)) {
+            return (int) (block.end() - position);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Moves the offset forward without downloading the skipped bytes. The offset is clamped to the length of the file
+     * if it is already known, otherwise it may be moved beyond the end of the file and the next read returns EOS
+     *
+     * @param count the number of bytes to be skipped.
+     * @return the actual number of bytes skipped.
+     */
+    @Override
+    public long skip(long count) {
+        if (count <= 0 || isEOS) {
+            return 0;
+        }
+
+        long target = position + count;
+        long limit  = downloadHandler.knownLength().orElse(Long.MAX_VALUE);
+
+        if (target < 0 || target > limit) {
+            target = Math.max(limit, position);
+        }
+
+        long skipped = target - position;
+
+        seek(target);
+
+        return skipped;
+    }
+
+    /**
+     * Releases resources held by the download handler, e.g. an open S3 response
      */
     @Override
     public void close() {
-        // --Nothing to do
+        if (isBuffered()) {
+            releaseBlock();
+            blockProvider.close();
+        }
+
+        if (vectoredReader != null) {
+            vectoredReader.close();
+        }
+
+        downloadHandler.close();
     }
 
     /**
-     * Get current amount of bytes read from file
+     * Get current amount of bytes read from file. Bytes passed over by {@link MultiPartInputStream#skip(long)} or
+     * {@link MultiPartInputStream#seek(long)} are not counted
      *
      * @return read length
      */
@@ -93,6 +265,56 @@ public class MultiPartInputStream extends InputStream {
         return readLength;
     }
 
+    /**
+     * Get the current offset within the file. The same as {@link MultiPartInputStream#readLength()}, unless the stream
+     * was moved using {@link MultiPartInputStream#seek(long)} or {@link MultiPartInputStream#skip(long)}
+     *
+     * @return current offset
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Moves the offset from which the next read starts. Does not perform any network I/O: an open connection or a
+     * buffered block is dropped lazily by the next read if it doesn't match the new offset. Seeking beyond the end of
+     * the file is allowed, the next read returns EOS in this case
+     *
+     * @param position new offset within the file
+     * @throws IllegalArgumentException the offset is negative
+     */
+    public void seek(long position) {
+        Validator.check(position, value -> value >= 0,
+                        () -> new IllegalArgumentException("Position must be non-negative: " + position));
+
+        LOG.debug("Seek from {} to {}", this.position, position);
+
+        this.position = position;
+        isEOS         = false;
+    }
+
+    /**
+     * Get the total length of the file. The length is captured from the first response, if it's not known yet, a HEAD
+     * request is sent to S3
+     *
+     * @return file length
+     */
+    public long length() {
+        return downloadHandler.length();
+    }
+
+    /**
+     * Get a read-only {@link SeekableByteChannel} view of this stream, which can be passed wherever a
+     * {@link java.nio.channels.ReadableByteChannel} is expected. Reads are served by
+     * {@link MultiPartInputStream#read(ByteBuffer)}. The channel shares the offset with the stream and closing it
+     * closes the stream
+     *
+     * @return channel
+     */
+    public SeekableByteChannel channel() {
+        return new MultiPartByteChannel(this);
+    }
+
     /**
      * Get a file descriptor on which stream based
      *
@@ -111,8 +333,99 @@ public class MultiPartInputStream extends InputStream {
         return new MultiPartInputStreamBuilder();
     }
 
+    /**
+     * Creating a new builder of a downloader which fetches a whole object into a local file using parallel ranged
+     * requests, see {@link MultiPartFileDownloader#downloadTo(java.nio.file.Path)}
+     *
+     * @return builder
+     */
+    public static IMultiPartFileDownloaderBuilder downloader() {
+        return MultiPartFileDownloader.builder();
+    }
+
+    /**
+     * Creating a new builder of a stream which reads several objects one after another, see
+     * {@link ConcatenatedInputStream}
+     *
+     * @return builder
+     */
+    public static IConcatenatedInputStreamBuilder concatenated() {
+        return ConcatenatedInputStream.builder();
+    }
+
     private ByteRange getRange(int requestedLength) {
-        return new ByteRange(readLength, readLength + requestedLength);
+        return new ByteRange(position, position + requestedLength);
+    }
+
+    /**
+     * Detects EOS using the known length of the file, so there is no need to send a request which fails with 416
+     */
+    private boolean isEndReached() {
+        OptionalLong length = downloadHandler.knownLength();
+
+        if (length.isPresent() && position >= length.getAsLong()) {
+            setEOS();
+        }
+
+        return isEOS;
+    }
+
+    private boolean isBuffered() {
+        return blockProvider != null;
+    }
+
+    private int readBuffered(byte[] data, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!isBlockAvailable()) {
+            return Constant.EOS;
+        }
+
+        int read = block.copyTo(position, data, offset, length);
+
+        position   += read;
+        readLength += read;
+
+        return read;
+    }
+
+    private int readBuffered(ByteBuffer target) {
+        if (!target.hasRemaining()) {
+            return 0;
+        }
+
+        if (!isBlockAvailable()) {
+            return Constant.EOS;
+        }
+
+        int read = block.copyTo(position, target);
+
+        position   += read;
+        readLength += read;
+
+        return read;
+    }
+
+    private boolean isBlockAvailable() {
+        if (block == null || !block.contains(position)) {
+            releaseBlock();
+            block = blockProvider.block(position);
+        }
+
+        if (block == null) {
+            setEOS();
+        }
+
+        return !isEOS;
+    }
+
+    private void releaseBlock() {
+        if (block != null) {
+            block.release();
+            block = null;
+        }
     }
 
     private int validate(ObjIntFunction<IMultiPartDownloadHandler> streamAction) {
@@ -123,6 +436,7 @@ public class MultiPartInputStream extends InputStream {
         if (isEOS(read)) {
             setEOS();
         } else {
+            position   += read;
             readLength += read;
         }
 
@@ -162,6 +476,8 @@ public class MultiPartInputStream extends InputStream {
     public String toString() {
         return MoreObjects.toStringHelper(this)
                           .add("downloadHandler", downloadHandler)
+                          .add("blockProvider", blockProvider)
+                          .add("position", position)
                           .add("readLength", readLength)
                           .toString();
     }
@@ -1,20 +1,353 @@
 package com.dkamakin.s3.stream.impl;
 
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.DEFAULT_CHUNK_SIZE;
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.DEFAULT_MAX_GAP;
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.DEFAULT_MAX_SPAN;
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.DEFAULT_VECTORED_PARALLELISM;
+import static com.dkamakin.s3.stream.impl.MultiPartInputStreamBuilder.Constant.MAX_MERGED_SIZE;
+
 import com.dkamakin.s3.stream.IMultiPartInputStreamBuilder;
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.handler.IBlockProvider;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.IVectoredReader;
+import com.dkamakin.s3.stream.handler.impl.BlockProvider;
+import com.dkamakin.s3.stream.handler.impl.CachingDownloadHandler;
+import com.dkamakin.s3.stream.handler.impl.FooterDownloadHandler;
 import com.dkamakin.s3.stream.handler.impl.MultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.impl.PrefetchBlockProvider;
+import com.dkamakin.s3.stream.handler.impl.ReadPolicy;
+import com.dkamakin.s3.stream.handler.impl.RequestHedger;
+import com.dkamakin.s3.stream.handler.impl.S3FileDescriptor;
+import com.dkamakin.s3.stream.handler.impl.StreamingDownloadHandler;
+import com.dkamakin.s3.stream.handler.impl.VectoredReader;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.AdaptiveSpan;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.HeapBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
 import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class MultiPartInputStreamBuilder extends FileDescriptorBuilder<IMultiPartInputStreamBuilder>
     implements IMultiPartInputStreamBuilder {
 
+    public static class Constant {
+
+        public static final Bytes DEFAULT_CHUNK_SIZE           = Bytes.fromMb(8);
+        public static final Bytes DEFAULT_MAX_SPAN             = Bytes.fromMb(64);
+        public static final Bytes DEFAULT_MAX_GAP              = Bytes.fromKb(16);
+        public static final Bytes MAX_MERGED_SIZE              = Bytes.fromMb(8);
+        public static final int   DEFAULT_VECTORED_PARALLELISM = 8;
+    }
+
+    private Bytes            maxSpan;
+    private Bytes            initialSpan;
+    private ReadPolicy       readPolicy;
+    private Bytes            chunkSize;
+    private Integer          parallelism;
+    private Integer          vectoredParallelism;
+    private Bytes            maxBufferedMemory;
+    private ExecutorService  executor;
+    private boolean          resolveLength;
+    private IBlockCache      blockCache;
+    private IBufferAllocator allocator = new HeapBufferAllocator();
+    private Bytes            maxGap;
+    private Bytes            footerSize;
+    private RetryPolicy      retryPolicy = RetryPolicy.standard();
+    private Double           hedgePercentile;
+    private Double           hedgeBudget;
+    private RequestHedger    hedger;
+
     @Override
     protected IMultiPartInputStreamBuilder getThis() {
         return this;
     }
 
+    @Override
+    public IMultiPartInputStreamBuilder streaming(Bytes maxSpan) {
+        this.maxSpan = maxSpan;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder adaptiveSpan(Bytes initialSpan) {
+        this.initialSpan = initialSpan;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder readPolicy(ReadPolicy readPolicy) {
+        this.readPolicy = readPolicy;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder chunkSize(Bytes chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder vectoredParallelism(int vectoredParallelism) {
+        this.vectoredParallelism = vectoredParallelism;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder maxBufferedMemory(Bytes maxBufferedMemory) {
+        this.maxBufferedMemory = maxBufferedMemory;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder resolveLength(boolean resolveLength) {
+        this.resolveLength = resolveLength;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder blockCache(IBlockCache blockCache) {
+        this.blockCache = blockCache;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder allocator(IBufferAllocator allocator) {
+        this.allocator = allocator;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder rangeCoalescingGap(Bytes maxGap) {
+        this.maxGap = maxGap;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder footerPrefetch(Bytes footerSize) {
+        this.footerSize = footerSize;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder hedgeRequests(double percentile, double budget) {
+        this.hedgePercentile = percentile;
+        this.hedgeBudget     = budget;
+        return this;
+    }
+
+    @Override
+    public IMultiPartInputStreamBuilder hedgeRequests(RequestHedger hedger) {
+        this.hedger = hedger;
+        return this;
+    }
+
     @Override
     public MultiPartInputStream build() {
-        return new MultiPartInputStream(new MultiPartDownloadHandler(buildDescriptor(), RetryableStreamReader::new));
+        Validator.nonNull(retryPolicy, "retryPolicy");
+
+        IMultiPartDownloadHandler downloadHandler = buildHandler();
+        Supplier<IVectoredReader> vectoredReaders = vectoredReaderFactory(downloadHandler);
+        IBlockProvider            blockProvider   = buildBlockProvider(downloadHandler);
+
+        try {
+            if (downloadHandler instanceof FooterDownloadHandler) {
+                ((FooterDownloadHandler) downloadHandler).prefetch();
+            } else if (resolveLength) {
+                downloadHandler.length();
+            }
+        } catch (RuntimeException e) {
+            Optional.ofNullable(blockProvider).ifPresent(IBlockProvider::close);
+            downloadHandler.close();
+            throw e;
+        }
+
+        return new MultiPartInputStream(downloadHandler, blockProvider, vectoredReaders);
+    }
+
+    @Override
+    public Stream<ByteBuffer> records(byte delimiter, Bytes splitSize) {
+        Validator.nonNull(retryPolicy, "retryPolicy");
+        Validator.nonNull(splitSize, "splitSize");
+        validate(splitSize);
+        Validator.check(isStreaming(), value -> !value,
+                        () -> illegalArgument("Streaming can't be combined with records"));
+        Validator.check(footerSize, Objects::isNull,
+                        () -> illegalArgument("Footer prefetch can't be combined with records"));
+        Validator.check(parallelism, Objects::isNull,
+                        () -> illegalArgument("Parallel prefetch can't be combined with records, use splitSize"));
+
+        Bytes bufferSize    = Optional.ofNullable(chunkSize).map(this::validate).orElse(DEFAULT_CHUNK_SIZE);
+        Bytes maxRecordSize = Ordering.natural().max(bufferSize, RecordReader.Defaults.MAX_RECORD_SIZE);
+
+        return RecordSpliterator.stream(withCache(buildDownloadHandler()), delimiter, bufferSize, maxRecordSize,
+                                        splitSize);
     }
 
+    /**
+     * The options are validated and captured when the stream is built, the reader itself is created on the first
+     * vectored read. Groups are fetched concurrently, so the streaming handler which is not thread-safe can't be shared
+     * and a separate handler is created for them, it still serves the footer pinned by the stream
+     */
+    private Supplier<IVectoredReader> vectoredReaderFactory(IMultiPartDownloadHandler downloadHandler) {
+        Bytes            gap     = Optional.ofNullable(maxGap).orElse(DEFAULT_MAX_GAP);
+        int              threads = Optional.ofNullable(vectoredParallelism).orElse(DEFAULT_VECTORED_PARALLELISM);
+        ExecutorService  pool    = executor;
+        IBlockCache      cache   = blockCache;
+        IBufferAllocator buffers = allocator;
+
+        Validator.ifValue(gap).lessThan(Bytes.fromBytes(0))
+                 .thenThrow(() -> illegalArgument("Gap must not be negative"));
+        Validator.check(threads, value -> value > 0,
+                        () -> illegalArgument("Vectored parallelism must be positive"));
+
+        if (!isStreaming()) {
+            return () -> new VectoredReader(downloadHandler, pool, threads, gap, MAX_MERGED_SIZE);
+        }
+
+        S3FileDescriptor descriptor = buildDescriptor();
+        RetryPolicy      retries    = retryPolicy;
+
+        return () -> {
+            IMultiPartDownloadHandler handler = new MultiPartDownloadHandler(descriptor, RetryableStreamReader::new,
+                                                                             retries);
+            IMultiPartDownloadHandler cached  = cache == null ? handler
+                                                              : new CachingDownloadHandler(handler, cache, buffers);
+
+            if (downloadHandler instanceof FooterDownloadHandler) {
+                cached = ((FooterDownloadHandler) downloadHandler).withDelegate(cached);
+            }
+
+            return new VectoredReader(cached, pool, threads, gap, MAX_MERGED_SIZE);
+        };
+    }
+
+    private IBlockProvider buildBlockProvider(IMultiPartDownloadHandler downloadHandler) {
+        if (isPrefetch()) {
+            return buildPrefetchBlockProvider(downloadHandler);
+        }
+
+        return Optional.ofNullable(chunkSize)
+                       .map(this::validate)
+                       .map(size -> new BlockProvider(downloadHandler, allocator, size))
+                       .orElse(null);
+    }
+
+    private IBlockProvider buildPrefetchBlockProvider(IMultiPartDownloadHandler downloadHandler) {
+        Validator.check(parallelism, value -> value > 0, () -> illegalArgument("Parallelism must be positive"));
+        Validator.check(isStreaming(), value -> !value,
+                        () -> illegalArgument("Streaming can't be combined with parallel prefetch"));
+
+        Bytes blockSize = Optional.ofNullable(chunkSize).map(this::validate).orElse(DEFAULT_CHUNK_SIZE);
+        int depth = Optional.ofNullable(maxBufferedMemory)
+                            .map(this::validate)
+                            .map(memory -> (int) Math.min(parallelism, memory.toLongBytes() / blockSize.toBytes()))
+                            .orElse(parallelism);
+
+        Validator.check(depth, value -> value > 0,
+                        () -> illegalArgument("Max buffered memory must fit at least one chunk"));
+
+        if (executor == null) {
+            return new PrefetchBlockProvider(downloadHandler, allocator, createExecutor(), true, blockSize, depth);
+        }
+
+        return new PrefetchBlockProvider(downloadHandler, allocator, executor, false, blockSize, depth);
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder().setNameFormat("s3-prefetch-%d")
+                                                                                  .setDaemon(true)
+                                                                                  .build());
+    }
+
+    private boolean isPrefetch() {
+        return parallelism != null;
+    }
+
+    private IMultiPartDownloadHandler buildHandler() {
+        IMultiPartDownloadHandler downloadHandler = withCache(buildDownloadHandler());
+
+        return Optional.ofNullable(footerSize)
+                       .map(this::validate)
+                       .<IMultiPartDownloadHandler>map(size -> new FooterDownloadHandler(downloadHandler, size))
+                       .orElse(downloadHandler);
+    }
+
+    private IMultiPartDownloadHandler withCache(IMultiPartDownloadHandler downloadHandler) {
+        if (blockCache == null) {
+            return downloadHandler;
+        }
+
+        return new CachingDownloadHandler(downloadHandler, blockCache, allocator);
+    }
+
+    private IMultiPartDownloadHandler buildDownloadHandler() {
+        if (!isStreaming()) {
+            Validator.check(initialSpan, value -> value == null,
+                            () -> illegalArgument("Adaptive span requires streaming"));
+
+            return new MultiPartDownloadHandler(buildDescriptor(), RetryableStreamReader::new, retryPolicy,
+                                                buildHedger());
+        }
+
+        Validator.check(hedgePercentile == null && hedger == null, value -> value,
+                        () -> illegalArgument("Hedging can't be combined with streaming"));
+
+        Bytes max     = Optional.ofNullable(maxSpan).map(this::validate).orElse(DEFAULT_MAX_SPAN);
+        Bytes initial = Optional.ofNullable(initialSpan).map(this::validate).orElse(max);
+
+        return new StreamingDownloadHandler(buildDescriptor(), RetryableStreamReader::new,
+                                            new AdaptiveSpan(initial, max),
+                                            Optional.ofNullable(readPolicy).orElse(ReadPolicy.SEQUENTIAL),
+                                            retryPolicy);
+    }
+
+    private RequestHedger buildHedger() {
+        if (hedger != null || hedgePercentile == null) {
+            return hedger;
+        }
+
+        return new RequestHedger(hedgePercentile, hedgeBudget);
+    }
+
+    private boolean isStreaming() {
+        return maxSpan != null || readPolicy != null;
+    }
+
+    private Bytes validate(Bytes size) {
+        Validator.ifValue(size).lessThan(Bytes.fromBytes(1)).thenThrow(() -> illegalArgument("Size must be positive"));
+        return size;
+    }
+
+    private IllegalArgumentException illegalArgument(String message) {
+        return new IllegalArgumentException(message);
+    }
 }
@@ -3,10 +3,18 @@ package com.dkamakin.s3.stream.impl;
 import com.dkamakin.s3.stream.IMultiPartOutputStreamBuilder;
 import com.dkamakin.s3.stream.handler.IMultiPartUploadHandler;
 import com.dkamakin.s3.stream.handler.impl.S3FileDescriptor;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.AdaptivePartSize;
 import com.dkamakin.s3.stream.util.impl.Bytes;
 import com.dkamakin.s3.stream.util.impl.RedirectableOutputStream;
+import com.google.common.base.Preconditions;
+import java.io.ByteArrayInputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.slf4j.Logger;
@@ -17,10 +25,13 @@ import software.amazon.awssdk.core.sync.RequestBody;
  * Allows you to upload files to S3 without the need to cache or save entire objects in the file system, as suggested by
  * the official API. The class is based on multipart upload, which implies loading in parts, the maximum number of which
  * is 10000. Keep in mind that only one part can be less than 5 MB. This class tries to buffer data until the required
- * limit of 5 MB is reached. if more information is provided at one time, a {@link MultiPartOutputStream#flush()} will
- * occur, which will upload everything that is available in the stream. The value of 5 MB can be increased, see
- * {@link IMultiPartOutputStreamBuilder#minPartSize(Bytes)}. Anyway, {@link MultiPartOutputStream#close()} tries to
- * flush the stored data. A new instance can be built using {@link MultiPartOutputStream#builder()}. See also
+ * limit of 5 MB is reached. If more information is provided at one time, it's split into parts of exactly this size,
+ * whole parts are uploaded straight from the provided array. The value of 5 MB can be increased, see
+ * {@link IMultiPartOutputStreamBuilder#minPartSize(Bytes)}. The part size may also grow with the amount of uploaded
+ * parts, so an object of unknown length can exceed 10000 parts of the initial size, see
+ * {@link IMultiPartOutputStreamBuilder#maxPartSize(Bytes)} and {@link AdaptivePartSize}. Anyway,
+ * {@link MultiPartOutputStream#close()} tries to flush the stored data. An output smaller than a part is uploaded with
+ * a single request on close. A new instance can be built using {@link MultiPartOutputStream#builder()}. See also
  * {@link IMultiPartOutputStreamBuilder}
  */
 @NotThreadSafe
@@ -30,17 +41,43 @@ public class MultiPartOutputStream extends OutputStream {
 
     private final IMultiPartUploadHandler  uploadHandler;
     private final Bytes                    minPartSize;
+    private final AdaptivePartSize         partSizes;
+    private final IBufferAllocator         allocator;
     private       RedirectableOutputStream buffer;
+    private       ByteBuffer               pooled;
+    private       int                      partCount;
+    private       int                      partSize;
 
     protected MultiPartOutputStream(Bytes minPartSize, IMultiPartUploadHandler uploadHandler) {
+        this(minPartSize, uploadHandler, null);
+    }
+
+    /**
+     * @param allocator pool of part buffers, a new array is allocated for each part if null
+     */
+    protected MultiPartOutputStream(Bytes minPartSize, IMultiPartUploadHandler uploadHandler,
+                                    IBufferAllocator allocator) {
+        this(minPartSize, minPartSize, uploadHandler, allocator);
+    }
+
+    /**
+     * @param maxPartSize the part size grows from minPartSize up to this value as parts are uploaded, equal values mean
+     *                    a fixed part size
+     * @param allocator   pool of part buffers, a new array is allocated for each part if null
+     */
+    protected MultiPartOutputStream(Bytes minPartSize, Bytes maxPartSize, IMultiPartUploadHandler uploadHandler,
+                                    IBufferAllocator allocator) {
         this.uploadHandler = uploadHandler;
-        this.buffer        = new RedirectableOutputStream(minPartSize);
         this.minPartSize   = minPartSize;
+        this.partSizes     = new AdaptivePartSize(minPartSize, maxPartSize);
+        this.allocator     = allocator;
+        this.partSize      = partSizes.size(1);
+        this.buffer        = newBuffer();
     }
 
     /**
      * Buffering provided byte until {@link MultiPartOutputStream#size()} is less than
-     * {@link MultiPartOutputStream#minPartSize()} or {@link MultiPartOutputStream#close()} is called.
+     * {@link MultiPartOutputStream#partSize()} or {@link MultiPartOutputStream#close()} is called.
      *
      * @param data the {@code byte}.
      */
@@ -51,7 +88,7 @@ public class MultiPartOutputStream extends OutputStream {
 
     /**
      * Append data to buffer until {@link MultiPartOutputStream#size()} is less than
-     * {@link MultiPartOutputStream#minPartSize()} or {@link MultiPartOutputStream#close()} is called.
+     * {@link MultiPartOutputStream#partSize()} or {@link MultiPartOutputStream#close()} is called.
      *
      * @param data the data.
      */
@@ -62,7 +99,13 @@ public class MultiPartOutputStream extends OutputStream {
 
     /**
      * Buffering provided data until {@link MultiPartOutputStream#size()} is less than
-     * {@link MultiPartOutputStream#minPartSize()} or {@link MultiPartOutputStream#close()} is called.
+     * {@link MultiPartOutputStream#partSize()} or {@link MultiPartOutputStream#close()} is called. The data is split
+     * at exact part boundaries: the buffer is topped up to a whole part and flushed, then every whole part left in the
+     * array is uploaded directly from it without copying, and the tail is buffered. The array is read by the upload
+     * handler, possibly by several threads at once, but it's never retained after this method returns, so the caller
+     * may reuse it right away and must not modify it concurrently with this call. For the same reason, the method
+     * waits for the parts uploaded from the array even if parts are uploaded in the background, see
+     * {@link IMultiPartOutputStreamBuilder#maxInFlightParts(int)}.
      *
      * @param data   the data.
      * @param offset the start offset in the data.
@@ -70,22 +113,64 @@ public class MultiPartOutputStream extends OutputStream {
      */
     @Override
     public void write(byte[] data, int offset, int length) {
-        tryFlush(stream -> stream.write(data, offset, length));
+        Preconditions.checkPositionIndexes(offset, offset + length, data.length);
+
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+
+        try {
+            while (length > 0) {
+                int count;
+
+                if (isEmpty() && length >= partSize) {
+                    count = partSize;
+                    parts.add(uploadDirectly(data, offset, count));
+
+                    if (countPart()) {
+                        resetBuffer();
+                    }
+                } else {
+                    count = Math.min(length, partSize - size());
+                    buffer.write(data, offset, count);
+
+                    if (isNeedToFlush()) {
+                        flush();
+                    }
+                }
+
+                offset += count;
+                length -= count;
+            }
+        } finally {
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).join();
+        }
     }
 
     /**
-     * Flushes the stored data and sends multipart upload complete or abort request depends on whether data was
-     * provided
+     * Flushes the stored data and sends multipart upload complete request. If no part has been uploaded yet, the stored
+     * data is uploaded with a single request and no multipart upload is created. Nothing is uploaded if no data was
+     * provided. If the last upload fails, the multipart upload is aborted, so no uploaded part is left behind
      */
     @Override
     public void close() {
-        upload();
+        try {
+            if (partCount == 0) {
+                putObject();
+            } else {
+                upload();
+            }
+        } catch (RuntimeException e) {
+            abort(e);
+            throw e;
+        } finally {
+            releaseBuffer();
+        }
+
         uploadHandler.close();
     }
 
     /**
      * Upload the stored data as a new part within multipart upload request. Allocates a new buffer with
-     * {@link MultiPartOutputStream#minPartSize()} size
+     * {@link MultiPartOutputStream#partSize()} size
      */
     @Override
     public void flush() {
@@ -102,6 +187,16 @@ public class MultiPartOutputStream extends OutputStream {
         return minPartSize;
     }
 
+    /**
+     * Get a size of the next part to be uploaded, it's equal to {@link MultiPartOutputStream#minPartSize()} unless the
+     * part size is adaptive
+     *
+     * @return current part size
+     */
+    public Bytes partSize() {
+        return Bytes.fromBytes(partSize);
+    }
+
     /**
      * Get a file descriptor on which stream based
      *
@@ -155,18 +250,75 @@ public class MultiPartOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Uploads a whole part from the caller's array, the returned future is completed once the array isn't read anymore
+     */
+    private CompletableFuture<Void> uploadDirectly(byte[] data, int offset, int length) {
+        CompletableFuture<Void> uploaded = new CompletableFuture<>();
+
+        LOG.info("Uploading data directly, size: {}", length);
+
+        uploadHandler.upload(RequestBody.fromInputStream(new ByteArrayInputStream(data, offset, length), length),
+                             () -> uploaded.complete(null));
+
+        return uploaded;
+    }
+
     private boolean isNeedToFlush() {
         return isBufferExceedsMinPartSize();
     }
 
     private boolean isBufferExceedsMinPartSize() {
-        return buffer.size() >= minPartSize.toBytes();
+        return buffer.size() >= partSize;
+    }
+
+    /**
+     * Counts an uploaded part and decides the size of the next one
+     *
+     * @return true if the part size has changed
+     */
+    private boolean countPart() {
+        int previous = partSize;
+
+        partSize = partSizes.size(++partCount + 1);
+
+        if (partSize != previous) {
+            LOG.info("Part size changed after {} parts: {}", partCount, partSize);
+        }
+
+        return partSize != previous;
     }
 
     private void upload() {
         if (isNotEmpty()) {
             LOG.info("Uploading data, size: {}", size());
-            uploadHandler.upload(getRequestBody());
+
+            ByteBuffer  part = pooled;
+            RequestBody body = detachBuffer();
+
+            if (part == null) {
+                uploadHandler.upload(body);
+            } else {
+                uploadHandler.upload(body, () -> allocator.release(part));
+            }
+
+            countPart();
+        }
+    }
+
+    private void abort(RuntimeException cause) {
+        try {
+            uploadHandler.abort();
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void putObject() {
+        if (isNotEmpty()) {
+            LOG.info("Uploading data with a single request, size: {}", size());
+
+            uploadHandler.put(getRequestBody());
         }
     }
 
@@ -174,8 +326,56 @@ public class MultiPartOutputStream extends OutputStream {
         return RequestBody.fromInputStream(buffer.redirect(), buffer.size());
     }
 
+    /**
+     * Hands the stored data over as a request body and leaves the stream with an empty buffer, so a failed upload can't
+     * make the stream upload or release the same array again
+     */
+    private RequestBody detachBuffer() {
+        RequestBody body = getRequestBody();
+
+        pooled = null;
+        buffer = new RedirectableOutputStream(Bytes.fromBytes(0));
+
+        return body;
+    }
+
     private void resetBuffer() {
-        buffer = new RedirectableOutputStream(minPartSize);
+        releaseBuffer();
+        buffer = newBuffer();
+    }
+
+    /**
+     * Takes a buffer from the allocator if specified. Only a heap buffer can back the stream, a direct one is returned
+     * and a new array is allocated instead
+     */
+    private RedirectableOutputStream newBuffer() {
+        if (allocator == null) {
+            return new RedirectableOutputStream(partSize());
+        }
+
+        ByteBuffer part = allocator.allocate(partSize);
+
+        if (!part.hasArray() || part.arrayOffset() != 0) {
+            LOG.debug("Allocator returned a buffer without an accessible array, allocating on heap");
+
+            allocator.release(part);
+
+            return new RedirectableOutputStream(partSize());
+        }
+
+        pooled = part;
+
+        return new RedirectableOutputStream(part);
+    }
+
+    /**
+     * Returns the current buffer to the allocator unless it has been handed over to the upload handler
+     */
+    private void releaseBuffer() {
+        if (pooled != null) {
+            allocator.release(pooled);
+            pooled = null;
+        }
     }
 
     @Override
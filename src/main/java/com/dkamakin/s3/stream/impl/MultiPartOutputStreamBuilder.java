@@ -1,22 +1,32 @@
 package com.dkamakin.s3.stream.impl;
 
+import static com.dkamakin.s3.stream.impl.MultiPartOutputStreamBuilder.Constant.MAX_BUFFERED_PART_SIZE;
 import static com.dkamakin.s3.stream.impl.MultiPartOutputStreamBuilder.Constant.S3_MIN_PART_SIZE;
 
 import com.dkamakin.s3.stream.IMultiPartOutputStreamBuilder;
 import com.dkamakin.s3.stream.handler.impl.MultiPartUploadHandler;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
 import com.dkamakin.s3.stream.util.impl.Bytes;
 import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MultiPartOutputStreamBuilder extends FileDescriptorBuilder<IMultiPartOutputStreamBuilder>
     implements IMultiPartOutputStreamBuilder {
 
     public static class Constant {
 
-        public static final Bytes S3_MIN_PART_SIZE = Bytes.fromMb(5);
+        public static final Bytes S3_MIN_PART_SIZE       = Bytes.fromMb(5);
+        public static final Bytes MAX_BUFFERED_PART_SIZE = Bytes.fromMb(2047);
     }
 
-    private Bytes minPartSize;
+    private Bytes            minPartSize;
+    private Bytes            maxPartSize;
+    private Integer          maxInFlightParts;
+    private ExecutorService  executor;
+    private IBufferAllocator allocator;
 
     @Override
     protected IMultiPartOutputStreamBuilder getThis() {
@@ -29,18 +39,80 @@ public class MultiPartOutputStreamBuilder extends FileDescriptorBuilder<IMultiPa
         return this;
     }
 
+    @Override
+    public IMultiPartOutputStreamBuilder maxPartSize(Bytes maxPartSize) {
+        this.maxPartSize = maxPartSize;
+        return this;
+    }
+
+    @Override
+    public IMultiPartOutputStreamBuilder maxInFlightParts(int maxInFlightParts) {
+        this.maxInFlightParts = maxInFlightParts;
+        return this;
+    }
+
+    @Override
+    public IMultiPartOutputStreamBuilder executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @Override
+    public IMultiPartOutputStreamBuilder allocator(IBufferAllocator allocator) {
+        this.allocator = allocator;
+        return this;
+    }
+
     @Override
     public MultiPartOutputStream build() {
         minPartSize = Optional.ofNullable(minPartSize).map(this::validate).orElse(S3_MIN_PART_SIZE);
+        maxPartSize = Optional.ofNullable(maxPartSize).map(this::validateMax).orElse(minPartSize);
+
+        return new MultiPartOutputStream(minPartSize, maxPartSize, buildUploadHandler(), allocator);
+    }
+
+    private MultiPartUploadHandler buildUploadHandler() {
+        if (maxInFlightParts == null) {
+            Validator.check(executor, value -> value == null,
+                            () -> new IllegalArgumentException("Executor requires max in-flight parts"));
+
+            return new MultiPartUploadHandler(buildDescriptor());
+        }
+
+        Validator.check(maxInFlightParts, value -> value > 0,
+                        () -> new IllegalArgumentException("Max in-flight parts must be positive"));
 
-        return new MultiPartOutputStream(minPartSize, new MultiPartUploadHandler(buildDescriptor()));
+        if (executor == null) {
+            return new MultiPartUploadHandler(buildDescriptor(), createExecutor(), true, maxInFlightParts);
+        }
+
+        return new MultiPartUploadHandler(buildDescriptor(), executor, false, maxInFlightParts);
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(maxInFlightParts, new ThreadFactoryBuilder().setNameFormat("s3-upload-%d")
+                                                                                       .setDaemon(true)
+                                                                                       .build());
     }
 
     private Bytes validate(Bytes minPartSize) {
         Validator.ifValue(minPartSize).lessThan(S3_MIN_PART_SIZE).thenThrow(this::illegalPartSize);
+        Validator.ifValue(MAX_BUFFERED_PART_SIZE).lessThan(minPartSize).thenThrow(this::tooLargePartSize);
         return minPartSize;
     }
 
+    private Bytes validateMax(Bytes maxPartSize) {
+        Validator.ifValue(maxPartSize).lessThan(minPartSize).thenThrow(
+            () -> new IllegalArgumentException("Max part size must not be less than min part size"));
+        Validator.ifValue(MAX_BUFFERED_PART_SIZE).lessThan(maxPartSize).thenThrow(this::tooLargePartSize);
+        return maxPartSize;
+    }
+
+    private IllegalArgumentException tooLargePartSize() {
+        return new IllegalArgumentException(String.format("Part size must be at most %s mb",
+                                                          MAX_BUFFERED_PART_SIZE.toMb()));
+    }
+
     private IllegalArgumentException illegalPartSize() {
         return new IllegalArgumentException(String.format("Part size must be at least %s mb", S3_MIN_PART_SIZE.toMb()));
     }
@@ -0,0 +1,210 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.util.ICloseable;
+import com.dkamakin.s3.stream.util.impl.ByteSearch;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import com.dkamakin.s3.stream.util.impl.Validator;
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Splits a stream into records separated by a delimiter byte without decoding them. The stream is copied into a single
+ * buffer owned by the reader, which is scanned by {@link ByteSearch}, a record is handed out as a view of this buffer,
+ * so neither a {@code String} nor a separate copy is allocated per record. A record which spans the end of the buffer
+ * is moved to the beginning of the buffer before the next read, the buffer is doubled up to {@code maxRecordSize} only
+ * if a single record doesn't fit in it. The last record doesn't need to end with the delimiter
+ */
+@NotThreadSafe
+public class RecordReader implements ICloseable {
+
+    public static class Defaults {
+
+        public static final byte  DELIMITER       = '\n';
+        public static final Bytes BUFFER_SIZE     = Bytes.fromMb(1);
+        public static final Bytes MAX_RECORD_SIZE = Bytes.fromMb(64);
+    }
+
+    static class Threshold {
+
+        static final int MAX_EMPTY_READS = 100;
+    }
+
+    private final InputStream stream;
+    private final byte        delimiter;
+    private final int         maxRecordSize;
+    private       byte[]      data;
+    private       ByteBuffer  buffer;
+    private       ByteBuffer  record;
+    private       long        base;
+    private       long        recordOffset;
+    private       int         start;
+    private       int         scan;
+    private       int         limit;
+    private       boolean     isEOS;
+
+    /**
+     * Splits the stream into lines
+     */
+    public RecordReader(InputStream stream) {
+        this(stream, Defaults.DELIMITER, Defaults.BUFFER_SIZE, Defaults.MAX_RECORD_SIZE);
+    }
+
+    /**
+     * @param bufferSize    initial size of the buffer, e.g. the chunk size of the stream
+     * @param maxRecordSize maximum size of a single record including the delimiter
+     */
+    public RecordReader(InputStream stream, byte delimiter, Bytes bufferSize, Bytes maxRecordSize) {
+        Validator.nonNull(stream, "stream");
+        Validator.nonNull(bufferSize, "bufferSize");
+        Validator.nonNull(maxRecordSize, "maxRecordSize");
+        Validator.ifValue(bufferSize).lessThan(Bytes.fromBytes(1)).thenThrow(
+            () -> new IllegalArgumentException("Buffer size must be positive"));
+        Validator.ifValue(maxRecordSize).lessThan(bufferSize).thenThrow(
+            () -> new IllegalArgumentException("Max record size must not be less than the buffer size"));
+
+        this.stream        = stream;
+        this.delimiter     = delimiter;
+        this.maxRecordSize = maxRecordSize.toBytes();
+
+        allocate(bufferSize.toBytes());
+    }
+
+    /**
+     * Get the next record. The returned buffer is reused: it's a view of the internal buffer, its remaining bytes are
+     * the record without the delimiter and they are valid only until the next call. The backing array is accessible,
+     * so a parser can consume the record in place
+     *
+     * @return record or null if the end of the stream is reached
+     * @throws ReadException a record exceeds the max record size, the stream failed or kept returning no data
+     */
+    public ByteBuffer next() {
+        while (true) {
+            int index = ByteSearch.indexOf(buffer, scan, limit, delimiter);
+
+            if (index >= 0) {
+                return emit(index, index + 1);
+            }
+
+            scan = limit;
+
+            if (isEOS) {
+                return start < limit ? emit(limit, limit) : null;
+            }
+
+            fill();
+        }
+    }
+
+    /**
+     * Get the offset of the last record returned by {@link RecordReader#next()} within the stream
+     *
+     * @return offset of the first byte of the record
+     */
+    public long recordOffset() {
+        return recordOffset;
+    }
+
+    @Override
+    public void close() {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            throw new ReadException(e);
+        }
+    }
+
+    private ByteBuffer emit(int end, int next) {
+        recordOffset = base + start;
+
+        ((Buffer) record).limit(end);
+        ((Buffer) record).position(start);
+
+        start = next;
+        scan  = next;
+
+        return record;
+    }
+
+    /**
+     * Moves the unfinished record to the beginning of the buffer, grows the buffer if the record occupies the whole of
+     * it and reads the next portion of the stream
+     */
+    private void fill() {
+        if (start > 0) {
+            System.arraycopy(data, start, data, 0, limit - start);
+
+            base  += start;
+            scan  -= start;
+            limit -= start;
+            start  = 0;
+        }
+
+        if (limit == data.length) {
+            grow();
+        }
+
+        int read = read();
+
+        if (read == Constant.EOS) {
+            isEOS = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * A stream may return no data without reaching the end, the read is repeated a limited number of times, so a broken
+     * stream can't hang the reader
+     */
+    private int read() {
+        try {
+            for (int attempt = 0; attempt < Threshold.MAX_EMPTY_READS; attempt++) {
+                int read = stream.read(data, limit, data.length - limit);
+
+                if (read != 0) {
+                    return read;
+                }
+            }
+        } catch (IOException e) {
+            throw new ReadException(e);
+        }
+
+        throw new ReadException(new IOException(String.format("Stream returned no data %s times in a row at %s",
+                                                              Threshold.MAX_EMPTY_READS, base + limit)));
+    }
+
+    private void grow() {
+        if (data.length >= maxRecordSize) {
+            throw new ReadException(new IOException(String.format("Record at %s exceeds %s bytes", base,
+                                                                  maxRecordSize)));
+        }
+
+        byte[] previous = data;
+
+        allocate((int) Math.min(maxRecordSize, 2L * data.length));
+
+        System.arraycopy(previous, 0, data, 0, limit);
+    }
+
+    private void allocate(int size) {
+        data   = new byte[size];
+        buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        record = ByteBuffer.wrap(data);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("delimiter", delimiter)
+                          .add("bufferSize", data.length)
+                          .add("recordOffset", recordOffset)
+                          .toString();
+    }
+}
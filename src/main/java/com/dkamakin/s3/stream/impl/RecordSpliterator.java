@@ -0,0 +1,178 @@
+package com.dkamakin.s3.stream.impl;
+
+import com.dkamakin.s3.stream.IMultiPartInputStreamBuilder;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.google.common.base.MoreObjects;
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the records of a single object by byte ranges, so a parallel stream can parse one large object on every core.
+ * A split owns the records which first byte lies within its range: it starts reading one byte before its range and
+ * skips everything up to the first delimiter, then reads past the end of its range to finish its last record. Every
+ * split reads through its own {@link MultiPartInputStream} with independent ranged GET requests, the download handler
+ * is shared, so all of them are pinned to the same ETag. A new instance can be created using
+ * {@link IMultiPartInputStreamBuilder#records(byte, Bytes)}
+ */
+@NotThreadSafe
+public class RecordSpliterator implements Spliterator<ByteBuffer> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecordSpliterator.class);
+
+    private final IMultiPartDownloadHandler downloadHandler;
+    private final byte                      delimiter;
+    private final Bytes                     bufferSize;
+    private final Bytes                     maxRecordSize;
+    private final long                      splitSize;
+    private       long                      from;
+    private       long                      to;
+    private       long                      origin;
+    private       RecordReader              reader;
+    private       boolean                   isFinished;
+
+    /**
+     * @param from first offset of the range, inclusive
+     * @param to   last offset of the range, exclusive. A negative value stands for the length of the object, which is
+     *             resolved on the first use
+     */
+    protected RecordSpliterator(IMultiPartDownloadHandler downloadHandler,
+                                byte delimiter,
+                                Bytes bufferSize,
+                                Bytes maxRecordSize,
+                                long splitSize,
+                                long from,
+                                long to) {
+        this.downloadHandler = downloadHandler;
+        this.delimiter       = delimiter;
+        this.bufferSize      = bufferSize;
+        this.maxRecordSize   = maxRecordSize;
+        this.splitSize       = splitSize;
+        this.from            = from;
+        this.to              = to;
+    }
+
+    /**
+     * Creates a sequential stream of records, use {@link Stream#parallel()} to process it on the common pool. Records
+     * are views of a reused buffer, as returned by {@link RecordReader#next()}, so each of them has to be mapped to a
+     * value before a stateful operation, e.g. sorting or collecting. Closing the stream releases the download handler
+     *
+     * @param splitSize minimum size of a byte range processed by a single split
+     */
+    public static Stream<ByteBuffer> stream(IMultiPartDownloadHandler downloadHandler,
+                                            byte delimiter,
+                                            Bytes bufferSize,
+                                            Bytes maxRecordSize,
+                                            Bytes splitSize) {
+        RecordSpliterator spliterator = new RecordSpliterator(downloadHandler, delimiter, bufferSize, maxRecordSize,
+                                                              splitSize.toLongBytes(), 0, -1);
+
+        return StreamSupport.stream(spliterator, false).onClose(downloadHandler::close);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ByteBuffer> action) {
+        if (isFinished) {
+            return false;
+        }
+
+        ByteBuffer record = reader().next();
+
+        if (record == null || origin + reader.recordOffset() >= end()) {
+            LOG.debug("Finished reading {}", this);
+
+            isFinished = true;
+            reader     = null;
+
+            return false;
+        }
+
+        action.accept(record);
+
+        return true;
+    }
+
+    /**
+     * Splits off the first half of the range, as required for an ordered spliterator. A split which has already started
+     * reading is never split
+     *
+     * @return split or null if the range is smaller than two split sizes
+     */
+    @Override
+    public Spliterator<ByteBuffer> trySplit() {
+        if (reader != null || isFinished || end() - from < 2 * splitSize) {
+            return null;
+        }
+
+        long middle = from + (to - from) / 2;
+
+        RecordSpliterator split = new RecordSpliterator(downloadHandler, delimiter, bufferSize, maxRecordSize,
+                                                        splitSize, from, middle);
+
+        from = middle;
+
+        LOG.debug("Split {} off {}", split, this);
+
+        return split;
+    }
+
+    /**
+     * The amount of records is not known, the size of the byte range is used as an estimate
+     *
+     * @return amount of bytes in the range
+     */
+    @Override
+    public long estimateSize() {
+        return isFinished ? 0 : end() - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Positions the reader at the first record which starts within the range. The preceding byte is read as well, so a
+     * record which starts exactly at the beginning of the range is not skipped
+     */
+    private RecordReader reader() {
+        if (reader == null) {
+            origin = Math.max(0, from - 1);
+
+            MultiPartInputStream stream = new MultiPartInputStream(downloadHandler);
+
+            stream.seek(origin);
+
+            reader = new RecordReader(stream, delimiter, bufferSize, maxRecordSize);
+
+            if (from > 0) {
+                reader.next();
+            }
+        }
+
+        return reader;
+    }
+
+    private long end() {
+        if (to < 0) {
+            to = downloadHandler.length();
+        }
+
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("fileDescriptor", downloadHandler.fileDescriptor())
+                          .add("from", from)
+                          .add("to", to)
+                          .toString();
+    }
+}
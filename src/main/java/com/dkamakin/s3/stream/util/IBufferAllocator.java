@@ -0,0 +1,22 @@
+package com.dkamakin.s3.stream.util;
+
+import java.nio.ByteBuffer;
+
+public interface IBufferAllocator {
+
+    /**
+     * Get a buffer to download a block into
+     *
+     * @param size required capacity
+     * @return buffer with position 0 and limit {@code size}
+     */
+    ByteBuffer allocate(int size);
+
+    /**
+     * Return a buffer which is not used anymore. The buffer must not be accessed after this call
+     *
+     * @param buffer buffer got from {@link IBufferAllocator#allocate(int)}
+     */
+    void release(ByteBuffer buffer);
+
+}
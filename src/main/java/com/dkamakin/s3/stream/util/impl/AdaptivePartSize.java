@@ -0,0 +1,80 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.google.common.base.MoreObjects;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Decides the size of each part of an upload which length is not known in advance. S3 allows at most 10000 parts, so
+ * a fixed part size of 5 MB limits an object to about 50 GB. Here the size starts at {@code initial} and is doubled
+ * every {@code PARTS_PER_STEP} parts up to {@code max}, so a small output uses small buffers, while 10000 parts still
+ * add up to the 5 TB object limit: starting at 5 MB and capped at 1 GB they make about 6.5 TB. Equal values mean a
+ * fixed size
+ */
+@Immutable
+public class AdaptivePartSize {
+
+    public static class Constant {
+
+        public static final int PARTS_PER_STEP = 500;
+        public static final int MAX_PARTS      = 10000;
+    }
+
+    private final Bytes initial;
+    private final Bytes max;
+
+    public AdaptivePartSize(Bytes initial, Bytes max) {
+        Validator.nonNull(initial, "initial");
+        Validator.nonNull(max, "max");
+        Validator.ifValue(max).lessThan(initial).thenThrow(
+            () -> new IllegalArgumentException("Max part size must not be less than the initial one"));
+        Validator.check(max, value -> value.toLongBytes() <= Integer.MAX_VALUE,
+                        () -> new IllegalArgumentException("A part is buffered in memory and can't exceed 2 GB"));
+
+        this.initial = initial;
+        this.max     = max;
+    }
+
+    /**
+     * Get the size of a part
+     *
+     * @param partNumber number of the part starting from 1
+     * @return part size
+     */
+    public int size(int partNumber) {
+        Validator.check(partNumber, value -> value > 0,
+                        () -> new IllegalArgumentException("Part number must be positive: " + partNumber));
+
+        int  steps = (partNumber - 1) / Constant.PARTS_PER_STEP;
+        long size  = initial.toLongBytes();
+
+        for (int i = 0; i < steps && size < max.toLongBytes(); i++) {
+            size *= 2;
+        }
+
+        return (int) Math.min(size, max.toBytes());
+    }
+
+    /**
+     * Get the largest object which can be uploaded within the given amount of parts
+     *
+     * @param parts amount of parts, e.g. {@link Constant#MAX_PARTS}
+     * @return total size of the parts
+     */
+    public long capacity(int parts) {
+        long total = 0;
+
+        for (int partNumber = 1; partNumber <= parts; partNumber++) {
+            total += size(partNumber);
+        }
+
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("initial", initial)
+                          .add("max", max)
+                          .toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Decides the size of the next ranged request similar to the TCP slow start. The first request is small to get the
+ * first byte fast, the size is doubled after every fully consumed request as long as the observed throughput doesn't
+ * drop. The size is halved after an error or a stall, i.e. a request which throughput is less than half of the best
+ * one observed. The throughput is measured by the time spent on the network only, i.e. sending the request and reading
+ * from the response, so a slow consumer of the data isn't taken for a slow network. The size always stays between
+ * {@code initial} and {@code max}, so equal values mean a fixed size
+ */
+@NotThreadSafe
+public class AdaptiveSpan {
+
+    static class Constant {
+
+        static final int    GROWTH_FACTOR = 2;
+        static final double STALL_RATIO   = 0.5;
+    }
+
+    private final Bytes  initial;
+    private final Bytes  max;
+    private final Ticker ticker;
+    private       long   current;
+    private       double bestThroughput;
+
+    public AdaptiveSpan(Bytes initial, Bytes max) {
+        this(initial, max, Ticker.systemTicker());
+    }
+
+    public AdaptiveSpan(Bytes initial, Bytes max, Ticker ticker) {
+        Validator.nonNull(initial, "initial");
+        Validator.nonNull(max, "max");
+        Validator.nonNull(ticker, "ticker");
+        Validator.ifValue(max).lessThan(initial).thenThrow(
+            () -> new IllegalArgumentException("Max span must not be less than the initial one"));
+
+        this.initial = initial;
+        this.max     = max;
+        this.ticker  = ticker;
+        this.current = initial.toLongBytes();
+    }
+
+    /**
+     * Get the size of the next request
+     *
+     * @return amount of bytes to request
+     */
+    public long next() {
+        return current;
+    }
+
+    /**
+     * Get the current time to measure a network call
+     *
+     * @return nanoseconds
+     */
+    public long start() {
+        return ticker.read();
+    }
+
+    /**
+     * Get the time passed since a network call started
+     *
+     * @param started time got from {@link AdaptiveSpan#start()} before the call
+     * @return nanoseconds
+     */
+    public long elapsed(long started) {
+        return ticker.read() - started;
+    }
+
+    /**
+     * Reports a request which was consumed up to the end
+     *
+     * @param bytes   amount of consumed bytes
+     * @param elapsed nanoseconds spent on sending the request and on reading from the response, excluding the time
+     *                between reads
+     */
+    public void completed(long bytes, long elapsed) {
+        double throughput = (double) bytes / Math.max(1, elapsed);
+
+        if (throughput < bestThroughput * Constant.STALL_RATIO) {
+            shrink();
+        } else {
+            current = Math.min(max.toLongBytes(), current * Constant.GROWTH_FACTOR);
+        }
+
+        bestThroughput = Math.max(bestThroughput, throughput);
+    }
+
+    /**
+     * Reports a failed request
+     */
+    public void failed() {
+        shrink();
+    }
+
+    private void shrink() {
+        current = Math.max(initial.toLongBytes(), current / Constant.GROWTH_FACTOR);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("initial", initial)
+                          .add("max", max)
+                          .add("current", current)
+                          .add("bestThroughput", TimeUnit.SECONDS.toNanos(1) * bestThroughput)
+                          .toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.google.common.base.MoreObjects;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A piece of an S3 object downloaded into memory. {@code position} is an offset of the first byte within the object.
+ * The data may be backed by a heap array, a direct or a memory-mapped buffer. A block created with a recycler is
+ * reference counted: it's created with a single reference, every holder except the creator calls
+ * {@link Block#retain()} and every holder calls {@link Block#release()} when it's done, the recycler is called once the
+ * last reference is released
+ */
+public class Block {
+
+    private final long          position;
+    private final ByteBuffer    data;
+    private final int           length;
+    private final Runnable      recycler;
+    private final AtomicInteger references;
+
+    public Block(long position, byte[] data, int length) {
+        this(position, ByteBuffer.wrap(data, 0, length));
+    }
+
+    /**
+     * @param data buffer containing bytes of the block between its position and limit
+     */
+    public Block(long position, ByteBuffer data) {
+        this(position, data, null);
+    }
+
+    /**
+     * @param data     buffer containing bytes of the block between its position and limit
+     * @param recycler called when the last reference is released, nullable
+     */
+    public Block(long position, ByteBuffer data, Runnable recycler) {
+        this.position   = position;
+        this.data       = data.slice();
+        this.length     = this.data.remaining();
+        this.recycler   = recycler;
+        this.references = new AtomicInteger(1);
+    }
+
+    /**
+     * Acquires a reference unless the block is already recycled
+     *
+     * @return whether the reference is acquired, the block must not be used otherwise
+     */
+    public boolean retain() {
+        if (recycler == null) {
+            return true;
+        }
+
+        int current;
+
+        do {
+            current = references.get();
+
+            if (current <= 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    /**
+     * Releases a reference, the block must not be used by the caller afterwards
+     */
+    public void release() {
+        if (recycler != null && references.decrementAndGet() == 0) {
+            recycler.run();
+        }
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long end() {
+        return position + length;
+    }
+
+    public boolean contains(long offset) {
+        return offset >= position && offset < end();
+    }
+
+    public int get(long offset) {
+        return data.get(index(offset)) & 0xFF;
+    }
+
+    /**
+     * Copies up to {@code len} bytes starting from {@code offset} within the object
+     *
+     * @return amount of copied bytes
+     */
+    public int copyTo(long offset, byte[] target, int off, int len) {
+        int count = (int) Math.min(len, end() - offset);
+
+        view(offset).get(target, off, count);
+
+        return count;
+    }
+
+    /**
+     * Copies up to {@code target.remaining()} bytes starting from {@code offset} within the object
+     *
+     * @return amount of copied bytes
+     */
+    public int copyTo(long offset, ByteBuffer target) {
+        ByteBuffer view  = view(offset);
+        int        count = Math.min(target.remaining(), view.remaining());
+
+        ((Buffer) view).limit(view.position() + count);
+        target.put(view);
+
+        return count;
+    }
+
+    /**
+     * Get a read-only view of the bytes starting from {@code offset} within the object up to the end of the block. The
+     * view shares the content of the block, nothing is copied
+     */
+    public ByteBuffer view(long offset) {
+        ByteBuffer view = data.asReadOnlyBuffer();
+
+        ((Buffer) view).position(index(offset));
+
+        return view;
+    }
+
+    private int index(long offset) {
+        return (int) (offset - position);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("position", position)
+                          .add("length", length)
+                          .toString();
+    }
+}
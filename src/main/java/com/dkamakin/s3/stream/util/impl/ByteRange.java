@@ -1,8 +1,12 @@
 package com.dkamakin.s3.stream.util.impl;
 
-
 import java.util.Objects;
 
+/**
+ * Inclusive range of bytes for the {@code Range} header. A suffix range addresses the last bytes of an object whose
+ * length may be unknown yet, its positions are negative and relative to the end of the object, e.g. the last 10 bytes
+ * are {@code [-10, -1]} which is sent as {@code bytes=-10}
+ */
 public class ByteRange {
 
     static class Token {
@@ -18,8 +22,33 @@ public class ByteRange {
         this.to   = to;
     }
 
+    /**
+     * Creates a range of the last {@code length} bytes of an object
+     */
+    public static ByteRange suffix(long length) {
+        Validator.check(length, value -> value > 0, () -> new IllegalArgumentException("Suffix must be positive"));
+
+        return new ByteRange(-length, -1);
+    }
+
+    public boolean isSuffix() {
+        return from < 0;
+    }
+
+    public long from() {
+        return from;
+    }
+
+    public long to() {
+        return to;
+    }
+
     @Override
     public String toString() {
+        if (isSuffix()) {
+            return Token.HTTP_GET_RANGE_HEADER + from;
+        }
+
         return Token.HTTP_GET_RANGE_HEADER + from + "-" + to;
     }
 
@@ -0,0 +1,53 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds a byte eight bytes at a time (SWAR, SIMD within a register). A word is XOR-ed with the value repeated in every
+ * byte, so matching bytes become zero, and the zero bytes are detected with the classic {@code (x - 0x01..) & ~x &
+ * 0x80..} trick. A borrow may mark a byte above a real match, but never below it, so the lowest marked byte is exact.
+ * This keeps the search branch-free and lets the JIT use wide loads, unlike a byte-by-byte loop
+ */
+public class ByteSearch {
+
+    static class Constant {
+
+        static final long ONES = 0x0101010101010101L;
+        static final long HIGH = 0x8080808080808080L;
+    }
+
+    private ByteSearch() {
+    }
+
+    /**
+     * Finds the first occurrence of the value between {@code from} (inclusive) and {@code to} (exclusive) absolute
+     * indexes of the buffer. The buffer must be in the little-endian order
+     *
+     * @return absolute index or -1 if not found
+     */
+    public static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        Validator.check(buffer.order(), order -> order == ByteOrder.LITTLE_ENDIAN,
+                        () -> new IllegalArgumentException("Buffer must be little-endian"));
+
+        long pattern = (value & 0xFFL) * Constant.ONES;
+        int  index   = from;
+
+        for (; index + Long.BYTES <= to; index += Long.BYTES) {
+            long word  = buffer.getLong(index) ^ pattern;
+            long found = (word - Constant.ONES) & ~word & Constant.HIGH;
+
+            if (found != 0) {
+                return index + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+
+        for (; index < to; index++) {
+            if (buffer.get(index) == value) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+}
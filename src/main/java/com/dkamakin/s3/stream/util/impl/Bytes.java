@@ -3,48 +3,73 @@ package com.dkamakin.s3.stream.util.impl;
 import com.google.common.base.MoreObjects;
 import java.util.Objects;
 
+/**
+ * An amount of bytes. The amount is a long, so it can express the size of an object or a cache, while
+ * {@link Bytes#toBytes()} is meant for the size of a single in-memory buffer and fails if the amount doesn't fit in an
+ * int
+ */
 public class Bytes implements Comparable<Bytes> {
 
     static class Constant {
 
-        static final int KB = 1024;
-        static final int MB = 1024 * 1024;
+        static final long KB = 1024;
+        static final long MB = 1024 * KB;
+        static final long GB = 1024 * MB;
     }
 
-    private final int byteCount;
+    private final long byteCount;
 
-    private Bytes(int byteCount) {
+    private Bytes(long byteCount) {
         this.byteCount = byteCount;
     }
 
-    public static Bytes fromMb(int byteCount) {
-        return new Bytes(byteCount * Constant.MB);
+    public static Bytes fromGb(long gbCount) {
+        return new Bytes(Math.multiplyExact(gbCount, Constant.GB));
     }
 
-    public static Bytes fromKb(int kbCount) {
-        return new Bytes(kbCount * Constant.KB);
+    public static Bytes fromMb(long byteCount) {
+        return new Bytes(Math.multiplyExact(byteCount, Constant.MB));
     }
 
-    public static Bytes fromBytes(int bytes) {
+    public static Bytes fromKb(long kbCount) {
+        return new Bytes(Math.multiplyExact(kbCount, Constant.KB));
+    }
+
+    public static Bytes fromBytes(long bytes) {
         return new Bytes(bytes);
     }
 
+    /**
+     * Get the amount of bytes as an int, e.g. to allocate a buffer
+     *
+     * @return amount of bytes
+     * @throws ArithmeticException the amount exceeds {@link Integer#MAX_VALUE}
+     */
     public int toBytes() {
+        return Math.toIntExact(byteCount);
+    }
+
+    /**
+     * Get the amount of bytes
+     *
+     * @return amount of bytes
+     */
+    public long toLongBytes() {
         return byteCount;
     }
 
     public int toMb() {
-        return byteCount / Constant.MB;
+        return Math.toIntExact(byteCount / Constant.MB);
     }
 
     public int toKb() {
-        return byteCount / Constant.KB;
+        return Math.toIntExact(byteCount / Constant.KB);
     }
 
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
-                          .add("bytes", toBytes())
+                          .add("bytes", byteCount)
                           .toString();
     }
 
@@ -69,6 +94,6 @@ public class Bytes implements Comparable<Bytes> {
 
     @Override
     public int compareTo(Bytes other) {
-        return Integer.compare(toBytes(), other.toBytes());
+        return Long.compare(byteCount, other.byteCount);
     }
 }
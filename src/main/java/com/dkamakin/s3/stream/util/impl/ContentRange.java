@@ -0,0 +1,38 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import java.util.OptionalLong;
+
+/**
+ * Parses the {@code Content-Range} header of a ranged response, e.g. {@code bytes 0-9/100} or {@code bytes *}{@code
+ * /100}
+ */
+public class ContentRange {
+
+    static class Token {
+
+        static final char   LENGTH_SEPARATOR = '/';
+        static final String UNKNOWN_LENGTH   = "*";
+    }
+
+    private ContentRange() {
+    }
+
+    public static OptionalLong totalLength(String header) {
+        if (!StringUtils.isNotEmpty(header)) {
+            return OptionalLong.empty();
+        }
+
+        int    separator = header.lastIndexOf(Token.LENGTH_SEPARATOR);
+        String length    = header.substring(separator + 1).trim();
+
+        if (separator < 0 || length.isEmpty() || length.equals(Token.UNKNOWN_LENGTH)) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            return OptionalLong.of(Long.parseLong(length));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.google.common.base.MoreObjects;
+import java.util.Objects;
+
+/**
+ * A range of a file requested by a vectored read: {@code length} bytes starting from {@code offset}
+ */
+public class FileRange {
+
+    private final long offset;
+    private final int  length;
+
+    public FileRange(long offset, int length) {
+        Validator.check(offset, value -> value >= 0,
+                        () -> new IllegalArgumentException("Offset must be non-negative: " + offset));
+        Validator.check(length, value -> value >= 0,
+                        () -> new IllegalArgumentException("Length must be non-negative: " + length));
+
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long end() {
+        return offset + length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        FileRange that = (FileRange) o;
+        return offset == that.offset && length == that.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, length);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("offset", offset)
+                          .add("length", length)
+                          .toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.google.common.base.MoreObjects;
+import java.nio.ByteBuffer;
+
+/**
+ * Allocates a new heap buffer each time, released buffers are left to the garbage collector
+ */
+public class HeapBufferAllocator implements IBufferAllocator {
+
+    @Override
+    public ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size);
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        // --Nothing to do, the buffer is collected as soon as it's unreachable
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).toString();
+    }
+}
@@ -0,0 +1,189 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.dkamakin.s3.stream.IMultiPartInputStreamBuilder;
+import com.dkamakin.s3.stream.IMultiPartOutputStreamBuilder;
+import com.dkamakin.s3.stream.exception.BufferPoolExhaustedException;
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.google.common.base.MoreObjects;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps released heap buffers and hands them out again, so blocks of input streams and parts of output streams don't
+ * allocate a new multi-megabyte array each time. The total size of the buffers created by the pool, whether in use or
+ * free, never exceeds maxMemory: when the limit is reached, free buffers of other sizes are dropped, and if every
+ * buffer is in use, the caller waits up to maxWait for one to be released and then fails. A single instance is meant
+ * to be shared by every stream of an application, see {@link IMultiPartInputStreamBuilder#allocator(IBufferAllocator)}
+ * and {@link IMultiPartOutputStreamBuilder#allocator(IBufferAllocator)}
+ */
+@ThreadSafe
+public class PooledBufferAllocator implements IBufferAllocator {
+
+    static class Constant {
+
+        static final int MAX_WASTE_FACTOR = 2;
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledBufferAllocator.class);
+
+    private final long                                maxMemory;
+    private final Duration                            maxWait;
+    private final TreeMap<Integer, Deque<ByteBuffer>> free;
+    private final Set<ByteBuffer>                     inUse;
+    private       long                                allocated;
+
+    /**
+     * @param maxMemory total size of the buffers created by the pool
+     * @param maxWait   how long to wait for a buffer when the pool is exhausted, {@link Duration#ZERO} to fail at once
+     */
+    public PooledBufferAllocator(Bytes maxMemory, Duration maxWait) {
+        Validator.nonNull(maxMemory, "maxMemory");
+        Validator.nonNull(maxWait, "maxWait");
+        Validator.ifValue(maxMemory).lessThan(Bytes.fromBytes(1)).thenThrow(
+            () -> new IllegalArgumentException("Max memory must be positive"));
+        Validator.check(maxWait, value -> !value.isNegative(),
+                        () -> new IllegalArgumentException("Max wait must not be negative"));
+
+        this.maxMemory = maxMemory.toLongBytes();
+        this.maxWait   = maxWait;
+        this.free      = new TreeMap<>();
+        this.inUse     = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Reuses a free buffer of at least the given size, but not more than twice as large, or creates a new one if the
+     * memory limit allows
+     *
+     * @throws BufferPoolExhaustedException every buffer is in use and none was released within maxWait
+     */
+    @Override
+    public synchronized ByteBuffer allocate(int size) {
+        if (size > maxMemory) {
+            throw new BufferPoolExhaustedException(String.format("Buffer of %s bytes exceeds the pool limit of %s",
+                                                                 size, maxMemory));
+        }
+
+        long deadline = System.nanoTime() + maxWait.toNanos();
+
+        while (true) {
+            ByteBuffer buffer = reuse(size);
+
+            if (buffer == null && fits(size)) {
+                allocated += size;
+                buffer = ByteBuffer.allocate(size);
+            }
+
+            if (buffer != null) {
+                inUse.add(buffer);
+                ((Buffer) buffer).clear().limit(size);
+
+                return buffer;
+            }
+
+            await(size, deadline - System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns the buffer to the pool and wakes up a waiting caller. Buffers which weren't created by the pool are
+     * ignored
+     */
+    @Override
+    public synchronized void release(ByteBuffer buffer) {
+        if (inUse.remove(buffer)) {
+            free.computeIfAbsent(buffer.capacity(), capacity -> new ArrayDeque<>()).push(buffer);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Get the total size of the buffers created by the pool, including the free ones
+     *
+     * @return amount of bytes
+     */
+    public synchronized long allocated() {
+        return allocated;
+    }
+
+    /**
+     * Get the amount of buffers which are handed out and not released yet
+     *
+     * @return buffer count
+     */
+    public synchronized int inUse() {
+        return inUse.size();
+    }
+
+    private ByteBuffer reuse(int size) {
+        Map.Entry<Integer, Deque<ByteBuffer>> entry = free.ceilingEntry(size);
+
+        if (entry == null || entry.getKey() > (long) size * Constant.MAX_WASTE_FACTOR) {
+            return null;
+        }
+
+        ByteBuffer buffer = entry.getValue().pop();
+
+        if (entry.getValue().isEmpty()) {
+            free.remove(entry.getKey());
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Drops free buffers which can't be reused for this size until the new buffer fits in the limit
+     */
+    private boolean fits(int size) {
+        while (allocated + size > maxMemory && !free.isEmpty()) {
+            Map.Entry<Integer, Deque<ByteBuffer>> entry = free.firstEntry();
+
+            LOG.debug("Dropping a free buffer of {} bytes to allocate {} bytes", entry.getKey(), size);
+
+            entry.getValue().pop();
+            allocated -= entry.getKey();
+
+            if (entry.getValue().isEmpty()) {
+                free.remove(entry.getKey());
+            }
+        }
+
+        return allocated + size <= maxMemory;
+    }
+
+    private void await(int size, long timeout) {
+        if (timeout <= 0) {
+            throw new BufferPoolExhaustedException(String.format("No buffer of %s bytes is available within %s: %s",
+                                                                 size, maxWait, this));
+        }
+
+        LOG.debug("Waiting for a buffer of {} bytes", size);
+
+        try {
+            TimeUnit.NANOSECONDS.timedWait(this, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BufferPoolExhaustedException("Interrupted while waiting for a buffer of " + size + " bytes");
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxMemory", maxMemory)
+                          .add("allocated", allocated)
+                          .add("inUse", inUse.size())
+                          .toString();
+    }
+}
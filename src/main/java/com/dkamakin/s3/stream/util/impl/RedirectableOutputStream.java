@@ -2,6 +2,7 @@ package com.dkamakin.s3.stream.util.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import javax.annotation.concurrent.NotThreadSafe;
 
 @NotThreadSafe
@@ -11,6 +12,17 @@ public class RedirectableOutputStream extends ByteArrayOutputStream {
         super(bytes.toBytes());
     }
 
+    /**
+     * Writes into the backing array of the buffer until it's full, then into a new larger array as usual
+     *
+     * @param buffer heap buffer with zero array offset
+     */
+    public RedirectableOutputStream(ByteBuffer buffer) {
+        super(0);
+
+        this.buf = buffer.array();
+    }
+
     @Override
     public synchronized byte[] toByteArray() {
         return buf;
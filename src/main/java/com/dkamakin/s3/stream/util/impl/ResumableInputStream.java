@@ -0,0 +1,159 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.function.LongFunction;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.Abortable;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Hides interrupted responses from the reader. When reading fails, the broken response is aborted and a new one is
+ * opened by the resumer starting from the first byte that hasn't been delivered yet, so the reader never sees the same
+ * byte twice. The resumer is expected to pin the request to the ETag of the original response. Consecutive failures
+ * are limited by the {@link RetryPolicy}, the counter is reset once a read succeeds, so a long download survives any
+ * number of sporadic failures
+ */
+@NotThreadSafe
+public class ResumableInputStream extends InputStream implements Abortable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResumableInputStream.class);
+
+    private final LongFunction<InputStream> resumer;
+    private final RetryPolicy               retryPolicy;
+    private       InputStream               stream;
+    private       long                      delivered;
+    private       int                       failures;
+
+    /**
+     * @param stream      initial response
+     * @param resumer     opens a new response skipping the given amount of bytes of the initial one
+     * @param retryPolicy limits consecutive failures
+     */
+    public ResumableInputStream(InputStream stream, LongFunction<InputStream> resumer, RetryPolicy retryPolicy) {
+        Validator.nonNull(stream, "stream");
+        Validator.nonNull(resumer, "resumer");
+        Validator.nonNull(retryPolicy, "retryPolicy");
+
+        this.stream      = stream;
+        this.resumer     = resumer;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (true) {
+            try {
+                int value = stream.read();
+
+                if (value != Constant.EOS) {
+                    delivered++;
+                }
+
+                failures = 0;
+
+                return value;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public int read(byte[] data, int offset, int length) throws IOException {
+        while (true) {
+            try {
+                int read = stream.read(data, offset, length);
+
+                if (read > 0) {
+                    delivered += read;
+                }
+
+                failures = 0;
+
+                return read;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    public long delivered() {
+        return delivered;
+    }
+
+    @Override
+    public void abort() {
+        abort(stream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    private void resume(IOException cause) throws IOException {
+        abort(stream);
+
+        while (true) {
+            failures++;
+
+            if (!retryPolicy.canRetry(failures)) {
+                throw cause;
+            }
+
+            LOG.warn("Reading failed after {} bytes, attempt {} of {} to resume {}", delivered, failures + 1,
+                     retryPolicy.maxAttempts(), this, cause);
+
+            sleep();
+
+            try {
+                stream = resumer.apply(delivered);
+                return;
+            } catch (SdkClientException e) {
+                cause.addSuppressed(e);
+            } catch (S3Exception e) {
+                if (e.statusCode() < S3HttpCodes.INTERNAL_SERVER_ERROR.code()) {
+                    throw e;
+                }
+
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    private void sleep() throws InterruptedIOException {
+        try {
+            Thread.sleep(retryPolicy.backoff(failures).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to resume");
+        }
+    }
+
+    private void abort(InputStream current) {
+        if (current instanceof Abortable) {
+            ((Abortable) current).abort();
+        }
+
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close an aborted response", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("delivered", delivered)
+                          .add("failures", failures)
+                          .add("retryPolicy", retryPolicy)
+                          .toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.google.common.base.MoreObjects;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Decides how many times a failed read is retried and how long to wait before every attempt. The backoff is doubled
+ * after every consecutive failure starting from {@code initialBackoff} and never exceeds {@code maxBackoff}
+ */
+public class RetryPolicy {
+
+    static class Constant {
+
+        static final int      BACKOFF_FACTOR          = 2;
+        static final int      DEFAULT_MAX_ATTEMPTS    = 3;
+        static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+        static final Duration DEFAULT_MAX_BACKOFF     = Duration.ofSeconds(5);
+    }
+
+    private final int      maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        Validator.check(maxAttempts, value -> value > 0,
+                        () -> new IllegalArgumentException("Max attempts must be positive"));
+        Validator.nonNull(initialBackoff, "initialBackoff");
+        Validator.nonNull(maxBackoff, "maxBackoff");
+        Validator.check(initialBackoff, value -> !value.isNegative(),
+                        () -> new IllegalArgumentException("Backoff must not be negative"));
+        Validator.ifValue(maxBackoff).lessThan(initialBackoff).thenThrow(
+            () -> new IllegalArgumentException("Max backoff must not be less than the initial one"));
+
+        this.maxAttempts    = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff     = maxBackoff;
+    }
+
+    /**
+     * A policy with a single attempt, i.e. every failure is final
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * A policy with 3 attempts and a backoff from 100 ms up to 5 s
+     */
+    public static RetryPolicy standard() {
+        return new RetryPolicy(Constant.DEFAULT_MAX_ATTEMPTS, Constant.DEFAULT_INITIAL_BACKOFF,
+                               Constant.DEFAULT_MAX_BACKOFF);
+    }
+
+    public boolean isEnabled() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * @param failures amount of consecutive failures so far
+     * @return whether one more attempt is allowed
+     */
+    public boolean canRetry(int failures) {
+        return failures < maxAttempts;
+    }
+
+    /**
+     * @param failures amount of consecutive failures so far, at least one
+     * @return time to wait before the next attempt
+     */
+    public Duration backoff(int failures) {
+        Duration backoff = initialBackoff;
+
+        for (int i = 1; i < failures && backoff.compareTo(maxBackoff) < 0; i++) {
+            backoff = backoff.multipliedBy(Constant.BACKOFF_FACTOR);
+        }
+
+        return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxAttempts", maxAttempts)
+                          .add("initialBackoff", initialBackoff)
+                          .add("maxBackoff", maxBackoff)
+                          .toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        RetryPolicy that = (RetryPolicy) o;
+        return maxAttempts == that.maxAttempts && initialBackoff.equals(that.initialBackoff) &&
+               maxBackoff.equals(that.maxBackoff);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxAttempts, initialBackoff, maxBackoff);
+    }
+}
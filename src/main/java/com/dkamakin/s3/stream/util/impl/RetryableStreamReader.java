@@ -3,10 +3,25 @@ package com.dkamakin.s3.stream.util.impl;
 import com.google.common.io.ByteStreams;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import javax.annotation.concurrent.NotThreadSafe;
 
+/**
+ * Reads a response into a target until it's filled or the response ends. The handlers pass a
+ * {@link ResumableInputStream} when retries are enabled, so a failed read is resumed under the hood and an exception
+ * means that all attempts are exhausted
+ */
+@NotThreadSafe
 public class RetryableStreamReader {
 
+    static class Constant {
+
+        static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+    }
+
     private final InputStream stream;
+    private       byte[]      transfer;
 
     public RetryableStreamReader(InputStream stream) {
         this.stream = stream;
@@ -15,4 +30,49 @@ public class RetryableStreamReader {
     public int read(byte[] data, int offset, int length) throws IOException {
         return ByteStreams.read(stream, data, offset, length);
     }
+
+    /**
+     * Reads into the backing array of a heap buffer directly, so the bytes are copied once from the response. A direct
+     * buffer is filled through a bounded transfer array, since an input stream can't read into native memory. The array
+     * is allocated once and reused by the following reads
+     */
+    public int read(ByteBuffer target) throws IOException {
+        if (target.hasArray()) {
+            int read = read(target.array(), target.arrayOffset() + target.position(), target.remaining());
+
+            ((Buffer) target).position(target.position() + read);
+
+            return read;
+        }
+
+        byte[] transfer = transfer(target.remaining());
+        int    total    = 0;
+
+        while (target.hasRemaining()) {
+            int requested = Math.min(transfer.length, target.remaining());
+            int read      = read(transfer, 0, requested);
+
+            target.put(transfer, 0, read);
+            total += read;
+
+            if (read < requested) {
+                break;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Grows the transfer array up to the size of the requested read, but not beyond the bound
+     */
+    private byte[] transfer(int requested) {
+        int size = Math.min(requested, Constant.TRANSFER_BUFFER_SIZE);
+
+        if (transfer == null || transfer.length < size) {
+            transfer = new byte[size];
+        }
+
+        return transfer;
+    }
 }
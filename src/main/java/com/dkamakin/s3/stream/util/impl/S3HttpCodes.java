@@ -2,7 +2,8 @@ package com.dkamakin.s3.stream.util.impl;
 
 public enum S3HttpCodes {
 
-    RANGE_NOT_SATISFIABLE(416);
+    RANGE_NOT_SATISFIABLE(416),
+    INTERNAL_SERVER_ERROR(500);
 
     final int code;
 
@@ -0,0 +1,94 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import com.dkamakin.s3.stream.util.IBufferAllocator;
+import com.google.common.base.MoreObjects;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Preallocates a single direct buffer (slab) and hands out its fixed-size slots, so blocks don't occupy the heap and
+ * no native memory is allocated per block. When every slot is in use or a larger buffer is requested, a heap buffer is
+ * allocated instead. A single instance is meant to be shared by every stream of an application, the slab should be
+ * large enough for the blocks of all the streams and block caches using it
+ */
+@ThreadSafe
+public class SlabBufferAllocator implements IBufferAllocator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlabBufferAllocator.class);
+
+    private final Bytes                     slotSize;
+    private final Set<ByteBuffer>           slots;
+    private final BlockingQueue<ByteBuffer> free;
+
+    public SlabBufferAllocator(Bytes slabSize, Bytes slotSize) {
+        Validator.nonNull(slabSize, "slabSize");
+        Validator.nonNull(slotSize, "slotSize");
+        Validator.check(slotSize, size -> size.toBytes() > 0,
+                        () -> new IllegalArgumentException("Slot size must be positive"));
+        Validator.ifValue(slabSize).lessThan(slotSize).thenThrow(
+            () -> new IllegalArgumentException("Slab must fit at least one slot"));
+
+        int        count = slabSize.toBytes() / slotSize.toBytes();
+        ByteBuffer slab  = ByteBuffer.allocateDirect(count * slotSize.toBytes());
+
+        this.slotSize = slotSize;
+        this.slots    = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.free     = new ArrayBlockingQueue<>(count);
+
+        for (int i = 0; i < count; i++) {
+            ((Buffer) slab).limit((i + 1) * slotSize.toBytes()).position(i * slotSize.toBytes());
+
+            ByteBuffer slot = slab.slice();
+
+            slots.add(slot);
+            free.add(slot);
+        }
+    }
+
+    @Override
+    public ByteBuffer allocate(int size) {
+        ByteBuffer slot = size <= slotSize.toBytes() ? free.poll() : null;
+
+        if (slot == null) {
+            LOG.debug("No free slot for {} bytes, allocating on heap", size);
+            return ByteBuffer.allocate(size);
+        }
+
+        ((Buffer) slot).clear().limit(size);
+
+        return slot;
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        if (slots.contains(buffer)) {
+            free.add(buffer);
+        }
+    }
+
+    /**
+     * Get the amount of slots which are not in use
+     *
+     * @return free slot count
+     */
+    public int freeSlots() {
+        return free.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("slotSize", slotSize)
+                          .add("slots", slots.size())
+                          .add("free", free.size())
+                          .toString();
+    }
+}
@@ -0,0 +1,165 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskBlockCacheTest {
+
+    static class Data {
+
+        static final int    BLOCK_SIZE = 10;
+        static final int    CAPACITY   = BLOCK_SIZE * 2;
+        static final String BUCKET     = "bucket";
+        static final String KEY        = "key";
+        static final String E_TAG      = "eTag";
+    }
+
+    @TempDir Path directory;
+
+    IBlockCache target;
+
+    @BeforeEach
+    void setUp() {
+        target = create();
+    }
+
+    IBlockCache create() {
+        return new DiskBlockCache(directory, Bytes.fromBytes(Data.CAPACITY), Bytes.fromBytes(Data.BLOCK_SIZE));
+    }
+
+    BlockKey key(long index) {
+        return new BlockKey(Data.BUCKET, Data.KEY, Data.E_TAG, index);
+    }
+
+    Block block(long index) {
+        byte[] data = new byte[Data.BLOCK_SIZE];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (index + i);
+        }
+
+        return new Block(index * Data.BLOCK_SIZE, data, data.length);
+    }
+
+    byte[] content(Block block) {
+        byte[] result = new byte[block.length()];
+
+        block.copyTo(block.position(), result, 0, result.length);
+
+        return result;
+    }
+
+    long files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void get_BlockPut_ReturnSameContent() {
+        target.put(key(1), block(1));
+
+        Block actual = target.get(key(1));
+
+        assertThat(actual.position()).isEqualTo(Data.BLOCK_SIZE);
+        assertThat(content(actual)).isEqualTo(content(block(1)));
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(1, 0, 0));
+    }
+
+    @Test
+    void get_AnotherETag_Miss() {
+        target.put(key(0), block(0));
+
+        assertThat(target.get(new BlockKey(Data.BUCKET, Data.KEY, "changed", 0))).isNull();
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(0, 1, 0));
+    }
+
+    @Test
+    void get_CacheRecreated_LoadBlocksFromDisk() {
+        target.put(key(0), block(0));
+
+        Block actual = create().get(key(0));
+
+        assertThat(content(actual)).isEqualTo(content(block(0)));
+    }
+
+    @Test
+    void put_CapacityExceeded_DeleteLeastRecentlyUsedBlock() throws IOException {
+        target.put(key(0), block(0));
+        target.put(key(1), block(1));
+        target.get(key(0));
+        target.put(key(2), block(2));
+
+        assertThat(target.get(key(1))).isNull();
+        assertThat(target.get(key(0))).isNotNull();
+        assertThat(target.stats().evictionCount()).isEqualTo(1);
+        assertThat(files()).isEqualTo(2);
+    }
+
+    @Test
+    void put_NullETag_NotCached() throws IOException {
+        BlockKey key = new BlockKey(Data.BUCKET, Data.KEY, null, 0);
+
+        target.put(key, block(0));
+
+        assertThat(target.get(key)).isNull();
+        assertThat(files()).isZero();
+    }
+
+    @Test
+    void get_SeveralHits_MappedOnce() {
+        target.put(key(0), block(0));
+
+        Block first  = target.get(key(0));
+        Block second = target.get(key(0));
+
+        assertThat(first).isSameAs(second);
+        assertThat(content(first)).isEqualTo(content(block(0)));
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(2, 0, 0));
+    }
+
+    @Test
+    void get_FileDeleted_MissAndRemoveEntry() throws IOException {
+        target.put(key(0), block(0));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+
+        assertThat(target.get(key(0))).isNull();
+        assertThat(target.get(key(0))).isNull();
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(0, 2, 0));
+    }
+
+    @Test
+    void create_AnotherBlockSize_SkipBlock() throws IOException {
+        target.put(key(0), block(0));
+
+        IBlockCache another = new DiskBlockCache(directory, Bytes.fromBytes(Data.CAPACITY),
+                                                 Bytes.fromBytes(Data.BLOCK_SIZE / 2));
+
+        assertThat(another.get(key(0))).isNull();
+        assertThat(files()).isEqualTo(1);
+        assertThat(create().get(key(0))).isNotNull();
+    }
+
+    @Test
+    void create_CorruptedBlock_DeleteBlock() throws IOException {
+        Files.write(directory.resolve("corrupted.block"), new byte[]{1, 2, 3});
+
+        create();
+
+        assertThat(files()).isZero();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MemoryBlockCacheTest {
+
+    static class Data {
+
+        static final int    BLOCK_SIZE = 10;
+        static final int    CAPACITY   = BLOCK_SIZE * 2;
+        static final String BUCKET     = "bucket";
+        static final String KEY        = "key";
+        static final String E_TAG      = "eTag";
+    }
+
+    IBlockCache target;
+
+    @BeforeEach
+    void setUp() {
+        target = new MemoryBlockCache(Bytes.fromBytes(Data.CAPACITY), Bytes.fromBytes(Data.BLOCK_SIZE));
+    }
+
+    BlockKey key(long index) {
+        return new BlockKey(Data.BUCKET, Data.KEY, Data.E_TAG, index);
+    }
+
+    Block block(long index) {
+        return new Block(index * Data.BLOCK_SIZE, new byte[Data.BLOCK_SIZE], Data.BLOCK_SIZE);
+    }
+
+    @Test
+    void get_BlockPut_ReturnSameBlock() {
+        Block expected = block(0);
+
+        target.put(key(0), expected);
+
+        assertThat(target.get(key(0))).isSameAs(expected);
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(1, 0, 0));
+    }
+
+    @Test
+    void get_AnotherETag_Miss() {
+        target.put(key(0), block(0));
+
+        assertThat(target.get(new BlockKey(Data.BUCKET, Data.KEY, "changed", 0))).isNull();
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(0, 1, 0));
+    }
+
+    @Test
+    void get_BlockAlreadyRecycled_Miss() {
+        Block recycled = new Block(0, ByteBuffer.allocate(Data.BLOCK_SIZE), () -> {
+        });
+
+        target.put(key(0), recycled);
+        recycled.release();
+        recycled.release();
+
+        assertThat(target.get(key(0))).isNull();
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(0, 1, 0));
+    }
+
+    @Test
+    void put_NullETag_NotCached() {
+        BlockKey key = new BlockKey(Data.BUCKET, Data.KEY, null, 0);
+
+        target.put(key, block(0));
+
+        assertThat(target.get(key)).isNull();
+    }
+
+    @Test
+    void put_CapacityExceeded_EvictBlock() {
+        for (int index = 0; index < 3; index++) {
+            target.put(key(index), block(index));
+        }
+
+        assertThat(target.get(key(2))).isNotNull();
+        assertThat(target.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_CapacityOfFewBlocks_EveryBlockKept() {
+        IBlockCache cache = new MemoryBlockCache(Bytes.fromBytes(Data.BLOCK_SIZE * 3),
+                                                 Bytes.fromBytes(Data.BLOCK_SIZE));
+
+        for (int index = 0; index < 3; index++) {
+            cache.put(key(index), block(index));
+        }
+
+        for (int index = 0; index < 3; index++) {
+            assertThat(cache.get(key(index))).isNotNull();
+        }
+
+        assertThat(cache.stats()).isEqualTo(new BlockCacheStats(3, 0, 0));
+    }
+
+    @Test
+    void create_CapacityLessThanBlock_IllegalArgumentException() {
+        Bytes capacity  = Bytes.fromBytes(Data.BLOCK_SIZE - 1);
+        Bytes blockSize = Bytes.fromBytes(Data.BLOCK_SIZE);
+
+        assertThatThrownBy(() -> new MemoryBlockCache(capacity, blockSize))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.dkamakin.s3.stream.cache.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TieredBlockCacheTest {
+
+    static class Data {
+
+        static final BlockKey KEY   = new BlockKey("bucket", "key", "eTag", 0);
+        static final Block    BLOCK = new Block(0, new byte[10], 10);
+    }
+
+    @Mock IBlockCache first;
+    @Mock IBlockCache second;
+
+    IBlockCache target;
+
+    @BeforeEach
+    void setUp() {
+        when(first.blockSize()).thenReturn(Bytes.fromBytes(10));
+        when(second.blockSize()).thenReturn(Bytes.fromBytes(10));
+
+        target = new TieredBlockCache(first, second);
+    }
+
+    @Test
+    void get_SecondTierHit_PromoteBlock() {
+        when(second.get(Data.KEY)).thenReturn(Data.BLOCK);
+
+        assertThat(target.get(Data.KEY)).isSameAs(Data.BLOCK);
+
+        verify(first).put(Data.KEY, Data.BLOCK);
+    }
+
+    @Test
+    void put_AnyBlock_PutIntoBothTiers() {
+        target.put(Data.KEY, Data.BLOCK);
+
+        verify(first).put(Data.KEY, Data.BLOCK);
+        verify(second).put(Data.KEY, Data.BLOCK);
+    }
+
+    @Test
+    void stats_BothTiers_CombineCounters() {
+        when(first.stats()).thenReturn(new BlockCacheStats(1, 2, 3));
+        when(second.stats()).thenReturn(new BlockCacheStats(4, 5, 6));
+
+        assertThat(target.stats()).isEqualTo(new BlockCacheStats(5, 5, 9));
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.handler.IBlockProvider;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.HeapBufferAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BlockProviderTest {
+
+    static class Data {
+
+        static final int BLOCK_SIZE = 50;
+    }
+
+    @Mock IMultiPartDownloadHandler downloadHandler;
+
+    IBlockProvider target;
+
+    @BeforeEach
+    void setUp() {
+        target = new BlockProvider(downloadHandler, new HeapBufferAllocator(), Bytes.fromBytes(Data.BLOCK_SIZE));
+    }
+
+    void whenNeedToRead(int read) {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(read);
+    }
+
+    @Test
+    void block_PositionInsideBlock_RequestAlignedRange() {
+        whenNeedToRead(Data.BLOCK_SIZE);
+
+        Block actual = target.block(75);
+
+        verify(downloadHandler).getPart(eq(new ByteRange(50, 99)), any(), eq(0), eq(Data.BLOCK_SIZE));
+
+        assertThat(actual).satisfies(block -> assertThat(block.position()).isEqualTo(50))
+                          .satisfies(block -> assertThat(block.length()).isEqualTo(Data.BLOCK_SIZE))
+                          .satisfies(block -> assertThat(block.contains(75)).isTrue());
+    }
+
+    @Test
+    void block_ShortReads_ReadUntilBlockIsFull() {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(20, 20, 10);
+
+        Block actual = target.block(75);
+
+        verify(downloadHandler).getPart(eq(new ByteRange(50, 99)), any(), eq(0), eq(Data.BLOCK_SIZE));
+        verify(downloadHandler).getPart(eq(new ByteRange(70, 99)), any(), eq(20), eq(30));
+        verify(downloadHandler).getPart(eq(new ByteRange(90, 99)), any(), eq(40), eq(10));
+
+        assertThat(actual.length()).isEqualTo(Data.BLOCK_SIZE);
+    }
+
+    @Test
+    void block_ShortReadThenEndOfFile_ShortBlock() {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(20, 5, -1);
+
+        Block actual = target.block(60);
+
+        assertThat(actual).satisfies(block -> assertThat(block.length()).isEqualTo(25))
+                          .satisfies(block -> assertThat(block.contains(60)).isTrue());
+    }
+
+    @Test
+    void block_EndOfFile_Null() {
+        whenNeedToRead(-1);
+
+        assertThat(target.block(0)).isNull();
+    }
+
+    @Test
+    void block_PositionBeyondShortBlock_Null() {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(10, -1);
+
+        assertThat(target.block(60)).isNull();
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.cache.IBlockCache;
+import com.dkamakin.s3.stream.cache.impl.BlockCacheStats;
+import com.dkamakin.s3.stream.cache.impl.MemoryBlockCache;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.HeapBufferAllocator;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.S3Client;
+
+@ExtendWith(MockitoExtension.class)
+class CachingDownloadHandlerTest {
+
+    static class Data {
+
+        static final int    BLOCK_SIZE = 10;
+        static final String E_TAG      = "eTag";
+    }
+
+    @Mock IMultiPartDownloadHandler downloadHandler;
+    @Mock S3Client                  s3Client;
+
+    IBlockCache               cache;
+    IMultiPartDownloadHandler target;
+
+    @BeforeEach
+    void setUp() {
+        cache  = new MemoryBlockCache(Bytes.fromMb(1), Bytes.fromBytes(Data.BLOCK_SIZE));
+        target = new CachingDownloadHandler(downloadHandler, cache, new HeapBufferAllocator());
+    }
+
+    void whenNeedToRead(Integer first, Integer... others) {
+        when(downloadHandler.fileDescriptor()).thenReturn(new S3FileDescriptor("bucket", "key", s3Client));
+        when(downloadHandler.eTag()).thenReturn(Data.E_TAG);
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(first, others);
+    }
+
+    @Test
+    void getPart_RangeSpansBlocks_RequestAlignedBlocks() {
+        whenNeedToRead(Data.BLOCK_SIZE);
+
+        int actual = target.getPart(new ByteRange(5, 20), new byte[15], 0, 15);
+
+        verify(downloadHandler).getPart(eq(new ByteRange(0, 9)), any(), eq(0), eq(Data.BLOCK_SIZE));
+        verify(downloadHandler).getPart(eq(new ByteRange(10, 19)), any(), eq(0), eq(Data.BLOCK_SIZE));
+
+        assertThat(actual).isEqualTo(15);
+    }
+
+    @Test
+    void getPart_BlockCached_NoRequest() {
+        whenNeedToRead(Data.BLOCK_SIZE);
+
+        target.getPart(new ByteRange(0, 5), new byte[5], 0, 5);
+        int actual = target.getPart(new ByteRange(5, 10), new byte[5], 0, 5);
+
+        verify(downloadHandler, times(1)).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isEqualTo(5);
+        assertThat(cache.stats()).isEqualTo(new BlockCacheStats(1, 1, 0));
+    }
+
+    @Test
+    void getPart_ShortLastBlock_ReturnAvailableBytes() {
+        whenNeedToRead(3, -1);
+
+        assertThat(target.getPart(new ByteRange(0, 10), new byte[10], 0, 10)).isEqualTo(3);
+    }
+
+    @Test
+    void getPart_DelegateShortReads_CacheWholeBlock() {
+        whenNeedToRead(4, 6);
+
+        target.getPart(new ByteRange(0, 5), new byte[5], 0, 5);
+        int actual = target.getPart(new ByteRange(5, 10), new byte[5], 0, 5);
+
+        verify(downloadHandler).getPart(eq(new ByteRange(0, 9)), any(), eq(0), eq(Data.BLOCK_SIZE));
+        verify(downloadHandler).getPart(eq(new ByteRange(4, 9)), any(), eq(4), eq(6));
+
+        assertThat(actual).isEqualTo(5);
+        assertThat(cache.stats()).isEqualTo(new BlockCacheStats(1, 1, 0));
+    }
+
+    @Test
+    void getPart_ShortBlockBeforeKnownEnd_NotCached() {
+        whenNeedToRead(3, -1, 3, -1);
+
+        target.getPart(new ByteRange(0, 3), new byte[3], 0, 3);
+        target.getPart(new ByteRange(0, 3), new byte[3], 0, 3);
+
+        verify(downloadHandler, times(4)).getPart(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void getPart_LastShortBlock_Cached() {
+        whenNeedToRead(3, -1);
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.of(3));
+
+        target.getPart(new ByteRange(0, 3), new byte[3], 0, 3);
+        int actual = target.getPart(new ByteRange(0, 3), new byte[3], 0, 3);
+
+        verify(downloadHandler, times(2)).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isEqualTo(3);
+    }
+
+    @Test
+    void getPart_EndOfFile_EOS() {
+        whenNeedToRead(-1);
+
+        assertThat(target.getPart(new ByteRange(0, 10), new byte[10], 0, 10)).isNegative();
+    }
+
+    @Test
+    void getPart_BeyondKnownLength_EOSWithoutRequest() {
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.of(10));
+
+        assertThat(target.getPart(new ByteRange(10, 20), new byte[10], 0, 10)).isNegative();
+    }
+
+    @Test
+    void close_DelegatePresent_CloseDelegate() {
+        target.close();
+
+        verify(downloadHandler).close();
+    }
+
+}
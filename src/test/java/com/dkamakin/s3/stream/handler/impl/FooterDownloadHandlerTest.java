@@ -0,0 +1,158 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FooterDownloadHandlerTest {
+
+    static class Data {
+
+        static final int  FOOTER_SIZE = 10;
+        static final long LENGTH      = 100;
+    }
+
+    @Mock IMultiPartDownloadHandler delegate;
+
+    FooterDownloadHandler target;
+
+    @BeforeEach
+    void setUp() {
+        target = new FooterDownloadHandler(delegate, Bytes.fromBytes(Data.FOOTER_SIZE));
+    }
+
+    /**
+     * Every byte of the object equals its offset
+     */
+    void whenNeedToPrefetch(long length) {
+        int footer = (int) Math.min(length, Data.FOOTER_SIZE);
+
+        when(delegate.getPart(eq(ByteRange.suffix(Data.FOOTER_SIZE)), any(), eq(0), eq(Data.FOOTER_SIZE)))
+            .thenAnswer(invocation -> {
+                byte[] data = invocation.getArgument(1);
+
+                for (int i = 0; i < footer; i++) {
+                    data[i] = (byte) (length - footer + i);
+                }
+
+                return footer;
+            });
+        when(delegate.knownLength()).thenReturn(OptionalLong.of(length));
+
+        target.prefetch();
+    }
+
+    @Test
+    void getPart_WithinFooter_ServeFromMemory() {
+        whenNeedToPrefetch(Data.LENGTH);
+
+        byte[] data = new byte[5];
+        int    read = target.getPart(new ByteRange(92, 97), data, 0, data.length);
+
+        assertThat(read).isEqualTo(5);
+        assertThat(data).containsExactly(92, 93, 94, 95, 96);
+        verify(delegate).getPart(eq(ByteRange.suffix(Data.FOOTER_SIZE)), any(), anyInt(), anyInt());
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    void withDelegate_FooterPinned_ServeFromMemory() {
+        IMultiPartDownloadHandler other = mock(IMultiPartDownloadHandler.class);
+
+        whenNeedToPrefetch(Data.LENGTH);
+
+        byte[] data = new byte[5];
+        int    read = target.withDelegate(other).getPart(new ByteRange(92, 97), data, 0, data.length);
+
+        assertThat(read).isEqualTo(5);
+        assertThat(data).containsExactly(92, 93, 94, 95, 96);
+        verifyNoInteractions(other);
+    }
+
+    @Test
+    void getPart_BeyondFooterEnd_EOS() {
+        whenNeedToPrefetch(Data.LENGTH);
+
+        assertThat(target.getPart(new ByteRange(100, 105), new byte[5], 0, 5)).isNegative();
+    }
+
+    @Test
+    void getPart_StartsBeforeFooter_ReadOnlyHeadFromDelegate() {
+        whenNeedToPrefetch(Data.LENGTH);
+        when(delegate.getPart(eq(new ByteRange(80, 89)), any(), eq(0), eq(10))).thenReturn(10);
+
+        byte[] data = new byte[20];
+        int    read = target.getPart(new ByteRange(80, 100), data, 0, data.length);
+
+        assertThat(read).isEqualTo(20);
+        assertThat(data[10]).isEqualTo((byte) 90);
+        assertThat(data[19]).isEqualTo((byte) 99);
+    }
+
+    @Test
+    void getPart_BeforeFooter_PassToDelegate() {
+        whenNeedToPrefetch(Data.LENGTH);
+        when(delegate.getPart(new ByteRange(0, 5), new byte[5], 0, 5)).thenReturn(5);
+
+        assertThat(target.getPart(new ByteRange(0, 5), new byte[5], 0, 5)).isEqualTo(5);
+    }
+
+    @Test
+    void getPart_DirectBufferStartsBeforeFooter_ReadOnlyHeadFromDelegate() {
+        whenNeedToPrefetch(Data.LENGTH);
+        when(delegate.getPart(eq(new ByteRange(85, 89)), any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(1);
+
+            assertThat(buffer.remaining()).isEqualTo(5);
+            buffer.put(new byte[5]);
+
+            return 5;
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(15);
+        int        read   = target.getPart(new ByteRange(85, 100), buffer);
+
+        assertThat(read).isEqualTo(15);
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(buffer.get(5)).isEqualTo((byte) 90);
+    }
+
+    @Test
+    void prefetch_ObjectSmallerThanFooter_PinWholeObject() {
+        whenNeedToPrefetch(4);
+
+        byte[] data = new byte[10];
+        int    read = target.getPart(new ByteRange(0, 10), data, 0, data.length);
+
+        assertThat(read).isEqualTo(4);
+        assertThat(data).startsWith(0, 1, 2, 3);
+    }
+
+    @Test
+    void close_FooterPinned_CloseDelegate() {
+        whenNeedToPrefetch(Data.LENGTH);
+
+        target.close();
+
+        verify(delegate).close();
+    }
+
+}
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -12,9 +13,14 @@ import com.dkamakin.s3.stream.exception.ReadException;
 import com.dkamakin.s3.stream.handler.IFileDescriptorHolder;
 import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
 import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
 import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +32,8 @@ import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,11 +64,24 @@ class MultiPartDownloadHandlerTest {
         when(s3Client.getObject((GetObjectRequest) any())).thenReturn(stream);
     }
 
+    void whenNeedToGetEmptyObject() {
+        whenNeedToGetObject(new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                                                      AbortableInputStream.create(mock(InputStream.class))));
+    }
+
+    void whenNeedToHeadObject(long length) {
+        when(s3Client.headObject((HeadObjectRequest) any())).thenReturn(HeadObjectResponse.builder()
+                                                                                          .contentLength(length)
+                                                                                          .build());
+    }
+
     void whenNeedToThrowOnRead(Throwable throwable) throws IOException {
         when(streamReader.read(any(), anyInt(), anyInt())).thenThrow(throwable);
     }
 
     void whenNeedToGetEOS() throws IOException {
+        whenNeedToGetEmptyObject();
+
         S3Exception exception = mock(S3Exception.class);
         when(exception.statusCode()).thenReturn(416);
 
@@ -99,11 +120,26 @@ class MultiPartDownloadHandlerTest {
         assertThat(actual).isNegative();
     }
 
+    @Test
+    void getPart_DirectBuffer_ReadIntoBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10);
+
+        whenNeedToGetEmptyObject();
+        when(streamReader.read(buffer)).thenReturn(10);
+
+        int actual = target.getPart(new ByteRange(0, 9), buffer);
+
+        verify(streamReader).read(buffer);
+
+        assertThat(actual).isEqualTo(10);
+    }
+
     @Test
     void getPart_S3ExceptionNotEOS_RethrowException() throws IOException {
         byte[]      data     = new byte[1];
         S3Exception expected = mock(S3Exception.class);
 
+        whenNeedToGetEmptyObject();
         whenNeedToThrowOnRead(expected);
 
         assertThatThrownBy(() -> target.getPart(new ByteRange(0, data.length), data, 0, data.length))
@@ -156,4 +192,113 @@ class MultiPartDownloadHandlerTest {
         verify(expectedStream).close();
     }
 
+    @Test
+    void getPart_ResponseWithContentRange_NoRequestBeyondEnd() throws IOException {
+        int length = 10;
+
+        whenNeedToGetObject(new ResponseInputStream<>(GetObjectResponse.builder()
+                                                                       .contentRange("bytes 0-9/" + length)
+                                                                       .build(),
+                                                      AbortableInputStream.create(mock(InputStream.class))));
+
+        target.getPart(new ByteRange(0, length), new byte[length], 0, length);
+
+        int actual = target.getPart(new ByteRange(length, length * 2), new byte[length], 0, length);
+
+        verify(s3Client).getObject((GetObjectRequest) any());
+
+        assertThat(actual).isNegative();
+        assertThat(target.knownLength()).hasValue(length);
+    }
+
+    @Test
+    void getPart_RangeCoversKnownLength_RequestWithoutRange() {
+        whenNeedToHeadObject(5);
+        whenNeedToGetEmptyObject();
+
+        target.length();
+        target.getPart(new ByteRange(0, 10), new byte[10], 0, 10);
+
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client).getObject(captor.capture());
+
+        assertThat(captor.getValue().range()).isNull();
+    }
+
+    @Test
+    void length_LengthUnknown_HeadObjectOnce() {
+        whenNeedToHeadObject(5);
+
+        long first  = target.length();
+        long second = target.length();
+
+        verify(s3Client).headObject((HeadObjectRequest) any());
+
+        assertThat(first).isEqualTo(second).isEqualTo(5);
+    }
+
+    @Test
+    void length_HeadWithoutLength_IllegalStateException() {
+        when(s3Client.headObject((HeadObjectRequest) any())).thenReturn(HeadObjectResponse.builder().build());
+
+        assertThatThrownBy(() -> target.length()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void getPart_ETagKnownWithoutRetryPolicy_PinnedToETag() {
+        IMultiPartDownloadHandler handler = new MultiPartDownloadHandler(
+            new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client), RetryableStreamReader::new, RetryPolicy.none());
+
+        when(s3Client.getObject((GetObjectRequest) any()))
+            .thenReturn(new ResponseInputStream<>(GetObjectResponse.builder().eTag("etag").build(),
+                                                  AbortableInputStream.create(new ByteArrayInputStream(new byte[2]))),
+                        new ResponseInputStream<>(GetObjectResponse.builder().eTag("etag").build(),
+                                                  AbortableInputStream.create(new ByteArrayInputStream(new byte[2]))));
+
+        handler.getPart(new ByteRange(0, 1), new byte[2], 0, 2);
+        handler.getPart(new ByteRange(2, 3), new byte[2], 0, 2);
+
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client, times(2)).getObject(captor.capture());
+
+        assertThat(captor.getAllValues()).extracting(GetObjectRequest::ifMatch).containsExactly(null, "etag");
+    }
+
+    @Test
+    void knownLength_NoRequests_Empty() {
+        assertThat(target.knownLength()).isEmpty();
+    }
+
+    @Test
+    void getPart_ConnectionResetWithRetryPolicy_ResumePinnedToETag() {
+        IMultiPartDownloadHandler resumable = new MultiPartDownloadHandler(
+            new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client), RetryableStreamReader::new,
+            new RetryPolicy(2, Duration.ZERO, Duration.ZERO));
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(new byte[4]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        when(s3Client.getObject((GetObjectRequest) any()))
+            .thenReturn(new ResponseInputStream<>(GetObjectResponse.builder().eTag("etag").build(),
+                                                  AbortableInputStream.create(broken)),
+                        new ResponseInputStream<>(GetObjectResponse.builder().eTag("etag").build(),
+                                                  AbortableInputStream.create(new ByteArrayInputStream(new byte[6]))));
+
+        int actual = resumable.getPart(new ByteRange(10, 19), new byte[10], 0, 10);
+
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client, times(2)).getObject(captor.capture());
+
+        assertThat(actual).isEqualTo(10);
+        assertThat(captor.getAllValues().get(1))
+            .satisfies(get -> assertThat(get.range()).isEqualTo(new ByteRange(14, 19).toString()))
+            .satisfies(get -> assertThat(get.ifMatch()).isEqualTo("etag"));
+    }
+
 }
@@ -4,18 +4,28 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.dkamakin.s3.stream.exception.PartNumberExceedLimitException;
+import com.dkamakin.s3.stream.exception.WriteException;
 import com.dkamakin.s3.stream.handler.IMultiPartUploadHandler;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
@@ -23,6 +33,7 @@ import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
@@ -52,8 +63,6 @@ class MultiPartUploadHandlerTest {
 
     @BeforeEach
     void setUp() {
-        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
-
         target = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client));
     }
 
@@ -69,6 +78,11 @@ class MultiPartUploadHandlerTest {
         return UploadPartResponse.builder().eTag(Data.E_TAG).build();
     }
 
+    void whenNeedToStartUpload() {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+        whenNeedToUploadPart(createDefaultUploadPartResponse());
+    }
+
     void exceedLimit() {
         for (int i = 0; i < 10002; i++) {
             target.upload(RequestBody.empty());
@@ -77,11 +91,16 @@ class MultiPartUploadHandlerTest {
 
     @Test
     void equals_DifferentHandlers_NotEquals() {
-        whenNeedToCreateMultipartUpload(Data.ANOTHER_CREATE_RESPONSE);
+        whenNeedToUploadPart(createDefaultUploadPartResponse());
+        when(s3Client.createMultipartUpload((CreateMultipartUploadRequest) any())).thenReturn(
+            Data.CREATE_RESPONSE, Data.ANOTHER_CREATE_RESPONSE);
 
         IMultiPartUploadHandler another = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
                                                                                           s3Client));
 
+        target.upload(RequestBody.empty());
+        another.upload(RequestBody.empty());
+
         System.out.println("Another: " + another);
         System.out.println("Descriptor: " + another.fileDescriptor());
 
@@ -89,32 +108,59 @@ class MultiPartUploadHandlerTest {
     }
 
     @Test
-    void equals_SameHandlers_Equals() {
-        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
-
+    void equals_SameFile_NotEquals() {
         IMultiPartUploadHandler another = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
                                                                                           s3Client));
 
-        System.out.println("Another: " + another);
+        assertThat(target).isNotEqualTo(another);
+    }
+
+    @Test
+    void hashCode_PartUploaded_HashCodeNotChanged() {
+        whenNeedToStartUpload();
+
+        int before = target.hashCode();
+
+        target.upload(RequestBody.empty());
+
+        assertThat(target.hashCode()).isEqualTo(before);
+    }
+
+    @Test
+    void close_NoDataProvided_NoRequestSent() {
+        target.close();
 
-        assertThat(target).isEqualTo(another).hasSameHashCodeAs(another);
+        verifyNoInteractions(s3Client);
     }
 
     @Test
-    void close_NoDataProvided_AbortMultiPartUpload() {
+    void put_NoPartUploaded_PutObjectWithoutMultipartUpload() {
+        RequestBody expected = RequestBody.empty();
+
+        target.put(expected);
         target.close();
 
-        ArgumentCaptor<AbortMultipartUploadRequest> captor = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
 
-        verify(s3Client).abortMultipartUpload(captor.capture());
+        verify(s3Client).putObject(captor.capture(), eq(expected));
+        verify(s3Client, never()).createMultipartUpload((CreateMultipartUploadRequest) any());
 
-        assertThat(captor.getValue()).satisfies(abort -> assertThat(abort.key()).isEqualTo(Data.KEY))
-                                     .satisfies(abort -> assertThat(abort.bucket()).isEqualTo(Data.BUCKET));
+        assertThat(captor.getValue()).satisfies(put -> assertThat(put.key()).isEqualTo(Data.KEY))
+                                     .satisfies(put -> assertThat(put.bucket()).isEqualTo(Data.BUCKET));
+    }
+
+    @Test
+    void put_PartUploaded_IllegalStateException() {
+        whenNeedToStartUpload();
+
+        target.upload(RequestBody.empty());
+
+        assertThatThrownBy(() -> target.put(RequestBody.empty())).isInstanceOf(IllegalStateException.class);
     }
 
     @Test
     void close_DataProvided_CompleteUploadRequest() {
-        whenNeedToUploadPart(createDefaultUploadPartResponse());
+        whenNeedToStartUpload();
 
         target.upload(RequestBody.empty());
         target.close();
@@ -135,7 +181,7 @@ class MultiPartUploadHandlerTest {
 
     @Test
     void upload_FirstCall_UploadFirstPartNumber() {
-        whenNeedToUploadPart(createDefaultUploadPartResponse());
+        whenNeedToStartUpload();
 
         RequestBody expected = RequestBody.empty();
 
@@ -153,6 +199,7 @@ class MultiPartUploadHandlerTest {
 
     @Test
     void upload_MultipleCalls_IncreasePartNumber() {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
         whenNeedToUploadPart(createDefaultUploadPartResponse(),
                              createDefaultUploadPartResponse(),
                              createDefaultUploadPartResponse());
@@ -173,8 +220,171 @@ class MultiPartUploadHandlerTest {
 
     @Test
     void upload_ExceedsMaxPartNumber_PartNumberExceedLimitException() {
-        whenNeedToUploadPart(createDefaultUploadPartResponse());
+        whenNeedToStartUpload();
 
         assertThatThrownBy(this::exceedLimit).isInstanceOf(PartNumberExceedLimitException.class);
     }
+
+    @Test
+    void close_AsyncPartsFinishedOutOfOrder_CompleteInPartNumberOrder() throws InterruptedException {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+
+        CountDownLatch  firstPart = new CountDownLatch(1);
+        ExecutorService executor  = Executors.newFixedThreadPool(2);
+
+        when(s3Client.uploadPart((UploadPartRequest) any(), (RequestBody) any())).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+
+            if (request.partNumber() == 1) {
+                firstPart.await();
+            } else {
+                firstPart.countDown();
+            }
+
+            return UploadPartResponse.builder().eTag("eTag" + request.partNumber()).build();
+        });
+
+        MultiPartUploadHandler async = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
+                                                                                       s3Client),
+                                                                  executor, true, 2);
+
+        async.upload(RequestBody.empty());
+        async.upload(RequestBody.empty());
+        async.close();
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor.forClass(
+            CompleteMultipartUploadRequest.class);
+
+        verify(s3Client).completeMultipartUpload(captor.capture());
+
+        assertThat(captor.getValue().multipartUpload().parts()).extracting(CompletedPart::partNumber,
+                                                                           CompletedPart::eTag)
+                                                               .containsExactly(tuple(1, "eTag1"), tuple(2, "eTag2"));
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void close_AsyncPartFailed_AbortAndWriteException() {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+
+        SdkClientException error = SdkClientException.create("Connection reset");
+
+        when(s3Client.uploadPart((UploadPartRequest) any(), (RequestBody) any())).thenThrow(error);
+
+        MultiPartUploadHandler async = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
+                                                                                       s3Client),
+                                                                  MoreExecutors.newDirectExecutorService(), false, 1);
+
+        async.upload(RequestBody.empty());
+
+        assertThatThrownBy(async::close).isInstanceOf(WriteException.class).hasCause(error);
+        verify(s3Client).abortMultipartUpload((AbortMultipartUploadRequest) any());
+        verify(s3Client, never()).completeMultipartUpload((CompleteMultipartUploadRequest) any());
+    }
+
+    @Test
+    void abort_PartUploaded_AbortRequestSentAndExecutorShutDown() {
+        whenNeedToStartUpload();
+
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+
+        MultiPartUploadHandler async = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
+                                                                                       s3Client),
+                                                                  executor, true, 1);
+
+        async.upload(RequestBody.empty());
+        async.abort();
+
+        verify(s3Client).abortMultipartUpload((AbortMultipartUploadRequest) any());
+        verify(s3Client, never()).completeMultipartUpload((CompleteMultipartUploadRequest) any());
+        assertThat(executor.isShutdown()).isTrue();
+    }
+
+    @Test
+    void abort_NothingUploaded_NoRequest() {
+        target.abort();
+
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    void close_SyncPartFailed_AbortAndWriteException() {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+
+        SdkClientException error = SdkClientException.create("Connection reset");
+
+        when(s3Client.uploadPart((UploadPartRequest) any(), (RequestBody) any())).thenReturn(
+            createDefaultUploadPartResponse()).thenThrow(error);
+
+        target.upload(RequestBody.empty());
+
+        assertThatThrownBy(() -> target.upload(RequestBody.empty())).isSameAs(error);
+        assertThatThrownBy(target::close).isInstanceOf(WriteException.class).hasCause(error);
+        verify(s3Client).abortMultipartUpload((AbortMultipartUploadRequest) any());
+        verify(s3Client, never()).completeMultipartUpload((CompleteMultipartUploadRequest) any());
+    }
+
+    @Test
+    void upload_SyncPartFailed_NextUploadThrows() {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+
+        SdkClientException error = SdkClientException.create("Connection reset");
+
+        when(s3Client.uploadPart((UploadPartRequest) any(), (RequestBody) any())).thenThrow(error);
+
+        assertThatThrownBy(() -> target.upload(RequestBody.empty())).isSameAs(error);
+        assertThatThrownBy(() -> target.upload(RequestBody.empty())).isInstanceOf(WriteException.class)
+                                                                    .hasCause(error);
+    }
+
+    @Test
+    void upload_AsyncPartFailed_NextUploadThrows() {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+
+        SdkClientException error = SdkClientException.create("Connection reset");
+
+        when(s3Client.uploadPart((UploadPartRequest) any(), (RequestBody) any())).thenThrow(error);
+
+        MultiPartUploadHandler async = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
+                                                                                       s3Client),
+                                                                  MoreExecutors.newDirectExecutorService(), false, 1);
+
+        async.upload(RequestBody.empty());
+
+        assertThatThrownBy(() -> async.upload(RequestBody.empty())).isInstanceOf(WriteException.class)
+                                                                   .hasCause(error);
+    }
+
+    @Test
+    void upload_MaxInFlightPartsReached_ProducerBlocked() throws InterruptedException {
+        whenNeedToCreateMultipartUpload(Data.CREATE_RESPONSE);
+
+        CountDownLatch  release  = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        MultiPartUploadHandler async = new MultiPartUploadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY,
+                                                                                       s3Client),
+                                                                  executor, true, 1);
+
+        when(s3Client.uploadPart((UploadPartRequest) any(), (RequestBody) any())).thenAnswer(invocation -> {
+            release.await();
+            return createDefaultUploadPartResponse();
+        });
+
+        async.upload(RequestBody.empty());
+
+        Thread producer = new Thread(() -> async.upload(RequestBody.empty()));
+
+        producer.start();
+        producer.join(200);
+
+        assertThat(producer.isAlive()).isTrue();
+
+        release.countDown();
+        producer.join(1000);
+
+        assertThat(producer.isAlive()).isFalse();
+
+        async.close();
+    }
 }
@@ -0,0 +1,163 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.handler.IBlockProvider;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.Block;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.HeapBufferAllocator;
+import com.dkamakin.s3.stream.util.impl.SlabBufferAllocator;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PrefetchBlockProviderTest {
+
+    static class Data {
+
+        static final int BLOCK_SIZE = 10;
+        static final int DEPTH      = 3;
+    }
+
+    @Mock IMultiPartDownloadHandler downloadHandler;
+
+    ExecutorService executor;
+    IBlockProvider  target;
+
+    @BeforeEach
+    void setUp() {
+        executor = MoreExecutors.newDirectExecutorService();
+        target   = new PrefetchBlockProvider(downloadHandler, new HeapBufferAllocator(), executor, true,
+                                             Bytes.fromBytes(Data.BLOCK_SIZE), Data.DEPTH);
+    }
+
+    void whenNeedToRead(Integer first, Integer... others) {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(first, others);
+    }
+
+    ByteRange range(long index) {
+        return new ByteRange(index * Data.BLOCK_SIZE, (index + 1) * Data.BLOCK_SIZE - 1);
+    }
+
+    ArgumentCaptor<ByteRange> verifyRequests(int count) {
+        ArgumentCaptor<ByteRange> captor = ArgumentCaptor.forClass(ByteRange.class);
+
+        verify(downloadHandler, times(count)).getPart(captor.capture(), any(), anyInt(), anyInt());
+
+        return captor;
+    }
+
+    @Test
+    void block_FirstRead_PrefetchAheadInOrder() {
+        whenNeedToRead(Data.BLOCK_SIZE);
+
+        Block actual = target.block(0);
+
+        assertThat(actual.position()).isZero();
+        assertThat(verifyRequests(Data.DEPTH + 1).getAllValues()).containsExactly(range(0), range(1), range(2),
+                                                                                  range(3));
+    }
+
+    @Test
+    void block_SequentialReads_ServePrefetchedBlocks() {
+        whenNeedToRead(Data.BLOCK_SIZE);
+
+        target.block(0);
+        Block actual = target.block(Data.BLOCK_SIZE + 5);
+
+        assertThat(actual.position()).isEqualTo(Data.BLOCK_SIZE);
+        assertThat(verifyRequests(Data.DEPTH + 2).getAllValues()).last().isEqualTo(range(4));
+    }
+
+    @Test
+    void block_Seek_RestartFromRequestedBlock() {
+        whenNeedToRead(Data.BLOCK_SIZE);
+
+        target.block(0);
+        Block actual = target.block(Data.BLOCK_SIZE * 10);
+
+        assertThat(actual.position()).isEqualTo(Data.BLOCK_SIZE * 10);
+        assertThat(verifyRequests((Data.DEPTH + 1) * 2).getAllValues()).contains(range(10), range(13));
+    }
+
+    @Test
+    void block_ShortBlock_StopPrefetch() {
+        whenNeedToRead(Data.BLOCK_SIZE, 5, -1);
+
+        target.block(0);
+        Block last   = target.block(Data.BLOCK_SIZE);
+        Block beyond = target.block(Data.BLOCK_SIZE + 5);
+
+        assertThat(last.length()).isEqualTo(5);
+        assertThat(beyond).isNull();
+        verifyRequests(Data.DEPTH + 2);
+    }
+
+    @Test
+    void block_EndOfFile_Null() {
+        whenNeedToRead(-1);
+
+        assertThat(target.block(0)).isNull();
+        assertThat(target.block(5)).isNull();
+    }
+
+    @Test
+    void block_ExceptionWhenDownloading_RethrowException() {
+        IllegalStateException expected = new IllegalStateException();
+
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenThrow(expected);
+
+        assertThatThrownBy(() -> target.block(0)).isSameAs(expected);
+    }
+
+    @Test
+    void close_OwnedExecutor_ShutDownExecutor() {
+        target.close();
+
+        assertThat(executor.isShutdown()).isTrue();
+    }
+
+    @Test
+    void close_SlabAllocator_ReleasePrefetchedBlocks() {
+        SlabBufferAllocator allocator = new SlabBufferAllocator(Bytes.fromBytes(Data.BLOCK_SIZE * 5),
+                                                                Bytes.fromBytes(Data.BLOCK_SIZE));
+
+        target = new PrefetchBlockProvider(downloadHandler, allocator, executor, true, Bytes.fromBytes(Data.BLOCK_SIZE),
+                                           Data.DEPTH);
+
+        when(downloadHandler.getPart(any(ByteRange.class), any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(1);
+            int        read   = buffer.remaining();
+
+            buffer.position(buffer.limit());
+
+            return read;
+        });
+
+        Block actual = target.block(0);
+
+        assertThat(actual.length()).isEqualTo(Data.BLOCK_SIZE);
+        assertThat(allocator.freeSlots()).isEqualTo(1);
+
+        target.close();
+        actual.release();
+
+        assertThat(allocator.freeSlots()).isEqualTo(5);
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.Abortable;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+@ExtendWith(MockitoExtension.class)
+class RequestHedgerTest {
+
+    static class Data {
+
+        static final double PERCENTILE     = 0.9;
+        static final long   LATENCY_NANOS  = TimeUnit.MILLISECONDS.toNanos(1);
+        static final long   SLOW_MILLIS    = 200;
+        static final int    PRIMED_SAMPLES = RequestHedger.Constant.MIN_SAMPLES;
+    }
+
+    @Mock Abortable late;
+    @Mock Abortable fast;
+
+    AtomicInteger calls = new AtomicInteger();
+    RequestHedger target;
+
+    @AfterEach
+    void tearDown() {
+        target.close();
+    }
+
+    void create(double budget) {
+        target = new RequestHedger(Executors.newCachedThreadPool(), Ticker.systemTicker(), Data.PERCENTILE, budget);
+    }
+
+    void prime() {
+        for (int i = 0; i < Data.PRIMED_SAMPLES; i++) {
+            target.record(Data.LATENCY_NANOS);
+        }
+    }
+
+    ResponseInputStream<GetObjectResponse> response(Abortable abortable) {
+        return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                                         AbortableInputStream.create(new ByteArrayInputStream(new byte[0]), abortable));
+    }
+
+    /**
+     * The first call is slow and returns the late response, the next ones return the fast response
+     */
+    Supplier<ResponseInputStream<GetObjectResponse>> slowFirst(CountDownLatch release) {
+        return () -> {
+            if (calls.incrementAndGet() == 1) {
+                Uninterruptibles.awaitUninterruptibly(release);
+                return response(late);
+            }
+
+            return response(fast);
+        };
+    }
+
+    @Test
+    void send_NotEnoughSamples_NoHedge() {
+        create(1);
+
+        ResponseInputStream<GetObjectResponse> expected = response(fast);
+
+        Thread caller = Thread.currentThread();
+
+        assertThat(target.send(() -> {
+            calls.incrementAndGet();
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            return expected;
+        })).isSameAs(expected);
+        assertThat(calls).hasValue(1);
+        assertThat(target.samples()).isOne();
+    }
+
+    @Test
+    void send_SlowFirstResponse_UseDuplicateAndAbortLateOne() {
+        CountDownLatch release = new CountDownLatch(1);
+
+        create(1);
+        prime();
+
+        ResponseInputStream<GetObjectResponse> actual = target.send(slowFirst(release));
+
+        release.countDown();
+
+        assertThat(calls).hasValue(2);
+        assertThat(actual.response()).isNotNull();
+        assertThat(target.samples()).isEqualTo(Data.PRIMED_SAMPLES + 2);
+        verify(late, timeout(1000).atLeastOnce()).abort();
+    }
+
+    @Test
+    void send_BudgetExhausted_WaitForFirstResponse() {
+        CountDownLatch release = new CountDownLatch(1);
+
+        create(0.05);
+        prime();
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        scheduler.schedule(release::countDown, Data.SLOW_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.shutdown();
+
+        target.send(slowFirst(release));
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void send_RequestFails_RethrowException() {
+        S3Exception expected = mock(S3Exception.class);
+
+        create(1);
+
+        assertThatThrownBy(() -> target.send(() -> {
+            throw expected;
+        })).isSameAs(expected);
+    }
+
+    @Test
+    void send_RequestThrowsError_RethrowError() {
+        Error expected = new Error("Failure");
+
+        create(1);
+        prime();
+
+        assertThatThrownBy(() -> target.send(() -> {
+            throw expected;
+        })).isSameAs(expected);
+    }
+
+    @Test
+    void send_ExecutorRejects_RethrowRejection() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        target = new RequestHedger(executor, Ticker.systemTicker(), Data.PERCENTILE, 1);
+        prime();
+        executor.shutdown();
+
+        assertThatThrownBy(() -> target.send(() -> response(fast))).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void close_SharedPool_OtherHedgersKeepWorking() {
+        create(1);
+
+        RequestHedger first  = new RequestHedger(Data.PERCENTILE, 1);
+        RequestHedger second = new RequestHedger(Data.PERCENTILE, 1);
+
+        first.close();
+
+        assertThat(second.send(() -> response(fast))).isNotNull();
+        assertThat(first.send(() -> response(fast))).isNotNull();
+    }
+
+    @Test
+    void new_PercentileOutOfRange_IllegalArgumentException() {
+        create(1);
+
+        assertThatThrownBy(() -> new RequestHedger(1.5, 0.05)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
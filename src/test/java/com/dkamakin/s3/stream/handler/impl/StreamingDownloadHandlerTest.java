@@ -0,0 +1,327 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.AdaptiveSpan;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryableStreamReader;
+import com.google.common.base.Ticker;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.Abortable;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingDownloadHandlerTest {
+
+    static class Data {
+
+        static final String KEY      = "key";
+        static final String BUCKET   = "bucket";
+        static final int    MAX_SPAN = 20;
+    }
+
+    @Mock S3Client  s3Client;
+    @Mock Abortable abortable;
+
+    IMultiPartDownloadHandler target;
+
+    @BeforeEach
+    void setUp() {
+        target = new StreamingDownloadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client),
+                                              RetryableStreamReader::new,
+                                              Bytes.fromBytes(Data.MAX_SPAN));
+    }
+
+    ResponseInputStream<GetObjectResponse> response(int length) {
+        return response(new ByteArrayInputStream(new byte[length]));
+    }
+
+    ResponseInputStream<GetObjectResponse> response(InputStream stream) {
+        return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                                         AbortableInputStream.create(stream, abortable));
+    }
+
+    /**
+     * Every read from the stream takes a nanosecond of the ticker
+     */
+    InputStream slowStream(int length, AtomicLong nanos) {
+        return new ByteArrayInputStream(new byte[length]) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                nanos.incrementAndGet();
+                return super.read(b, off, len);
+            }
+        };
+    }
+
+    @SafeVarargs
+    final void whenNeedToGetObject(ResponseInputStream<GetObjectResponse> first,
+                                   ResponseInputStream<GetObjectResponse>... others) {
+        when(s3Client.getObject((GetObjectRequest) any())).thenReturn(first, others);
+    }
+
+    void whenNeedToGetEOS() {
+        S3Exception exception = mock(S3Exception.class);
+        when(exception.statusCode()).thenReturn(416);
+        when(s3Client.getObject((GetObjectRequest) any())).thenThrow(exception);
+    }
+
+    int read(long from, int length) {
+        return target.getPart(new ByteRange(from, from + length), new byte[length], 0, length);
+    }
+
+    ArgumentCaptor<GetObjectRequest> verifyRequests(int count) {
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client, times(count)).getObject(captor.capture());
+
+        return captor;
+    }
+
+    @Test
+    void getPart_SequentialReads_SingleRequest() {
+        whenNeedToGetObject(response(Data.MAX_SPAN));
+
+        int first  = read(0, 5);
+        int second = read(5, 5);
+
+        assertThat(verifyRequests(1).getValue())
+            .satisfies(get -> assertThat(get.key()).isEqualTo(Data.KEY))
+            .satisfies(get -> assertThat(get.bucket()).isEqualTo(Data.BUCKET))
+            .satisfies(get -> assertThat(get.range()).isEqualTo(new ByteRange(0, Data.MAX_SPAN - 1).toString()));
+        assertThat(first).isEqualTo(second).isEqualTo(5);
+    }
+
+    @Test
+    void getPart_NotSequentialRead_AbortAndReopenAtNewPosition() {
+        whenNeedToGetObject(response(Data.MAX_SPAN), response(Data.MAX_SPAN));
+
+        read(0, 5);
+        read(50, 5);
+
+        verify(abortable).abort();
+        assertThat(verifyRequests(2).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(0, Data.MAX_SPAN - 1).toString(),
+                                                                     new ByteRange(50, 50 + Data.MAX_SPAN - 1)
+                                                                         .toString());
+    }
+
+    @Test
+    void getPart_SuffixRange_SeparateRequestKeepSpanOpen() {
+        whenNeedToGetObject(response(Data.MAX_SPAN), response(5));
+
+        read(0, 5);
+        int suffix = target.getPart(ByteRange.suffix(5), new byte[5], 0, 5);
+        int next   = read(5, 5);
+
+        verify(abortable, times(0)).abort();
+        assertThat(verifyRequests(2).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(0, Data.MAX_SPAN - 1).toString(),
+                                                                     "bytes=-5");
+        assertThat(suffix).isEqualTo(next).isEqualTo(5);
+    }
+
+    @Test
+    void getPart_SpanExhausted_ContinueWithNewSpan() {
+        whenNeedToGetObject(response(Data.MAX_SPAN), response(Data.MAX_SPAN));
+
+        int first  = read(0, Data.MAX_SPAN);
+        int second = read(Data.MAX_SPAN, 5);
+
+        assertThat(first).isEqualTo(Data.MAX_SPAN);
+        assertThat(second).isEqualTo(5);
+        assertThat(verifyRequests(2).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .last()
+                                                    .isEqualTo(new ByteRange(Data.MAX_SPAN, Data.MAX_SPAN * 2 - 1)
+                                                                   .toString());
+    }
+
+    @Test
+    void getPart_ReadCrossesSpanBoundary_ContinueWithNewSpanInSameCall() {
+        byte[] first  = new byte[Data.MAX_SPAN];
+        byte[] second = new byte[Data.MAX_SPAN];
+
+        first[Data.MAX_SPAN - 1] = 1;
+        second[0]                = 2;
+
+        whenNeedToGetObject(response(new ByteArrayInputStream(first)), response(new ByteArrayInputStream(second)));
+
+        byte[] data = new byte[10];
+
+        read(0, Data.MAX_SPAN - 5);
+
+        int actual = target.getPart(new ByteRange(Data.MAX_SPAN - 5, Data.MAX_SPAN + 4), data, 0, 10);
+
+        assertThat(actual).isEqualTo(10);
+        assertThat(data[4]).isEqualTo((byte) 1);
+        assertThat(data[5]).isEqualTo((byte) 2);
+        assertThat(verifyRequests(2).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(0, Data.MAX_SPAN - 1).toString(),
+                                                                     new ByteRange(Data.MAX_SPAN, Data.MAX_SPAN * 2 - 1)
+                                                                         .toString());
+    }
+
+    @Test
+    void getPart_ObjectEndsInsideSpan_ShortReadWithoutNewRequest() {
+        whenNeedToGetObject(response(5));
+
+        int actual = read(0, 10);
+
+        assertThat(actual).isEqualTo(5);
+        verifyRequests(1);
+    }
+
+    @Test
+    void getPart_AdaptiveSpanExhausted_GrowNextSpan() {
+        target = new StreamingDownloadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client),
+                                              RetryableStreamReader::new,
+                                              new AdaptiveSpan(Bytes.fromBytes(5), Bytes.fromBytes(Data.MAX_SPAN)),
+                                              ReadPolicy.SEQUENTIAL);
+
+        whenNeedToGetObject(response(5), response(10));
+
+        read(0, 5);
+        read(5, 10);
+
+        assertThat(verifyRequests(2).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(0, 4).toString(),
+                                                                     new ByteRange(5, 14).toString());
+    }
+
+    @Test
+    void getPart_SlowConsumer_GrowNextSpan() {
+        AtomicLong nanos  = new AtomicLong();
+        Ticker     ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+
+        target = new StreamingDownloadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client),
+                                              RetryableStreamReader::new,
+                                              new AdaptiveSpan(Bytes.fromBytes(5), Bytes.fromBytes(Data.MAX_SPAN),
+                                                               ticker),
+                                              ReadPolicy.SEQUENTIAL);
+
+        whenNeedToGetObject(response(slowStream(5, nanos)), response(slowStream(10, nanos)),
+                            response(slowStream(20, nanos)));
+
+        read(0, 5);
+        read(5, 10);
+        nanos.addAndGet(1000);
+        read(15, 20);
+
+        assertThat(verifyRequests(3).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(0, 4).toString(),
+                                                                     new ByteRange(5, 14).toString(),
+                                                                     new ByteRange(15, 34).toString());
+    }
+
+    IMultiPartDownloadHandler handler(ReadPolicy policy) {
+        return new StreamingDownloadHandler(new S3FileDescriptor(Data.BUCKET, Data.KEY, s3Client),
+                                            RetryableStreamReader::new,
+                                            new AdaptiveSpan(Bytes.fromBytes(Data.MAX_SPAN),
+                                                             Bytes.fromBytes(Data.MAX_SPAN)),
+                                            policy);
+    }
+
+    @Test
+    void getPart_RandomPolicy_RequestExactWindow() {
+        target = handler(ReadPolicy.RANDOM);
+
+        whenNeedToGetObject(response(5), response(5));
+
+        read(0, 5);
+        read(5, 5);
+
+        assertThat(verifyRequests(2).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(0, 4).toString(),
+                                                                     new ByteRange(5, 9).toString());
+    }
+
+    @Test
+    void getPart_AdaptivePolicyBackwardSeek_SwitchToRandom() {
+        target = handler(ReadPolicy.ADAPTIVE);
+
+        whenNeedToGetObject(response(Data.MAX_SPAN), response(5), response(5));
+
+        read(10, 5);
+        read(0, 5);
+        read(5, 5);
+
+        assertThat(verifyRequests(3).getAllValues()).extracting(GetObjectRequest::range)
+                                                    .containsExactly(new ByteRange(10, 10 + Data.MAX_SPAN - 1)
+                                                                         .toString(),
+                                                                     new ByteRange(0, 4).toString(),
+                                                                     new ByteRange(5, 9).toString());
+    }
+
+    @Test
+    void getPart_AdaptivePolicySequentialReads_KeepSpanOpen() {
+        target = handler(ReadPolicy.ADAPTIVE);
+
+        whenNeedToGetObject(response(Data.MAX_SPAN));
+
+        read(0, 5);
+        read(5, 5);
+
+        verifyRequests(1);
+    }
+
+    @Test
+    void getPart_InvalidRange_EOS() {
+        whenNeedToGetEOS();
+
+        assertThat(read(0, 10)).isNegative();
+    }
+
+    @Test
+    void getPart_ExceptionWhenReading_ReadExceptionThenReopen() throws IOException {
+        InputStream failing = mock(InputStream.class);
+
+        when(failing.read(any(), any(int.class), any(int.class))).thenThrow(new IOException());
+
+        whenNeedToGetObject(response(failing), response(Data.MAX_SPAN));
+
+        assertThatThrownBy(() -> read(0, 5)).isInstanceOf(ReadException.class);
+        assertThat(read(0, 5)).isEqualTo(5);
+
+        verify(abortable).abort();
+        verifyRequests(2);
+    }
+
+    @Test
+    void close_ResponseIsOpen_AbortResponse() {
+        whenNeedToGetObject(response(Data.MAX_SPAN));
+
+        read(0, 5);
+        target.close();
+
+        verify(abortable).abort();
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.dkamakin.s3.stream.handler.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.IVectoredReader;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.FileRange;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class VectoredReaderTest {
+
+    static class Data {
+
+        static final int MAX_GAP         = 10;
+        static final int MAX_MERGED_SIZE = 100;
+    }
+
+    @Mock IMultiPartDownloadHandler downloadHandler;
+
+    IVectoredReader target;
+
+    @BeforeEach
+    void setUp() {
+        target = new VectoredReader(downloadHandler, MoreExecutors.newDirectExecutorService(), 1,
+                                    Bytes.fromBytes(Data.MAX_GAP), Bytes.fromBytes(Data.MAX_MERGED_SIZE));
+    }
+
+    /**
+     * Every byte of the object equals its offset
+     */
+    void whenNeedToRead() {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            ByteRange range  = invocation.getArgument(0);
+            byte[]    target = invocation.getArgument(1);
+            int       length = invocation.getArgument(3);
+
+            for (int i = 0; i < length; i++) {
+                target[i] = (byte) (range.from() + i);
+            }
+
+            return length;
+        });
+    }
+
+    ArgumentCaptor<ByteRange> verifyRequests(int count) {
+        ArgumentCaptor<ByteRange> captor = ArgumentCaptor.forClass(ByteRange.class);
+
+        verify(downloadHandler, times(count)).getPart(captor.capture(), any(), eq(0), anyInt());
+
+        return captor;
+    }
+
+    @Test
+    void read_CloseRanges_SingleRequest() throws Exception {
+        whenNeedToRead();
+
+        List<CompletableFuture<ByteBuffer>> actual = target.read(Arrays.asList(new FileRange(10, 5),
+                                                                               new FileRange(0, 5)));
+
+        assertThat(verifyRequests(1).getValue()).isEqualTo(new ByteRange(0, 14));
+        assertThat(actual.get(0).get().get(0)).isEqualTo((byte) 10);
+        assertThat(actual.get(0).get().remaining()).isEqualTo(5);
+        assertThat(actual.get(1).get().get(0)).isZero();
+    }
+
+    @Test
+    void read_DistantRanges_SeparateRequests() {
+        whenNeedToRead();
+
+        target.read(Arrays.asList(new FileRange(0, 5), new FileRange(50, 5)));
+
+        assertThat(verifyRequests(2).getAllValues()).containsExactly(new ByteRange(0, 4), new ByteRange(50, 54));
+    }
+
+    @Test
+    void read_MergedSizeExceeded_SeparateRequests() {
+        whenNeedToRead();
+
+        target.read(Arrays.asList(new FileRange(0, 60), new FileRange(60, 60)));
+
+        verifyRequests(2);
+    }
+
+    @Test
+    void read_RangeBeyondEnd_CompleteExceptionally() {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(5, -1);
+
+        List<CompletableFuture<ByteBuffer>> actual = target.read(Arrays.asList(new FileRange(0, 5),
+                                                                               new FileRange(5, 5)));
+
+        assertThat(actual.get(0)).isCompleted();
+        assertThat(actual.get(1)).failsWithin(Duration.ZERO)
+                                 .withThrowableOfType(ExecutionException.class)
+                                 .withCauseInstanceOf(ReadException.class);
+    }
+
+    @Test
+    void read_ShortReads_ReadWholeGroup() throws Exception {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            ByteRange range  = invocation.getArgument(0);
+            byte[]    target = invocation.getArgument(1);
+            int       offset = invocation.getArgument(2);
+            int       length = Math.min(invocation.getArgument(3), 3);
+
+            for (int i = 0; i < length; i++) {
+                target[offset + i] = (byte) (range.from() + i);
+            }
+
+            return length;
+        });
+
+        List<CompletableFuture<ByteBuffer>> actual = target.read(Arrays.asList(new FileRange(0, 5),
+                                                                               new FileRange(5, 5)));
+
+        verify(downloadHandler, times(4)).getPart(any(), any(), anyInt(), anyInt());
+        assertThat(actual.get(1).get().get(4)).isEqualTo((byte) 9);
+    }
+
+    @Test
+    void read_ExecutorShutDown_CompleteExceptionally() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        IVectoredReader reader   = new VectoredReader(downloadHandler, executor, 1, Bytes.fromBytes(Data.MAX_GAP),
+                                                      Bytes.fromBytes(Data.MAX_MERGED_SIZE));
+
+        executor.shutdown();
+
+        List<CompletableFuture<ByteBuffer>> actual = reader.read(Arrays.asList(new FileRange(0, 5)));
+
+        assertThat(actual.get(0)).failsWithin(Duration.ZERO)
+                                 .withThrowableOfType(ExecutionException.class)
+                                 .withCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+}
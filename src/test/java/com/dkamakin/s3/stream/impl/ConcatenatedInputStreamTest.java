@@ -0,0 +1,145 @@
+package com.dkamakin.s3.stream.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.IConcatenatedInputStreamBuilder;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
+
+@ExtendWith(MockitoExtension.class)
+class ConcatenatedInputStreamTest {
+
+    static class Data {
+
+        static final String BUCKET     = "storage";
+        static final String PREFIX     = "logs/";
+        static final int    BLOCK_SIZE = 4;
+    }
+
+    @Mock S3Client s3Client;
+
+    Map<String, byte[]> objects;
+
+    @BeforeEach
+    void setUp() {
+        objects = new HashMap<>();
+
+        objects.put("logs/1", new byte[]{1, 2, 3});
+        objects.put("logs/2", new byte[]{4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        objects.put("logs/3", new byte[]{14, 15, 16, 17});
+    }
+
+    void whenNeedToGetObject() {
+        when(s3Client.getObject((GetObjectRequest) any())).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            byte[]           content = objects.get(request.key());
+            String[]         range   = request.range().substring("bytes=".length()).split("-");
+            int              from    = Integer.parseInt(range[0]);
+            int              to      = Math.min(Integer.parseInt(range[1]), content.length - 1);
+
+            return new ResponseInputStream<>(GetObjectResponse.builder()
+                                                              .contentRange(String.format("bytes %s-%s/%s", from, to,
+                                                                                          content.length))
+                                                              .build(),
+                                             AbortableInputStream.create(
+                                                 new ByteArrayInputStream(content, from, to - from + 1)));
+        });
+    }
+
+    IConcatenatedInputStreamBuilder builder() {
+        return ConcatenatedInputStream.builder()
+                                      .client(s3Client)
+                                      .bucket(Data.BUCKET)
+                                      .blockSize(Bytes.fromBytes(Data.BLOCK_SIZE))
+                                      .executor(MoreExecutors.newDirectExecutorService());
+    }
+
+    List<String> requestedKeys() {
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client, atLeastOnce()).getObject(captor.capture());
+
+        return captor.getAllValues().stream().map(GetObjectRequest::key).collect(Collectors.toList());
+    }
+
+    @Test
+    void read_KeyList_ReadObjectsInOrder() throws IOException {
+        whenNeedToGetObject();
+
+        try (ConcatenatedInputStream target = builder().keys(Arrays.asList("logs/1", "logs/2", "logs/3")).build()) {
+            assertThat(ByteStreams.toByteArray(target)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14,
+                                                                        15, 16, 17);
+        }
+    }
+
+    @Test
+    void read_FirstByte_PrefetchNextObject() {
+        whenNeedToGetObject();
+
+        try (ConcatenatedInputStream target = builder().keys(Arrays.asList("logs/1", "logs/2", "logs/3")).build()) {
+            assertThat(target.read()).isEqualTo(1);
+            assertThat(requestedKeys()).containsExactly("logs/1", "logs/2");
+        }
+    }
+
+    @Test
+    void read_Prefix_ListAndReadObjects() throws IOException {
+        ListObjectsV2Request request = ListObjectsV2Request.builder().bucket(Data.BUCKET).prefix(Data.PREFIX).build();
+
+        whenNeedToGetObject();
+        when(s3Client.listObjectsV2Paginator(request)).thenReturn(new ListObjectsV2Iterable(s3Client, request));
+        when(s3Client.listObjectsV2((ListObjectsV2Request) any()))
+            .thenReturn(ListObjectsV2Response.builder()
+                                             .contents(S3Object.builder().key("logs/1").build(),
+                                                       S3Object.builder().key("logs/3").build())
+                                             .isTruncated(false)
+                                             .build());
+
+        try (ConcatenatedInputStream target = builder().prefix(Data.PREFIX).build()) {
+            assertThat(ByteStreams.toByteArray(target)).containsExactly(1, 2, 3, 14, 15, 16, 17);
+        }
+    }
+
+    @Test
+    void read_NoObjects_EOS() {
+        try (ConcatenatedInputStream target = builder().keys(Arrays.asList()).build()) {
+            assertThat(target.read(new byte[1], 0, 1)).isNegative();
+        }
+    }
+
+    @Test
+    void build_PrefixAndKeys_IllegalArgumentException() {
+        assertThatThrownBy(() -> builder().prefix(Data.PREFIX).keys(Arrays.asList("logs/1")).build())
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder().build()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
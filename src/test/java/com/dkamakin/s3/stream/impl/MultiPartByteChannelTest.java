@@ -0,0 +1,117 @@
+package com.dkamakin.s3.stream.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MultiPartByteChannelTest {
+
+    static final class Data {
+
+        static final int LENGTH = 10;
+    }
+
+    @Mock IMultiPartDownloadHandler downloadHandler;
+
+    SeekableByteChannel target;
+
+    @BeforeEach
+    void setUp() {
+        target = new MultiPartInputStream(downloadHandler).channel();
+    }
+
+    void whenNeedToRead(Integer first, Integer... others) {
+        when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(first, others);
+    }
+
+    @Test
+    void read_HeapBuffer_ReadIntoBackingArray() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Data.LENGTH * 2);
+
+        buffer.position(Data.LENGTH);
+
+        whenNeedToRead(Data.LENGTH);
+
+        int actual = target.read(buffer);
+
+        verify(downloadHandler).getPart(new ByteRange(0, Data.LENGTH), buffer.array(), Data.LENGTH, Data.LENGTH);
+
+        assertThat(actual).isEqualTo(Data.LENGTH);
+        assertThat(buffer.position()).isEqualTo(Data.LENGTH * 2);
+        assertThat(target.position()).isEqualTo(Data.LENGTH);
+    }
+
+    @Test
+    void read_DirectBuffer_ReadIntoBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Data.LENGTH);
+
+        when(downloadHandler.getPart(new ByteRange(0, Data.LENGTH), buffer)).thenAnswer(invocation -> {
+            buffer.position(buffer.limit());
+            return Data.LENGTH;
+        });
+
+        int actual = target.read(buffer);
+
+        assertThat(actual).isEqualTo(Data.LENGTH);
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(target.position()).isEqualTo(Data.LENGTH);
+    }
+
+    @Test
+    void read_EndOfFile_EOS() throws IOException {
+        whenNeedToRead(-1);
+
+        assertThat(target.read(ByteBuffer.allocate(Data.LENGTH))).isNegative();
+    }
+
+    @Test
+    void position_NewPosition_ReadFromPosition() throws IOException {
+        whenNeedToRead(Data.LENGTH);
+
+        target.position(100).read(ByteBuffer.allocate(Data.LENGTH));
+
+        verify(downloadHandler).getPart(eq(new ByteRange(100, 100 + Data.LENGTH)), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void size_HandlerPresent_ExtractLength() throws IOException {
+        when(downloadHandler.length()).thenReturn(100L);
+
+        assertThat(target.size()).isEqualTo(100);
+    }
+
+    @Test
+    void write_AnyData_NonWritableChannelException() {
+        assertThatThrownBy(() -> target.write(ByteBuffer.allocate(1))).isInstanceOf(NonWritableChannelException.class);
+        assertThatThrownBy(() -> target.truncate(1)).isInstanceOf(NonWritableChannelException.class);
+    }
+
+    @Test
+    void close_ChannelIsOpen_CloseStream() throws IOException {
+        target.close();
+
+        verify(downloadHandler).close();
+
+        assertThat(target.isOpen()).isFalse();
+        assertThatThrownBy(() -> target.read(ByteBuffer.allocate(1))).isInstanceOf(ClosedChannelException.class);
+    }
+
+}
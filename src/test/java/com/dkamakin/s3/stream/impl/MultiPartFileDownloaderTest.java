@@ -0,0 +1,141 @@
+package com.dkamakin.s3.stream.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+@ExtendWith(MockitoExtension.class)
+class MultiPartFileDownloaderTest {
+
+    static class Data {
+
+        static final String KEY       = "file.txt";
+        static final String BUCKET    = "storage";
+        static final String E_TAG     = "eTag";
+        static final int    PART_SIZE = 10;
+        static final int    LENGTH    = 25;
+    }
+
+    @Mock S3Client s3Client;
+    @TempDir Path  directory;
+
+    byte[]                  content;
+    MultiPartFileDownloader target;
+
+    @BeforeEach
+    void setUp() {
+        content = new byte[Data.LENGTH];
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        target = MultiPartFileDownloader.builder()
+                                        .client(s3Client)
+                                        .bucket(Data.BUCKET)
+                                        .key(Data.KEY)
+                                        .partSize(Bytes.fromBytes(Data.PART_SIZE))
+                                        .executor(MoreExecutors.newDirectExecutorService())
+                                        .build();
+    }
+
+    void whenNeedToHeadObject(long length) {
+        when(s3Client.headObject((HeadObjectRequest) any())).thenReturn(HeadObjectResponse.builder()
+                                                                                          .contentLength(length)
+                                                                                          .eTag(Data.E_TAG)
+                                                                                          .build());
+    }
+
+    void whenNeedToGetObject(byte[] object) {
+        when(s3Client.getObject((GetObjectRequest) any())).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            String[]         range   = request.range().substring("bytes=".length()).split("-");
+            int              from    = Integer.parseInt(range[0]);
+            int              to      = Math.min(Integer.parseInt(range[1]) + 1, object.length);
+
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(), AbortableInputStream.create(
+                new ByteArrayInputStream(Arrays.copyOfRange(object, from, to))));
+        });
+    }
+
+    @Test
+    void downloadTo_ObjectPresent_WriteEveryRangeAtItsOffset() throws IOException {
+        Path file = directory.resolve("file");
+
+        whenNeedToHeadObject(Data.LENGTH);
+        whenNeedToGetObject(content);
+
+        long actual = target.downloadTo(file);
+
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client, times(3)).getObject(captor.capture());
+
+        List<GetObjectRequest> requests = captor.getAllValues();
+
+        assertThat(actual).isEqualTo(Data.LENGTH);
+        assertThat(Files.readAllBytes(file)).isEqualTo(content);
+        assertThat(requests).extracting(GetObjectRequest::range)
+                            .containsExactlyInAnyOrder("bytes=0-9", "bytes=10-19", "bytes=20-24");
+        assertThat(requests).extracting(GetObjectRequest::ifMatch).containsOnly(Data.E_TAG);
+    }
+
+    @Test
+    void downloadTo_EmptyObject_EmptyFile() throws IOException {
+        Path file = directory.resolve("file");
+
+        whenNeedToHeadObject(0);
+
+        assertThat(target.downloadTo(file)).isZero();
+        assertThat(Files.size(file)).isZero();
+    }
+
+    @Test
+    void downloadTo_ObjectShorterThanExpected_ReadException() {
+        Path file = directory.resolve("file");
+
+        whenNeedToHeadObject(Data.LENGTH);
+        whenNeedToGetObject(Arrays.copyOf(content, Data.LENGTH - 1));
+
+        assertThatThrownBy(() -> target.downloadTo(file)).isInstanceOf(ReadException.class);
+    }
+
+    @Test
+    void build_ParallelismNotPositive_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartFileDownloader.builder()
+                                                        .client(s3Client)
+                                                        .bucket(Data.BUCKET)
+                                                        .key(Data.KEY)
+                                                        .parallelism(0)
+                                                        .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
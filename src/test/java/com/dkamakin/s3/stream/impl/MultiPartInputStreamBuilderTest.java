@@ -1,13 +1,33 @@
 package com.dkamakin.s3.stream.impl;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
+import com.dkamakin.s3.stream.cache.impl.MemoryBlockCache;
+import com.dkamakin.s3.stream.handler.impl.ReadPolicy;
+import com.dkamakin.s3.stream.handler.impl.RequestHedger;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.RetryPolicy;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
 @ExtendWith(MockitoExtension.class)
 class MultiPartInputStreamBuilderTest {
@@ -32,4 +52,326 @@ class MultiPartInputStreamBuilderTest {
         verifyNoMoreInteractions(s3Client);
     }
 
+    @Test
+    void build_StreamingConfiguration_NoException() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .streaming(Bytes.fromMb(64))
+                                                 .build())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_BlockCacheConfiguration_NoException() {
+        MemoryBlockCache blockCache = new MemoryBlockCache(Bytes.fromMb(64), Bytes.fromMb(8));
+
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .blockCache(blockCache)
+                                                 .build())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_AdaptiveSpanWithoutStreaming_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .adaptiveSpan(Bytes.fromKb(256))
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_AdaptiveSpanGreaterThanMax_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .streaming(Bytes.fromMb(1))
+                                                     .adaptiveSpan(Bytes.fromMb(2))
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_ReadPolicyConfiguration_NoException() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .readPolicy(ReadPolicy.ADAPTIVE)
+                                                 .build())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_ReadPolicyWithPrefetch_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .readPolicy(ReadPolicy.SEQUENTIAL)
+                                                     .parallelism(4)
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_StreamingSpanNotPositive_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .streaming(Bytes.fromBytes(0))
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_PrefetchConfiguration_NoException() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .chunkSize(Bytes.fromMb(1))
+                                                 .parallelism(4)
+                                                 .maxBufferedMemory(Bytes.fromMb(2))
+                                                 .build()
+                                                 .close())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_PrefetchWithStreaming_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .streaming(Bytes.fromMb(64))
+                                                     .parallelism(4)
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_BufferedMemoryLessThanChunk_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .chunkSize(Bytes.fromMb(2))
+                                                     .parallelism(4)
+                                                     .maxBufferedMemory(Bytes.fromMb(1))
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void records_StreamingConfiguration_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .streaming(Bytes.fromMb(64))
+                                                     .records((byte) '\n', Bytes.fromMb(64)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void records_FooterPrefetch_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .footerPrefetch(Bytes.fromKb(64))
+                                                     .records((byte) '\n', Bytes.fromMb(64)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void records_Parallelism_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .parallelism(4)
+                                                     .records((byte) '\n', Bytes.fromMb(64)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void records_CorrectConfiguration_NoRequest() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .records((byte) '\n', Bytes.fromMb(64))
+                                                 .close())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_RangeCoalescingGapConfiguration_NoException() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .rangeCoalescingGap(Bytes.fromKb(64))
+                                                 .build())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_VectoredParallelismWithStreaming_NoException() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .streaming(Bytes.fromMb(64))
+                                                 .vectoredParallelism(4)
+                                                 .build()
+                                                 .close())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_VectoredParallelismNotPositive_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .vectoredParallelism(0)
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_RangeCoalescingGapNegative_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .rangeCoalescingGap(Bytes.fromBytes(-1))
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_FooterPrefetch_SendSuffixRequest() {
+        when(s3Client.getObject((GetObjectRequest) any()))
+            .thenReturn(new ResponseInputStream<>(GetObjectResponse.builder()
+                                                                   .contentRange("bytes 90-99/100")
+                                                                   .build(),
+                                                  AbortableInputStream.create(new ByteArrayInputStream(new byte[10]))));
+
+        MultiPartInputStream actual = MultiPartInputStream.builder()
+                                                          .bucket(Data.BUCKET)
+                                                          .key(Data.KEY)
+                                                          .client(s3Client)
+                                                          .footerPrefetch(Bytes.fromBytes(10))
+                                                          .build();
+
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        verify(s3Client).getObject(captor.capture());
+        verifyNoMoreInteractions(s3Client);
+        assertThat(captor.getValue().range()).isEqualTo("bytes=-10");
+        assertThat(actual.length()).isEqualTo(100);
+    }
+
+    @Test
+    void build_FooterPrefetchFails_ExceptionWithoutPrefetch() {
+        ExecutorService executor = mock(ExecutorService.class);
+
+        when(s3Client.getObject((GetObjectRequest) any())).thenThrow(SdkClientException.create("Unavailable"));
+
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .parallelism(2)
+                                                     .executor(executor)
+                                                     .footerPrefetch(Bytes.fromBytes(10))
+                                                     .retryPolicy(RetryPolicy.none())
+                                                     .build())
+            .isInstanceOf(SdkClientException.class);
+
+        verifyNoInteractions(executor);
+    }
+
+    @Test
+    void build_HedgingConfiguration_NoException() {
+        assertThatCode(() -> MultiPartInputStream.builder()
+                                                 .bucket(Data.BUCKET)
+                                                 .key(Data.KEY)
+                                                 .client(s3Client)
+                                                 .hedgeRequests(0.95, 0.05)
+                                                 .build()
+                                                 .close())
+            .doesNotThrowAnyException();
+
+        verifyNoMoreInteractions(s3Client);
+    }
+
+    @Test
+    void build_SharedHedger_NotClosedByStream() {
+        RequestHedger hedger = mock(RequestHedger.class);
+
+        MultiPartInputStream.builder()
+                            .bucket(Data.BUCKET)
+                            .key(Data.KEY)
+                            .client(s3Client)
+                            .hedgeRequests(hedger)
+                            .build()
+                            .close();
+
+        verifyNoInteractions(hedger);
+    }
+
+    @Test
+    void build_SharedHedgerWithStreaming_IllegalArgumentException() {
+        RequestHedger hedger = new RequestHedger(0.95, 0.05);
+
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .streaming(Bytes.fromMb(64))
+                                                     .hedgeRequests(hedger)
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_HedgingWithStreaming_IllegalArgumentException() {
+        assertThatThrownBy(() -> MultiPartInputStream.builder()
+                                                     .bucket(Data.BUCKET)
+                                                     .key(Data.KEY)
+                                                     .client(s3Client)
+                                                     .streaming(Bytes.fromMb(64))
+                                                     .hedgeRequests(0.95, 0.05)
+                                                     .build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
 }
@@ -6,13 +6,22 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.handler.IVectoredReader;
+import com.dkamakin.s3.stream.handler.impl.BlockProvider;
 import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.HeapBufferAllocator;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,7 +34,8 @@ class MultiPartInputStreamTest {
 
     static final class Data {
 
-        static final int FILE_SIZE = 100;
+        static final int FILE_SIZE  = 100;
+        static final int CHUNK_SIZE = 50;
     }
 
     @Mock IMultiPartDownloadHandler downloadHandler;
@@ -37,10 +47,20 @@ class MultiPartInputStreamTest {
         target = new MultiPartInputStream(downloadHandler);
     }
 
+    MultiPartInputStream bufferedStream() {
+        return new MultiPartInputStream(downloadHandler, new BlockProvider(downloadHandler, new HeapBufferAllocator(),
+                                                                           Bytes.fromBytes(Data.CHUNK_SIZE)));
+    }
+
     void whenNeedToRead(Integer first, Integer... others) {
         when(downloadHandler.getPart(any(), any(), anyInt(), anyInt())).thenReturn(first, others);
     }
 
+    @SuppressWarnings("unchecked")
+    Supplier<IVectoredReader> mockSupplier() {
+        return mock(Supplier.class);
+    }
+
     @Test
     void equals_DifferentStreams_NotEquals() {
         MultiPartInputStream another = new MultiPartInputStream(mock(IMultiPartDownloadHandler.class));
@@ -63,10 +83,37 @@ class MultiPartInputStreamTest {
     }
 
     @Test
-    void close_NoAction_NoException() {
+    void close_HandlerPresent_CloseHandler() {
         target.close();
 
-        verifyNoInteractions(downloadHandler);
+        verify(downloadHandler).close();
+    }
+
+    @Test
+    void close_NoVectoredRead_VectoredReaderNotCreated() {
+        Supplier<IVectoredReader> vectoredReaders = mockSupplier();
+
+        new MultiPartInputStream(downloadHandler, null, vectoredReaders).close();
+
+        verifyNoInteractions(vectoredReaders);
+    }
+
+    @Test
+    void readVectored_MultipleCalls_VectoredReaderCreatedOnce() {
+        Supplier<IVectoredReader> vectoredReaders = mockSupplier();
+        IVectoredReader           vectoredReader  = mock(IVectoredReader.class);
+
+        when(vectoredReaders.get()).thenReturn(vectoredReader);
+
+        MultiPartInputStream stream = new MultiPartInputStream(downloadHandler, null, vectoredReaders);
+
+        stream.readVectored(Collections.emptyList());
+        stream.readVectored(Collections.emptyList());
+        stream.close();
+
+        verify(vectoredReaders).get();
+        verify(vectoredReader, times(2)).read(Collections.emptyList());
+        verify(vectoredReader).close();
     }
 
     @Test
@@ -162,4 +209,255 @@ class MultiPartInputStreamTest {
         assertThat(captor.getAllValues()).contains(new ByteRange(0, length), new ByteRange(length, length * 2));
         assertThat(target.readLength()).isEqualTo(length * 2);
     }
+
+    @Test
+    void read_BufferedSmallReads_SingleBlockRequest() {
+        MultiPartInputStream buffered = bufferedStream();
+
+        whenNeedToRead(Data.CHUNK_SIZE);
+
+        int first  = buffered.read(new byte[10]);
+        int second = buffered.read(new byte[10]);
+
+        verify(downloadHandler).getPart(eq(new ByteRange(0, Data.CHUNK_SIZE - 1)), any(), eq(0),
+                                        eq(Data.CHUNK_SIZE));
+
+        assertThat(first).isEqualTo(second).isEqualTo(10);
+        assertThat(buffered.readLength()).isEqualTo(20);
+    }
+
+    @Test
+    void read_BufferedReadCrossesBlock_ReadUntilBlockEnd() {
+        MultiPartInputStream buffered = bufferedStream();
+
+        whenNeedToRead(Data.CHUNK_SIZE, Data.CHUNK_SIZE);
+
+        int first  = buffered.read(new byte[Data.CHUNK_SIZE + 10]);
+        int second = buffered.read(new byte[10]);
+
+        ArgumentCaptor<ByteRange> captor = ArgumentCaptor.forClass(ByteRange.class);
+
+        verify(downloadHandler, times(2)).getPart(captor.capture(), any(), anyInt(), anyInt());
+
+        assertThat(first).isEqualTo(Data.CHUNK_SIZE);
+        assertThat(second).isEqualTo(10);
+        assertThat(captor.getAllValues()).containsExactly(new ByteRange(0, Data.CHUNK_SIZE - 1),
+                                                          new ByteRange(Data.CHUNK_SIZE, Data.CHUNK_SIZE * 2 - 1));
+    }
+
+    @Test
+    void read_BufferedSingleByte_ReadFromBuffer() {
+        MultiPartInputStream buffered = bufferedStream();
+
+        whenNeedToRead(2, -1);
+
+        int first  = buffered.read();
+        int second = buffered.read();
+        int third  = buffered.read();
+
+        verify(downloadHandler, times(3)).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(first).isEqualTo(second).isZero();
+        assertThat(third).isNegative();
+        assertThat(buffered.readLength()).isEqualTo(2);
+    }
+
+    @Test
+    void read_DirectBuffer_ReadByHandler() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10);
+
+        when(downloadHandler.getPart(new ByteRange(0, 10), buffer)).thenReturn(10);
+
+        int actual = target.read(buffer);
+
+        verify(downloadHandler, never()).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isEqualTo(10);
+        assertThat(target.readLength()).isEqualTo(10);
+    }
+
+    @Test
+    void read_HeapBuffer_ReadIntoBackingArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+
+        whenNeedToRead(10);
+
+        int actual = target.read(buffer);
+
+        verify(downloadHandler).getPart(new ByteRange(0, 10), buffer.array(), 0, 10);
+
+        assertThat(actual).isEqualTo(10);
+        assertThat(buffer.position()).isEqualTo(10);
+    }
+
+    @Test
+    void read_BufferedDirectBuffer_CopyFromBlock() {
+        MultiPartInputStream buffered = bufferedStream();
+        ByteBuffer           buffer   = ByteBuffer.allocateDirect(10);
+
+        whenNeedToRead(Data.CHUNK_SIZE);
+
+        int actual = buffered.read(buffer);
+
+        assertThat(actual).isEqualTo(10);
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(buffered.readLength()).isEqualTo(10);
+    }
+
+    @Test
+    void read_BufferedEndOfFile_EOS() {
+        MultiPartInputStream buffered = bufferedStream();
+
+        whenNeedToRead(-1);
+
+        int actual        = buffered.read(new byte[10]);
+        int secondAttempt = buffered.read(new byte[10]);
+
+        verify(downloadHandler).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isEqualTo(secondAttempt).isNegative();
+    }
+
+    @Test
+    void seek_NewPosition_NextReadFromPosition() {
+        int    length = 10;
+        byte[] data   = new byte[length];
+
+        whenNeedToRead(length);
+
+        target.seek(Data.FILE_SIZE);
+        target.read(data);
+
+        verify(downloadHandler).getPart(new ByteRange(Data.FILE_SIZE, Data.FILE_SIZE + length), data, 0, length);
+        assertThat(target.position()).isEqualTo(Data.FILE_SIZE + length);
+        assertThat(target.readLength()).isEqualTo(length);
+    }
+
+    @Test
+    void seek_AfterEOS_ReadAgain() {
+        whenNeedToRead(-1, 10);
+
+        int eos = target.read(new byte[10]);
+
+        target.seek(0);
+
+        int actual = target.read(new byte[10]);
+
+        assertThat(eos).isNegative();
+        assertThat(actual).isEqualTo(10);
+    }
+
+    @Test
+    void seek_NegativePosition_IllegalArgumentException() {
+        assertThatThrownBy(() -> target.seek(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void seek_InsideBufferedBlock_NoRequest() {
+        MultiPartInputStream buffered = bufferedStream();
+
+        whenNeedToRead(Data.CHUNK_SIZE);
+
+        buffered.read(new byte[10]);
+        buffered.seek(Data.CHUNK_SIZE - 1);
+
+        int actual = buffered.read(new byte[10]);
+
+        buffered.seek(0);
+        buffered.read(new byte[10]);
+
+        verify(downloadHandler).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isEqualTo(1);
+    }
+
+    @Test
+    void length_HandlerPresent_ExtractLength() {
+        when(downloadHandler.length()).thenReturn((long) Data.FILE_SIZE);
+
+        assertThat(target.length()).isEqualTo(Data.FILE_SIZE);
+    }
+
+    @Test
+    void skip_LengthUnknown_MoveOffsetWithoutRequest() {
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.empty());
+
+        long actual = target.skip(Data.FILE_SIZE * 10L);
+
+        verify(downloadHandler, never()).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isEqualTo(Data.FILE_SIZE * 10L);
+        assertThat(target.position()).isEqualTo(Data.FILE_SIZE * 10L);
+        assertThat(target.readLength()).isZero();
+    }
+
+    @Test
+    void skip_LengthKnown_ClampToLength() {
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.of(Data.FILE_SIZE));
+
+        long first  = target.skip(Data.FILE_SIZE - 10);
+        long second = target.skip(Data.FILE_SIZE);
+
+        assertThat(first).isEqualTo(Data.FILE_SIZE - 10);
+        assertThat(second).isEqualTo(10);
+        assertThat(target.position()).isEqualTo(Data.FILE_SIZE);
+    }
+
+    @Test
+    void skip_NotPositiveCount_NoMovement() {
+        assertThat(target.skip(0)).isZero();
+        assertThat(target.skip(-1)).isZero();
+        assertThat(target.position()).isZero();
+    }
+
+    @Test
+    void skip_ThenRead_ReadFromNewOffset() {
+        int    length = 10;
+        byte[] data   = new byte[length];
+
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.empty());
+        whenNeedToRead(length);
+
+        target.skip(Data.FILE_SIZE);
+        target.read(data);
+
+        verify(downloadHandler).getPart(new ByteRange(Data.FILE_SIZE, Data.FILE_SIZE + length), data, 0, length);
+    }
+
+    @Test
+    void read_LengthKnownAndReached_EOSWithoutRequest() {
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.of(Data.FILE_SIZE));
+
+        target.seek(Data.FILE_SIZE);
+
+        int actual = target.read(new byte[10]);
+
+        verify(downloadHandler, never()).getPart(any(), any(), anyInt(), anyInt());
+
+        assertThat(actual).isNegative();
+    }
+
+    @Test
+    void available_LengthKnown_BytesLeft() {
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.of(Data.FILE_SIZE));
+
+        target.seek(10);
+
+        assertThat(target.available()).isEqualTo(Data.FILE_SIZE - 10);
+    }
+
+    @Test
+    void available_LengthUnknown_BufferedBytes() {
+        MultiPartInputStream buffered = bufferedStream();
+
+        when(downloadHandler.knownLength()).thenReturn(OptionalLong.empty());
+        whenNeedToRead(Data.CHUNK_SIZE);
+
+        int before = buffered.available();
+
+        buffered.read(new byte[10]);
+
+        assertThat(before).isZero();
+        assertThat(buffered.available()).isEqualTo(Data.CHUNK_SIZE - 10);
+    }
 }
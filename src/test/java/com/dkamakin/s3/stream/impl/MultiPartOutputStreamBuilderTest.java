@@ -3,39 +3,30 @@ package com.dkamakin.s3.stream.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import com.dkamakin.s3.stream.IMultiPartOutputStreamBuilder;
 import com.dkamakin.s3.stream.impl.MultiPartOutputStreamBuilder.Constant;
 import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.concurrent.ExecutorService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
-import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 
 @ExtendWith(MockitoExtension.class)
 class MultiPartOutputStreamBuilderTest {
 
     static class Data {
 
-        static final String                        KEY       = "file.txt";
-        static final String                        BUCKET    = "storage";
-        static final String                        UPLOAD_ID = "some_id";
-        static final CreateMultipartUploadResponse RESPONSE  = CreateMultipartUploadResponse.builder()
-                                                                                            .uploadId(UPLOAD_ID)
-                                                                                            .build();
+        static final String KEY    = "file.txt";
+        static final String BUCKET = "storage";
     }
 
     @Mock S3Client s3Client;
 
-    void whenNeedToCreateMultipartUpload(CreateMultipartUploadResponse response) {
-        when(s3Client.createMultipartUpload((CreateMultipartUploadRequest) any())).thenReturn(response);
-    }
-
     IMultiPartOutputStreamBuilder defaultBuilder() {
         return MultiPartOutputStream.builder()
                                     .bucket(Data.BUCKET)
@@ -45,8 +36,6 @@ class MultiPartOutputStreamBuilderTest {
 
     @Test
     void build_MinimumConfiguration_ReturnNewStream() {
-        whenNeedToCreateMultipartUpload(Data.RESPONSE);
-
         assertThatCode(() -> MultiPartOutputStream.builder()
                                                   .key(Data.KEY)
                                                   .bucket(Data.BUCKET)
@@ -57,8 +46,6 @@ class MultiPartOutputStreamBuilderTest {
 
     @Test
     void build_ExtendedConfiguration_ReturnNewStream() {
-        whenNeedToCreateMultipartUpload(Data.RESPONSE);
-
         Bytes minPartSize = Bytes.fromMb(6);
 
         assertThatCode(() -> MultiPartOutputStream.builder()
@@ -98,9 +85,14 @@ class MultiPartOutputStreamBuilderTest {
     }
 
     @Test
-    void build_MinPartSizeNotPresent_UseDefault() {
-        whenNeedToCreateMultipartUpload(Data.RESPONSE);
+    void build_MinimumConfiguration_NoRequestSent() {
+        defaultBuilder().build();
 
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    void build_MinPartSizeNotPresent_UseDefault() {
         Bytes expected = Constant.S3_MIN_PART_SIZE;
         Bytes actual   = defaultBuilder().build().minPartSize();
 
@@ -116,11 +108,60 @@ class MultiPartOutputStreamBuilderTest {
 
     @Test
     void build_MinPartSizeGreaterThanAmazonRequirements_NoException() {
-        whenNeedToCreateMultipartUpload(Data.RESPONSE);
-
         Bytes expected = Bytes.fromMb(6);
         Bytes actual   = defaultBuilder().minPartSize(expected).build().minPartSize();
 
         assertThat(actual).isEqualTo(expected);
     }
+
+    @Test
+    void build_MinPartSizeLargerThanBuffer_IllegalArgumentException() {
+        assertThatThrownBy(() -> defaultBuilder().minPartSize(Bytes.fromGb(2)).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_MaxPartSizeNotPresent_FixedPartSize() {
+        MultiPartOutputStream actual = defaultBuilder().build();
+
+        assertThat(actual.partSize()).isEqualTo(actual.minPartSize());
+    }
+
+    @Test
+    void build_MaxPartSizeLessThanMinPartSize_IllegalArgumentException() {
+        assertThatThrownBy(() -> defaultBuilder().minPartSize(Bytes.fromMb(10)).maxPartSize(Bytes.fromMb(6)).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_MaxPartSizeLargerThanBuffer_IllegalArgumentException() {
+        assertThatThrownBy(() -> defaultBuilder().maxPartSize(Bytes.fromGb(5)).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_MaxPartSize_StartWithMinPartSize() {
+        MultiPartOutputStream actual = defaultBuilder().maxPartSize(Bytes.fromGb(1)).build();
+
+        assertThat(actual.partSize()).isEqualTo(Constant.S3_MIN_PART_SIZE);
+    }
+
+    @Test
+    void build_MaxInFlightParts_NoException() {
+        assertThatCode(() -> defaultBuilder().maxInFlightParts(4).build()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void build_NonPositiveMaxInFlightParts_IllegalArgumentException() {
+        assertThatThrownBy(() -> defaultBuilder().maxInFlightParts(0).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void build_ExecutorWithoutMaxInFlightParts_IllegalArgumentException() {
+        ExecutorService executor = MoreExecutors.newDirectExecutorService();
+
+        assertThatThrownBy(() -> defaultBuilder().executor(executor).build())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
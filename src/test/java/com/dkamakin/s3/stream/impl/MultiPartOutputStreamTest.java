@@ -3,6 +3,9 @@ package com.dkamakin.s3.stream.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -12,16 +15,24 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import com.dkamakin.s3.stream.handler.IMultiPartUploadHandler;
 import com.dkamakin.s3.stream.impl.MultiPartOutputStreamTest.Data.WriteArguments;
+import com.dkamakin.s3.stream.util.impl.AdaptivePartSize;
 import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.PooledBufferAllocator;
 import com.google.common.base.MoreObjects;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
 
 @ExtendWith(MockitoExtension.class)
 class MultiPartOutputStreamTest {
@@ -52,6 +63,7 @@ class MultiPartOutputStreamTest {
 
         static final int   MIN_PART_SIZE = 10;
         static final Bytes BUFFER_SIZE   = Bytes.fromBytes(MIN_PART_SIZE);
+        static final Bytes MAX_PART_SIZE = Bytes.fromBytes(MIN_PART_SIZE * 4);
     }
 
     @Mock IMultiPartUploadHandler uploadHandler;
@@ -63,6 +75,16 @@ class MultiPartOutputStreamTest {
         target = new MultiPartOutputStream(Data.BUFFER_SIZE, uploadHandler);
     }
 
+    /**
+     * The handler acknowledges a directly uploaded part at once
+     */
+    void whenNeedToUploadDirectly() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(uploadHandler).upload(any(), any());
+    }
+
     static Stream<byte[]> streamArraysOverflowsBufferSize() {
         return Stream.of(
             new byte[Data.MIN_PART_SIZE],
@@ -137,7 +159,7 @@ class MultiPartOutputStreamTest {
     }
 
     @Test
-    void close_ArrayIsNotEmptyAndSizeLessThanMinPartSize_FlushThenCloseHandler() {
+    void close_ArrayIsNotEmptyAndSizeLessThanMinPartSize_PutObjectThenCloseHandler() {
         int size = Data.MIN_PART_SIZE - 1;
 
         target.write(new byte[size]);
@@ -146,11 +168,64 @@ class MultiPartOutputStreamTest {
         int actual = target.size();
 
         verify(uploadHandler).close();
-        verify(uploadHandler).upload(any());
+        verify(uploadHandler).put(any());
+        verify(uploadHandler, never()).upload(any());
 
         assertThat(actual).isEqualTo(size);
     }
 
+    @Test
+    void close_PartUploaded_FlushRemainingDataAsPart() {
+        target.write(new byte[1]);
+        target.flush();
+        target.write(new byte[1]);
+        target.close();
+
+        verify(uploadHandler, times(2)).upload(any());
+        verify(uploadHandler, never()).put(any());
+    }
+
+    @Test
+    void close_LastPartFails_AbortInsteadOfClose() {
+        IllegalStateException error = new IllegalStateException("Upload failed");
+
+        target.write(new byte[1]);
+        target.flush();
+        target.write(new byte[1]);
+
+        doThrow(error).when(uploadHandler).upload(any());
+
+        assertThatThrownBy(target::close).isSameAs(error);
+        verify(uploadHandler).abort();
+        verify(uploadHandler, never()).close();
+    }
+
+    @Test
+    void close_PutFails_AbortInsteadOfClose() {
+        IllegalStateException error = new IllegalStateException("Put failed");
+
+        target.write(new byte[1]);
+
+        doThrow(error).when(uploadHandler).put(any());
+
+        assertThatThrownBy(target::close).isSameAs(error);
+        verify(uploadHandler).abort();
+        verify(uploadHandler, never()).close();
+    }
+
+    @Test
+    void close_AbortFails_SuppressAbortFailure() {
+        IllegalStateException error        = new IllegalStateException("Put failed");
+        IllegalStateException abortFailure = new IllegalStateException("Abort failed");
+
+        target.write(new byte[1]);
+
+        doThrow(error).when(uploadHandler).put(any());
+        doThrow(abortFailure).when(uploadHandler).abort();
+
+        assertThatThrownBy(target::close).isSameAs(error).hasSuppressedException(abortFailure);
+    }
+
     @Test
     void write_ArrayLessThanMinPartSize_DataIsBufferedNothingFlushed() {
         int expected = Data.MIN_PART_SIZE - 1;
@@ -166,30 +241,78 @@ class MultiPartOutputStreamTest {
 
     @ParameterizedTest
     @MethodSource("streamArraysOverflowsBufferSize")
-    void write_ArraySizeEqualToOrGreaterThanMinPartSize_FlushData(byte[] data) {
+    void write_ArraySizeEqualToOrGreaterThanMinPartSize_UploadWholePartDirectly(byte[] data) {
+        whenNeedToUploadDirectly();
+
         target.write(data);
 
-        verify(uploadHandler).upload(any());
+        verify(uploadHandler).upload(any(), any());
+
+        assertThat(target).extracting(MultiPartOutputStream::size).isEqualTo(data.length - Data.MIN_PART_SIZE);
+    }
+
+    @Test
+    void write_ArrayLargerThanSeveralParts_SplitAtPartBoundaries() throws IOException {
+        whenNeedToUploadDirectly();
+
+        byte[] data = new byte[Data.MIN_PART_SIZE * 2 + 5];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        target.write(new byte[3]);
+        target.write(data);
 
-        assertThat(target).extracting(MultiPartOutputStream::size).isEqualTo(0);
+        ArgumentCaptor<RequestBody> buffered = ArgumentCaptor.forClass(RequestBody.class);
+        ArgumentCaptor<RequestBody> direct   = ArgumentCaptor.forClass(RequestBody.class);
+
+        verify(uploadHandler).upload(buffered.capture());
+        verify(uploadHandler).upload(direct.capture(), any());
+
+        assertThat(buffered.getValue().optionalContentLength()).contains((long) Data.MIN_PART_SIZE);
+        assertThat(direct.getValue().optionalContentLength()).contains((long) Data.MIN_PART_SIZE);
+        assertThat(ByteStreams.toByteArray(direct.getValue().contentStreamProvider().newStream()))
+            .isEqualTo(Arrays.copyOfRange(data, Data.MIN_PART_SIZE - 3, Data.MIN_PART_SIZE * 2 - 3));
+        assertThat(target.size()).isEqualTo(8);
     }
 
     @Test
-    void write_MultipleArrays_FlushOnlyWhenDataExceedsMinPartSize() {
-        int expected = 2;
+    void write_MultipleArrays_FlushOnlyWholeParts() {
+        whenNeedToUploadDirectly();
 
         target.write(new byte[Data.MIN_PART_SIZE]);
         target.write(new byte[Data.MIN_PART_SIZE - 1]);
         target.write(new byte[Data.MIN_PART_SIZE]);
-        target.write(new byte[expected]);
+        target.write(new byte[2]);
 
         int actual = target.size();
 
-        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).isEqualTo(1);
 
+        verify(uploadHandler).upload(any(), any());
         verify(uploadHandler, times(2)).upload(any());
     }
 
+    @Test
+    void write_AdaptivePartSize_PartSizeGrowsEveryStep() {
+        whenNeedToUploadDirectly();
+
+        MultiPartOutputStream adaptive = new MultiPartOutputStream(Data.BUFFER_SIZE, Data.MAX_PART_SIZE, uploadHandler,
+                                                                   null);
+
+        adaptive.write(new byte[Data.MIN_PART_SIZE * AdaptivePartSize.Constant.PARTS_PER_STEP]);
+
+        assertThat(adaptive.partSize()).isEqualTo(Bytes.fromBytes(Data.MIN_PART_SIZE * 2));
+
+        adaptive.write(new byte[Data.MIN_PART_SIZE * 2 - 1]);
+        adaptive.write(1);
+
+        verify(uploadHandler, times(AdaptivePartSize.Constant.PARTS_PER_STEP)).upload(any(), any());
+        verify(uploadHandler).upload(any());
+        assertThat(adaptive.minPartSize()).isEqualTo(Data.BUFFER_SIZE);
+    }
+
     @ParameterizedTest
     @MethodSource("streamIllegalWriteArguments")
     void write_InvalidArguments_IllegalArgumentException(WriteArguments arguments) {
@@ -197,4 +320,65 @@ class MultiPartOutputStreamTest {
             .isInstanceOf(IndexOutOfBoundsException.class);
     }
 
+    @Test
+    void write_PooledBuffer_ReleasedOnceUploaded() {
+        PooledBufferAllocator    allocator = new PooledBufferAllocator(Bytes.fromBytes(Data.MIN_PART_SIZE * 2),
+                                                                       Duration.ZERO);
+        MultiPartOutputStream    pooled    = new MultiPartOutputStream(Data.BUFFER_SIZE, uploadHandler, allocator);
+        ArgumentCaptor<Runnable> captor    = ArgumentCaptor.forClass(Runnable.class);
+
+        pooled.write(new byte[Data.MIN_PART_SIZE - 1]);
+        pooled.write(1);
+
+        verify(uploadHandler).upload(any(), captor.capture());
+        assertThat(allocator.inUse()).isEqualTo(2);
+
+        captor.getValue().run();
+
+        assertThat(allocator.inUse()).isEqualTo(1);
+
+        pooled.close();
+
+        assertThat(allocator.inUse()).isZero();
+        assertThat(allocator.allocated()).isEqualTo(Data.MIN_PART_SIZE * 2);
+    }
+
+    @Test
+    void close_PooledBufferAndPutFails_BufferReleased() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(Bytes.fromBytes(Data.MIN_PART_SIZE * 2),
+                                                                    Duration.ZERO);
+        MultiPartOutputStream pooled    = new MultiPartOutputStream(Data.BUFFER_SIZE, uploadHandler, allocator);
+
+        pooled.write(new byte[1]);
+
+        doThrow(new IllegalStateException("Put failed")).when(uploadHandler).put(any());
+
+        assertThatThrownBy(pooled::close).isInstanceOf(IllegalStateException.class);
+        assertThat(allocator.inUse()).isZero();
+    }
+
+    @Test
+    void write_PooledPartFails_ArrayNotUploadedAgain() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(Bytes.fromBytes(Data.MIN_PART_SIZE * 2),
+                                                                    Duration.ZERO);
+        MultiPartOutputStream pooled    = new MultiPartOutputStream(Data.BUFFER_SIZE, uploadHandler, allocator);
+        IllegalStateException error     = new IllegalStateException("Upload failed");
+
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            throw error;
+        }).when(uploadHandler).upload(any(), any());
+
+        pooled.write(new byte[Data.MIN_PART_SIZE - 1]);
+
+        assertThatThrownBy(() -> pooled.write(1)).isSameAs(error);
+
+        pooled.close();
+
+        verify(uploadHandler).upload(any(), any());
+        verify(uploadHandler, never()).upload(any());
+        verify(uploadHandler, never()).put(any());
+        assertThat(pooled.isEmpty()).isTrue();
+        assertThat(allocator.inUse()).isZero();
+    }
 }
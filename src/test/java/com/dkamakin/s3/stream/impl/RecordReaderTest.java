@@ -0,0 +1,155 @@
+package com.dkamakin.s3.stream.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dkamakin.s3.stream.exception.ReadException;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RecordReaderTest {
+
+    static class Data {
+
+        static final byte  DELIMITER   = ';';
+        static final Bytes BUFFER_SIZE = Bytes.fromBytes(4);
+
+        static InputStream stream(String value) {
+            return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Returns at most one byte per read, so every record spans several reads
+         */
+        static InputStream trickle(String value) {
+            return new FilterInputStream(stream(value)) {
+                @Override
+                public int read(byte[] data, int offset, int length) throws IOException {
+                    return super.read(data, offset, Math.min(1, length));
+                }
+            };
+        }
+
+        static String string(ByteBuffer record) {
+            return new String(record.array(), record.position(), record.remaining(), StandardCharsets.UTF_8);
+        }
+    }
+
+    List<String> readAll(RecordReader target) {
+        List<String> records = new ArrayList<>();
+        ByteBuffer   record;
+
+        while ((record = target.next()) != null) {
+            records.add(Data.string(record));
+        }
+
+        return records;
+    }
+
+    @Test
+    void next_Lines_SplitWithoutDelimiter() {
+        RecordReader target = new RecordReader(Data.stream("first\nsecond\nthird\n"));
+
+        assertThat(readAll(target)).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void next_NoTrailingDelimiter_LastRecordReturned() {
+        RecordReader target = new RecordReader(Data.stream("first\nlast"));
+
+        assertThat(readAll(target)).containsExactly("first", "last");
+    }
+
+    @Test
+    void next_ConsecutiveDelimiters_EmptyRecords() {
+        RecordReader target = new RecordReader(Data.stream("a;;b;"), Data.DELIMITER, Data.BUFFER_SIZE,
+                                               Data.BUFFER_SIZE);
+
+        assertThat(readAll(target)).containsExactly("a", "", "b");
+    }
+
+    @Test
+    void next_EmptyStream_Null() {
+        RecordReader target = new RecordReader(Data.stream(""));
+
+        assertThat(target.next()).isNull();
+    }
+
+    @Test
+    void next_RecordsSpanBuffer_Joined() {
+        RecordReader target = new RecordReader(Data.trickle("abc;de;f;gh"), Data.DELIMITER, Data.BUFFER_SIZE,
+                                               Data.BUFFER_SIZE);
+
+        assertThat(readAll(target)).containsExactly("abc", "de", "f", "gh");
+    }
+
+    @Test
+    void next_RecordLargerThanBuffer_BufferGrows() {
+        RecordReader target = new RecordReader(Data.stream("a;0123456789;b"), Data.DELIMITER, Data.BUFFER_SIZE,
+                                               Bytes.fromBytes(16));
+
+        assertThat(readAll(target)).containsExactly("a", "0123456789", "b");
+    }
+
+    @Test
+    void next_RecordLargerThanMax_Exception() {
+        RecordReader target = new RecordReader(Data.stream("a;0123456789;b"), Data.DELIMITER, Data.BUFFER_SIZE,
+                                               Bytes.fromBytes(8));
+
+        assertThat(Data.string(target.next())).isEqualTo("a");
+        assertThatThrownBy(target::next).isInstanceOf(ReadException.class).hasRootCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void next_StreamReturnsNoData_Exception() {
+        RecordReader target = new RecordReader(new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] data, int offset, int length) {
+                return 0;
+            }
+        }, Data.DELIMITER, Data.BUFFER_SIZE, Data.BUFFER_SIZE);
+
+        assertThatThrownBy(target::next).isInstanceOf(ReadException.class);
+    }
+
+    @Test
+    void next_SameBuffer_NoAllocationPerRecord() {
+        RecordReader target = new RecordReader(Data.stream("first\nsecond\n"));
+
+        assertThat(target.next()).isSameAs(target.next());
+    }
+
+    @Test
+    void recordOffset_RecordsSpanBuffer_AbsoluteOffset() {
+        RecordReader target = new RecordReader(Data.trickle("abc;de;f;"), Data.DELIMITER, Data.BUFFER_SIZE,
+                                               Data.BUFFER_SIZE);
+        List<Long>   offsets = new ArrayList<>();
+
+        while (target.next() != null) {
+            offsets.add(target.recordOffset());
+        }
+
+        assertThat(offsets).containsExactly(0L, 4L, 7L);
+    }
+
+    @Test
+    void constructor_MaxLessThanBuffer_Exception() {
+        InputStream stream = Data.stream("");
+
+        assertThatThrownBy(() -> new RecordReader(stream, Data.DELIMITER, Data.BUFFER_SIZE, Bytes.fromBytes(2)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
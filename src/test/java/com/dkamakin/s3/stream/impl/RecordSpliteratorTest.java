@@ -0,0 +1,140 @@
+package com.dkamakin.s3.stream.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dkamakin.s3.stream.handler.IMultiPartDownloadHandler;
+import com.dkamakin.s3.stream.util.impl.ByteRange;
+import com.dkamakin.s3.stream.util.impl.Bytes;
+import com.dkamakin.s3.stream.util.impl.Constant;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RecordSpliteratorTest {
+
+    static class Data {
+
+        static final byte         DELIMITER   = '\n';
+        static final Bytes        BUFFER_SIZE = Bytes.fromBytes(4);
+        static final Bytes        MAX_SIZE    = Bytes.fromBytes(16);
+        static final String       CONTENT     = "aa\nbbb\n\nc\ndddddd\ne\nff\ng";
+        static final List<String> RECORDS     = Arrays.asList(CONTENT.split("\n", -1));
+        static final byte[]       BYTES       = CONTENT.getBytes(StandardCharsets.UTF_8);
+
+        static String string(ByteBuffer record) {
+            return new String(record.array(), record.position(), record.remaining(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Mock IMultiPartDownloadHandler downloadHandler;
+
+    void whenNeedToGetPart() {
+        lenient().when(downloadHandler.length()).thenReturn((long) Data.BYTES.length);
+        lenient().when(downloadHandler.knownLength()).thenReturn(OptionalLong.of(Data.BYTES.length));
+        when(downloadHandler.getPart(any(ByteRange.class), any(byte[].class), anyInt(), anyInt()))
+            .thenAnswer(invocation -> {
+                ByteRange range  = invocation.getArgument(0);
+                byte[]    target = invocation.getArgument(1);
+                int       from   = (int) range.from();
+
+                if (from >= Data.BYTES.length) {
+                    return Constant.EOS;
+                }
+
+                int count = Math.min(invocation.getArgument(3), Data.BYTES.length - from);
+
+                System.arraycopy(Data.BYTES, from, target, invocation.getArgument(2), count);
+
+                return count;
+            });
+    }
+
+    RecordSpliterator spliterator(long from, long to, long splitSize) {
+        return new RecordSpliterator(downloadHandler, Data.DELIMITER, Data.BUFFER_SIZE, Data.MAX_SIZE, splitSize,
+                                     from, to);
+    }
+
+    List<String> readAll(Spliterator<ByteBuffer> target) {
+        List<String> records = new ArrayList<>();
+
+        target.forEachRemaining(record -> records.add(Data.string(record)));
+
+        return records;
+    }
+
+    @Test
+    void tryAdvance_AnyBoundary_EveryRecordExactlyOnce() {
+        whenNeedToGetPart();
+
+        for (int boundary = 0; boundary <= Data.BYTES.length; boundary++) {
+            List<String> records = new ArrayList<>(readAll(spliterator(0, boundary, 1)));
+
+            records.addAll(readAll(spliterator(boundary, Data.BYTES.length, 1)));
+
+            assertThat(records).as("boundary %s", boundary).isEqualTo(Data.RECORDS);
+        }
+    }
+
+    @Test
+    void tryAdvance_RangeStartsAtRecord_RecordOwned() {
+        whenNeedToGetPart();
+
+        assertThat(readAll(spliterator(3, 4, 1))).containsExactly("bbb");
+        assertThat(readAll(spliterator(4, 7, 1))).isEmpty();
+    }
+
+    @Test
+    void stream_Parallel_SameRecordsInOrder() {
+        whenNeedToGetPart();
+
+        for (long splitSize = 1; splitSize <= Data.BYTES.length; splitSize++) {
+            try (Stream<ByteBuffer> records = StreamSupport.stream(spliterator(0, -1, splitSize), true)) {
+                List<String> actual = records.map(Data::string).collect(Collectors.toList());
+
+                assertThat(actual).as("split size %s", splitSize).isEqualTo(Data.RECORDS);
+            }
+        }
+    }
+
+    @Test
+    void trySplit_RangeSmallerThanTwoSplits_Null() {
+        when(downloadHandler.length()).thenReturn((long) Data.BYTES.length);
+
+        assertThat(spliterator(0, -1, Data.BYTES.length).trySplit()).isNull();
+    }
+
+    @Test
+    void trySplit_LargeRange_HalvesRange() {
+        RecordSpliterator       target = spliterator(0, 100, 10);
+        Spliterator<ByteBuffer> split  = target.trySplit();
+
+        assertThat(split).isNotNull();
+        assertThat(target.estimateSize()).isEqualTo(50);
+        assertThat(split.estimateSize()).isEqualTo(50);
+    }
+
+    @Test
+    void stream_Closed_HandlerClosed() {
+        RecordSpliterator.stream(downloadHandler, Data.DELIMITER, Data.BUFFER_SIZE, Data.MAX_SIZE, Data.BUFFER_SIZE)
+                         .close();
+
+        verify(downloadHandler).close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dkamakin.s3.stream.util.impl.AdaptivePartSize.Constant;
+import org.junit.jupiter.api.Test;
+
+class AdaptivePartSizeTest {
+
+    static class Data {
+
+        static final Bytes INITIAL         = Bytes.fromMb(5);
+        static final Bytes MAX             = Bytes.fromGb(1);
+        static final long  S3_MAX_OBJECT   = Bytes.fromGb(5 * 1024).toLongBytes();
+        static final long  FIXED_PART_SIZE = INITIAL.toLongBytes();
+    }
+
+    @Test
+    void size_FirstStep_InitialSize() {
+        AdaptivePartSize target = new AdaptivePartSize(Data.INITIAL, Data.MAX);
+
+        assertThat(target.size(1)).isEqualTo(Data.INITIAL.toBytes());
+        assertThat(target.size(Constant.PARTS_PER_STEP)).isEqualTo(Data.INITIAL.toBytes());
+    }
+
+    @Test
+    void size_NextStep_Doubled() {
+        AdaptivePartSize target = new AdaptivePartSize(Data.INITIAL, Data.MAX);
+
+        assertThat(target.size(Constant.PARTS_PER_STEP + 1)).isEqualTo(2 * Data.INITIAL.toBytes());
+    }
+
+    @Test
+    void size_LastPart_NotGreaterThanMax() {
+        AdaptivePartSize target = new AdaptivePartSize(Data.INITIAL, Data.MAX);
+
+        assertThat(target.size(Constant.MAX_PARTS)).isEqualTo(Data.MAX.toBytes());
+    }
+
+    @Test
+    void size_EqualInitialAndMax_FixedSize() {
+        AdaptivePartSize target = new AdaptivePartSize(Data.INITIAL, Data.INITIAL);
+
+        assertThat(target.size(Constant.MAX_PARTS)).isEqualTo(Data.INITIAL.toBytes());
+        assertThat(target.capacity(Constant.MAX_PARTS)).isEqualTo(Constant.MAX_PARTS * Data.FIXED_PART_SIZE);
+    }
+
+    @Test
+    void capacity_MaxParts_ReachesObjectLimit() {
+        AdaptivePartSize target = new AdaptivePartSize(Data.INITIAL, Data.MAX);
+
+        assertThat(target.capacity(Constant.MAX_PARTS)).isGreaterThanOrEqualTo(Data.S3_MAX_OBJECT);
+    }
+
+    @Test
+    void size_NonPositivePartNumber_IllegalArgumentException() {
+        AdaptivePartSize target = new AdaptivePartSize(Data.INITIAL, Data.MAX);
+
+        assertThatThrownBy(() -> target.size(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void new_MaxLessThanInitial_IllegalArgumentException() {
+        assertThatThrownBy(() -> new AdaptivePartSize(Data.MAX, Data.INITIAL))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void new_MaxLargerThanArray_IllegalArgumentException() {
+        assertThatThrownBy(() -> new AdaptivePartSize(Data.INITIAL, Bytes.fromGb(2)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveSpanTest {
+
+    static class Data {
+
+        static final int INITIAL = 10;
+        static final int MAX     = 40;
+    }
+
+    long         nanos;
+    AdaptiveSpan target;
+
+    @BeforeEach
+    void setUp() {
+        target = new AdaptiveSpan(Bytes.fromBytes(Data.INITIAL), Bytes.fromBytes(Data.MAX), new Ticker() {
+            @Override
+            public long read() {
+                return nanos;
+            }
+        });
+    }
+
+    void complete(long bytes, long elapsed) {
+        long started = target.start();
+
+        nanos += elapsed;
+
+        target.completed(bytes, target.elapsed(started));
+    }
+
+    @Test
+    void completed_SteadyThroughput_DoubleUpToMax() {
+        complete(10, 10);
+        assertThat(target.next()).isEqualTo(20);
+
+        complete(20, 20);
+        assertThat(target.next()).isEqualTo(40);
+
+        complete(40, 40);
+        assertThat(target.next()).isEqualTo(Data.MAX);
+    }
+
+    @Test
+    void completed_Stall_Shrink() {
+        complete(10, 10);
+        complete(20, 20);
+        complete(40, 1000);
+
+        assertThat(target.next()).isEqualTo(20);
+    }
+
+    @Test
+    void failed_AnySpan_ShrinkNotBelowInitial() {
+        complete(10, 10);
+
+        target.failed();
+        assertThat(target.next()).isEqualTo(Data.INITIAL);
+
+        target.failed();
+        assertThat(target.next()).isEqualTo(Data.INITIAL);
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.dkamakin.s3.stream.util.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.junit.jupiter.api.Test;
 
@@ -11,6 +12,20 @@ class ByteRangeTest {
         assertThat(new ByteRange(10, 20)).hasToString("bytes=10-20");
     }
 
+    @Test
+    void toString_Suffix_ConstructSuffixString() {
+        ByteRange actual = ByteRange.suffix(10);
+
+        assertThat(actual).hasToString("bytes=-10");
+        assertThat(actual.isSuffix()).isTrue();
+        assertThat(actual.from()).isEqualTo(-10);
+    }
+
+    @Test
+    void suffix_NotPositive_IllegalArgumentException() {
+        assertThatThrownBy(() -> ByteRange.suffix(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void equals_DifferentRanges_NotEquals() {
         ByteRange first  = new ByteRange(10, 20);
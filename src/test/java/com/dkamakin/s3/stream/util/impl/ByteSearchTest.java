@@ -0,0 +1,91 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ByteSearchTest {
+
+    static class Data {
+
+        static final byte DELIMITER = '\n';
+        static final int  SIZE      = 37;
+
+        static ByteBuffer buffer(byte[] data) {
+            return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        static byte[] filled(byte value) {
+            byte[] data = new byte[SIZE];
+
+            Arrays.fill(data, value);
+
+            return data;
+        }
+    }
+
+    @Test
+    void indexOf_EveryPosition_FoundExactly() {
+        for (int position = 0; position < Data.SIZE; position++) {
+            byte[] data = Data.filled((byte) 'a');
+
+            data[position] = Data.DELIMITER;
+
+            assertThat(ByteSearch.indexOf(Data.buffer(data), 0, Data.SIZE, Data.DELIMITER)).isEqualTo(position);
+        }
+    }
+
+    @Test
+    void indexOf_SeveralMatches_FirstAfterFrom() {
+        byte[] data = Data.filled((byte) 'a');
+
+        data[3]  = Data.DELIMITER;
+        data[4]  = Data.DELIMITER;
+        data[20] = Data.DELIMITER;
+
+        assertThat(ByteSearch.indexOf(Data.buffer(data), 0, Data.SIZE, Data.DELIMITER)).isEqualTo(3);
+        assertThat(ByteSearch.indexOf(Data.buffer(data), 5, Data.SIZE, Data.DELIMITER)).isEqualTo(20);
+    }
+
+    @Test
+    void indexOf_MatchAfterTo_NotFound() {
+        byte[] data = Data.filled((byte) 'a');
+
+        data[10] = Data.DELIMITER;
+
+        assertThat(ByteSearch.indexOf(Data.buffer(data), 0, 10, Data.DELIMITER)).isEqualTo(-1);
+    }
+
+    @Test
+    void indexOf_HighBitBytes_NoFalseMatch() {
+        byte[] data  = Data.filled((byte) 0x8A);
+        byte   value = (byte) 0xFF;
+
+        data[Data.SIZE - 1] = value;
+
+        assertThat(ByteSearch.indexOf(Data.buffer(data), 0, Data.SIZE, Data.DELIMITER)).isEqualTo(-1);
+        assertThat(ByteSearch.indexOf(Data.buffer(data), 0, Data.SIZE, value)).isEqualTo(Data.SIZE - 1);
+    }
+
+    @Test
+    void indexOf_BorrowAfterMatch_LowestIndex() {
+        byte[] data = Data.filled((byte) 'a');
+
+        data[8] = Data.DELIMITER;
+        data[9] = Data.DELIMITER + 1;
+
+        assertThat(ByteSearch.indexOf(Data.buffer(data), 0, Data.SIZE, Data.DELIMITER)).isEqualTo(8);
+    }
+
+    @Test
+    void indexOf_BigEndianBuffer_Exception() {
+        ByteBuffer buffer = ByteBuffer.wrap(Data.filled((byte) 'a'));
+
+        assertThatThrownBy(() -> ByteSearch.indexOf(buffer, 0, Data.SIZE, Data.DELIMITER))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,6 +1,7 @@
 package com.dkamakin.s3.stream.util.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.base.MoreObjects;
 import java.util.function.Function;
@@ -95,6 +96,31 @@ class BytesTest {
         assertThat(actual).extracting(Bytes::toBytes).isEqualTo(expected);
     }
 
+    @Test
+    void fromGb_LargerThanInt_LongConversion() {
+        Bytes actual = Bytes.fromGb(5 * 1024);
+
+        assertThat(actual.toLongBytes()).isEqualTo(5L * 1024 * 1024 * 1024 * 1024);
+        assertThat(actual.toMb()).isEqualTo(5 * 1024 * 1024);
+    }
+
+    @Test
+    void toBytes_LargerThanInt_ArithmeticException() {
+        Bytes actual = Bytes.fromGb(2);
+
+        assertThatThrownBy(actual::toBytes).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void fromGb_Overflow_ArithmeticException() {
+        assertThatThrownBy(() -> Bytes.fromGb(Long.MAX_VALUE / 1024)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void compareTo_LargerThanInt_Compared() {
+        assertThat(Bytes.fromGb(3)).isGreaterThan(Bytes.fromMb(2047));
+    }
+
     @ParameterizedTest
     @MethodSource("argumentStream")
     void conversion_Argument_CorrectConversion(Argument argument) {
@@ -0,0 +1,30 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ContentRangeTest {
+
+    @Test
+    void totalLength_RangeWithLength_ExtractLength() {
+        assertThat(ContentRange.totalLength("bytes 0-9/100")).hasValue(100);
+    }
+
+    @Test
+    void totalLength_UnsatisfiedRange_ExtractLength() {
+        assertThat(ContentRange.totalLength("bytes */100")).hasValue(100);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"bytes 0-9/*", "bytes 0-9", "bytes 0-9/abc"})
+    void totalLength_LengthUnknown_Empty(String header) {
+        assertThat(ContentRange.totalLength(header)).isEqualTo(OptionalLong.empty());
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dkamakin.s3.stream.exception.BufferPoolExhaustedException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PooledBufferAllocatorTest {
+
+    static class Data {
+
+        static final int      BUFFER_SIZE = 10;
+        static final Bytes    MAX_MEMORY  = Bytes.fromBytes(BUFFER_SIZE * 2);
+        static final Duration WAIT        = Duration.ofSeconds(5);
+    }
+
+    @Test
+    void allocate_ReleasedBuffer_Reused() {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Duration.ZERO);
+        ByteBuffer            first  = target.allocate(Data.BUFFER_SIZE);
+
+        target.release(first);
+
+        ByteBuffer actual = target.allocate(Data.BUFFER_SIZE - 1);
+
+        assertThat(actual).isSameAs(first);
+        assertThat(actual.position()).isZero();
+        assertThat(actual.limit()).isEqualTo(Data.BUFFER_SIZE - 1);
+        assertThat(target.allocated()).isEqualTo(Data.BUFFER_SIZE);
+        assertThat(target.inUse()).isEqualTo(1);
+    }
+
+    @Test
+    void allocate_FreeBufferTooLarge_NewBuffer() {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Duration.ZERO);
+        ByteBuffer            large  = target.allocate(Data.BUFFER_SIZE);
+
+        target.release(large);
+
+        assertThat(target.allocate(Data.BUFFER_SIZE / 2 - 1)).isNotSameAs(large);
+    }
+
+    @Test
+    void allocate_LimitReachedWithFreeBuffers_FreeBuffersDropped() {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Duration.ZERO);
+
+        target.release(target.allocate(Data.BUFFER_SIZE));
+        target.release(target.allocate(Data.BUFFER_SIZE));
+
+        ByteBuffer actual = target.allocate(Data.BUFFER_SIZE * 2);
+
+        assertThat(actual.capacity()).isEqualTo(Data.BUFFER_SIZE * 2);
+        assertThat(target.allocated()).isEqualTo(Data.BUFFER_SIZE * 2);
+    }
+
+    @Test
+    void allocate_ExhaustedWithoutWait_BufferPoolExhaustedException() {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Duration.ZERO);
+
+        target.allocate(Data.BUFFER_SIZE);
+        target.allocate(Data.BUFFER_SIZE);
+
+        assertThatThrownBy(() -> target.allocate(Data.BUFFER_SIZE)).isInstanceOf(BufferPoolExhaustedException.class);
+    }
+
+    @Test
+    void allocate_ExhaustedWithWait_GetReleasedBuffer() throws Exception {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Data.WAIT);
+        ByteBuffer            first  = target.allocate(Data.BUFFER_SIZE);
+
+        target.allocate(Data.BUFFER_SIZE);
+
+        CompletableFuture<ByteBuffer> waiting = CompletableFuture.supplyAsync(
+            () -> target.allocate(Data.BUFFER_SIZE));
+
+        Thread.sleep(100);
+
+        assertThat(waiting).isNotDone();
+
+        target.release(first);
+
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isSameAs(first);
+    }
+
+    @Test
+    void allocate_LargerThanMaxMemory_BufferPoolExhaustedException() {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Data.WAIT);
+
+        assertThatThrownBy(() -> target.allocate(Data.BUFFER_SIZE * 3))
+            .isInstanceOf(BufferPoolExhaustedException.class);
+    }
+
+    @Test
+    void release_ForeignBuffer_Ignored() {
+        PooledBufferAllocator target = new PooledBufferAllocator(Data.MAX_MEMORY, Duration.ZERO);
+
+        target.release(ByteBuffer.allocate(Data.BUFFER_SIZE));
+
+        assertThat(target.allocate(Data.BUFFER_SIZE)).isNotNull();
+        assertThat(target.allocated()).isEqualTo(Data.BUFFER_SIZE);
+    }
+}
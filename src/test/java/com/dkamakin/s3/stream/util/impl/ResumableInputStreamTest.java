@@ -0,0 +1,148 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableInputStreamTest {
+
+    static class Data {
+
+        static final byte[]      CONTENT = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        static final RetryPolicy POLICY  = new RetryPolicy(3, Duration.ZERO, Duration.ZERO);
+    }
+
+    List<Long> resumedAt = new ArrayList<>();
+
+    /**
+     * Delivers the given amount of bytes and then fails
+     */
+    InputStream broken(long from, int count) {
+        return new InputStream() {
+
+            long position = from;
+
+            @Override
+            public int read() throws IOException {
+                if (position - from >= count) {
+                    throw new IOException("Connection reset");
+                }
+
+                return Data.CONTENT[(int) position++];
+            }
+        };
+    }
+
+    InputStream resume(long delivered) {
+        resumedAt.add(delivered);
+
+        return remaining(delivered);
+    }
+
+    InputStream remaining(long delivered) {
+        return new ByteArrayInputStream(Data.CONTENT, (int) delivered, Data.CONTENT.length - (int) delivered);
+    }
+
+    @Test
+    void read_ConnectionReset_ResumeFromDeliveredByte() throws IOException {
+        ResumableInputStream target = new ResumableInputStream(broken(0, 4), this::resume, Data.POLICY);
+
+        byte[] actual = ByteStreams.toByteArray(target);
+
+        assertThat(actual).containsExactly(Data.CONTENT);
+        assertThat(resumedAt).containsExactly(4L);
+        assertThat(target.delivered()).isEqualTo(Data.CONTENT.length);
+    }
+
+    @Test
+    void read_SporadicFailures_ResetAttempts() throws IOException {
+        ResumableInputStream target = new ResumableInputStream(broken(0, 2), delivered -> {
+            resumedAt.add(delivered);
+            return delivered < 6 ? broken(delivered, 2) : remaining(delivered);
+        }, Data.POLICY);
+
+        byte[] actual = ByteStreams.toByteArray(target);
+
+        assertThat(actual).containsExactly(Data.CONTENT);
+        assertThat(resumedAt).containsExactly(2L, 4L, 6L);
+    }
+
+    @Test
+    void read_AttemptsExhausted_ThrowCause() {
+        ResumableInputStream target = new ResumableInputStream(broken(0, 0), delivered -> broken(delivered, 0),
+                                                               Data.POLICY);
+
+        assertThatThrownBy(() -> ByteStreams.toByteArray(target)).isInstanceOf(IOException.class)
+                                                                 .hasMessage("Connection reset");
+    }
+
+    @Test
+    void read_PreconditionFailed_Rethrow() {
+        S3Exception exception = mock(S3Exception.class);
+
+        when(exception.statusCode()).thenReturn(412);
+
+        ResumableInputStream target = new ResumableInputStream(broken(0, 1), delivered -> {
+            throw exception;
+        }, Data.POLICY);
+
+        assertThatThrownBy(() -> ByteStreams.toByteArray(target)).isSameAs(exception);
+    }
+
+    @Test
+    void read_ServerErrorOnResume_RetryResume() throws IOException {
+        S3Exception exception = mock(S3Exception.class);
+
+        when(exception.statusCode()).thenReturn(503);
+
+        ResumableInputStream target = new ResumableInputStream(broken(0, 1), delivered -> {
+            resumedAt.add(delivered);
+
+            if (resumedAt.size() == 1) {
+                throw exception;
+            }
+
+            return remaining(delivered);
+        }, Data.POLICY);
+
+        assertThat(ByteStreams.toByteArray(target)).containsExactly(Data.CONTENT);
+        assertThat(resumedAt).containsExactly(1L, 1L);
+    }
+
+    @Test
+    void close_StreamOpen_CloseCurrentStream() throws IOException {
+        InputStream stream = mock(InputStream.class);
+
+        when(stream.read(any(), anyInt(), anyInt())).thenThrow(new IOException());
+
+        InputStream          resumed = mock(InputStream.class);
+        ResumableInputStream target  = new ResumableInputStream(stream, delivered -> resumed, Data.POLICY);
+
+        when(resumed.read(any(), anyInt(), anyInt())).thenReturn(Constant.EOS);
+
+        assertThat(target.read(new byte[1], 0, 1)).isEqualTo(Constant.EOS);
+
+        target.close();
+
+        verify(stream).close();
+        verify(resumed).close();
+    }
+
+}
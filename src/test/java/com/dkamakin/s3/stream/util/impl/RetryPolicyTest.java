@@ -0,0 +1,56 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    static class Data {
+
+        static final Duration INITIAL = Duration.ofMillis(100);
+        static final Duration MAX     = Duration.ofMillis(350);
+    }
+
+    @Test
+    void backoff_ConsecutiveFailures_DoubleUpToMax() {
+        RetryPolicy target = new RetryPolicy(5, Data.INITIAL, Data.MAX);
+
+        assertThat(target.backoff(1)).isEqualTo(Duration.ofMillis(100));
+        assertThat(target.backoff(2)).isEqualTo(Duration.ofMillis(200));
+        assertThat(target.backoff(3)).isEqualTo(Data.MAX);
+        assertThat(target.backoff(Integer.MAX_VALUE)).isEqualTo(Data.MAX);
+    }
+
+    @Test
+    void canRetry_AttemptsLeft_True() {
+        RetryPolicy target = new RetryPolicy(3, Data.INITIAL, Data.MAX);
+
+        assertThat(target.isEnabled()).isTrue();
+        assertThat(target.canRetry(2)).isTrue();
+        assertThat(target.canRetry(3)).isFalse();
+    }
+
+    @Test
+    void none_AnyFailure_NoRetry() {
+        RetryPolicy target = RetryPolicy.none();
+
+        assertThat(target.isEnabled()).isFalse();
+        assertThat(target.canRetry(1)).isFalse();
+    }
+
+    @Test
+    void new_MaxBackoffLessThanInitial_IllegalArgumentException() {
+        assertThatThrownBy(() -> new RetryPolicy(3, Data.MAX, Data.INITIAL))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void new_NotPositiveAttempts_IllegalArgumentException() {
+        assertThatThrownBy(() -> new RetryPolicy(0, Data.INITIAL, Data.MAX))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
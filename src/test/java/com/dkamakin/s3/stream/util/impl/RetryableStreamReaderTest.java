@@ -0,0 +1,60 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class RetryableStreamReaderTest {
+
+    static class Data {
+
+        static final int SIZE = RetryableStreamReader.Constant.TRANSFER_BUFFER_SIZE * 2 + 10;
+
+        static byte[] content() {
+            byte[] content = new byte[SIZE];
+
+            for (int i = 0; i < content.length; i++) {
+                content[i] = (byte) i;
+            }
+
+            return content;
+        }
+    }
+
+    @Test
+    void read_DirectBufferLargerThanTransfer_ReadWholeContent() throws IOException {
+        byte[]                content = Data.content();
+        RetryableStreamReader target  = new RetryableStreamReader(new ByteArrayInputStream(content));
+        ByteBuffer            buffer  = ByteBuffer.allocateDirect(Data.SIZE + 1);
+
+        int actual = target.read(buffer);
+
+        ((Buffer) buffer).flip();
+
+        byte[] read = new byte[buffer.remaining()];
+
+        buffer.get(read);
+
+        assertThat(actual).isEqualTo(Data.SIZE);
+        assertThat(read).isEqualTo(content);
+    }
+
+    @Test
+    void read_SmallThenLargeDirectReads_ReadInOrder() throws IOException {
+        byte[]                content = Data.content();
+        RetryableStreamReader target  = new RetryableStreamReader(new ByteArrayInputStream(content));
+        ByteBuffer            small   = ByteBuffer.allocateDirect(10);
+        ByteBuffer            large   = ByteBuffer.allocateDirect(Data.SIZE - 10);
+
+        target.read(small);
+        target.read(large);
+
+        assertThat(small.get(9)).isEqualTo(content[9]);
+        assertThat(large.get(0)).isEqualTo(content[10]);
+        assertThat(large.get(large.capacity() - 1)).isEqualTo(content[Data.SIZE - 1]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dkamakin.s3.stream.util.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SlabBufferAllocatorTest {
+
+    static class Data {
+
+        static final int SLOT_SIZE = 10;
+        static final int SLOTS     = 2;
+    }
+
+    SlabBufferAllocator target;
+
+    @BeforeEach
+    void setUp() {
+        target = new SlabBufferAllocator(Bytes.fromBytes(Data.SLOT_SIZE * Data.SLOTS), Bytes.fromBytes(Data.SLOT_SIZE));
+    }
+
+    @Test
+    void allocate_FreeSlot_DirectBufferWithRequestedLimit() {
+        ByteBuffer actual = target.allocate(5);
+
+        assertThat(actual.isDirect()).isTrue();
+        assertThat(actual.limit()).isEqualTo(5);
+        assertThat(target.freeSlots()).isEqualTo(Data.SLOTS - 1);
+    }
+
+    @Test
+    void allocate_NoFreeSlot_HeapBuffer() {
+        target.allocate(Data.SLOT_SIZE);
+        target.allocate(Data.SLOT_SIZE);
+
+        assertThat(target.allocate(Data.SLOT_SIZE).isDirect()).isFalse();
+    }
+
+    @Test
+    void allocate_LargerThanSlot_HeapBuffer() {
+        assertThat(target.allocate(Data.SLOT_SIZE + 1).isDirect()).isFalse();
+        assertThat(target.freeSlots()).isEqualTo(Data.SLOTS);
+    }
+
+    @Test
+    void release_BlockReleased_ReturnSlot() {
+        ByteBuffer buffer = target.allocate(Data.SLOT_SIZE);
+        Block      block  = new Block(0, buffer, () -> target.release(buffer));
+
+        assertThat(block.retain()).isTrue();
+
+        block.release();
+        assertThat(target.freeSlots()).isEqualTo(Data.SLOTS - 1);
+
+        block.release();
+        assertThat(target.freeSlots()).isEqualTo(Data.SLOTS);
+        assertThat(block.retain()).isFalse();
+    }
+
+    @Test
+    void create_SlabLessThanSlot_IllegalArgumentException() {
+        Bytes slab = Bytes.fromBytes(Data.SLOT_SIZE - 1);
+        Bytes slot = Bytes.fromBytes(Data.SLOT_SIZE);
+
+        assertThatThrownBy(() -> new SlabBufferAllocator(slab, slot)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}